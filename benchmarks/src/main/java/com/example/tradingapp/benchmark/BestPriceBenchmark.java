@@ -0,0 +1,80 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.market.ConsolidatedOrderBook;
+import com.example.tradingapp.market.Venue;
+import com.example.tradingapp.market.VenueQuote;
+import com.example.tradingapp.service.PriceAggregationService;
+import com.example.tradingapp.util.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Best-price selection for one incoming venue quote. {@code bookUpdate} is the consolidated book on
+ * its own; {@code onVenueQuote} is the full ingestion path through PriceAggregationService, including
+ * the top-of-book publish and the journal enqueue whenever the best price moves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BestPriceBenchmark {
+
+    // Enough distinct quotes that the best price keeps moving, as it does on a live feed
+    private static final int QUOTE_COUNT = 1024;
+
+    private TradingContext context;
+    private PriceAggregationService priceAggregationService;
+    private ConsolidatedOrderBook book;
+
+    private VenueQuote[] quotes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = TradingContext.start();
+        priceAggregationService = context.bean(PriceAggregationService.class);
+        book = new ConsolidatedOrderBook(2, Venue.values().length, TimeUnit.MINUTES.toMillis(1));
+
+        quotes = new VenueQuote[QUOTE_COUNT];
+        long bid = FixedPoint.parse("2999.50");
+        for (int i = 0; i < QUOTE_COUNT; i++) {
+            // Alternate venues and symbols, with prices walking a few cents either way
+            Venue venue = (i & 1) == 0 ? Venue.BINANCE : Venue.HUOBI;
+            String symbol = (i & 2) == 0 ? "ETHUSDT" : "BTCUSDT";
+            long offset = ((i * 7919L) % 11 - 5) * FixedPoint.ONE / 100;
+            quotes[i] = new VenueQuote(venue, symbol, bid + offset, bid + offset + FixedPoint.ONE / 2);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean bookUpdate() {
+        VenueQuote quote = quotes[next++ & (QUOTE_COUNT - 1)];
+        int symbolId = "ETHUSDT".equals(quote.getSymbol()) ? 0 : 1;
+        return book.update(symbolId, quote.getVenue().ordinal(), quote.getBidPrice(), quote.getAskPrice(),
+                System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public void onVenueQuote() {
+        priceAggregationService.onVenueQuote(quotes[next++ & (QUOTE_COUNT - 1)]);
+    }
+}
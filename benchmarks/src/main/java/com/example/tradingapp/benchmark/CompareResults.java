@@ -0,0 +1,95 @@
+package com.example.tradingapp.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, e.g. a saved baseline and the run for the current change.
+ * Prints one row per benchmark (score and allocation per op, with the relative change) and exits
+ * with status 1 if any benchmark got slower by more than the threshold.
+ *
+ * Usage: {@code CompareResults <baseline.json> <current.json> [threshold-percent]}
+ */
+public final class CompareResults {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s %12s %12s%n",
+                "Benchmark", "baseline", "current", "change", "B/op base", "B/op now");
+        boolean regressed = false;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            double nowScore = now.at("/primaryMetric/score").asDouble();
+            String unit = now.at("/primaryMetric/scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s%n", entry.getKey(), "-", format(nowScore, unit), "new");
+                continue;
+            }
+            double beforeScore = before.at("/primaryMetric/score").asDouble();
+            double change = (nowScore - beforeScore) / beforeScore * 100;
+            // Lower is better for time per op, higher is better for throughput
+            boolean higherIsBetter = unit.startsWith("ops/");
+            double slowdown = higherIsBetter ? -change : change;
+            if (slowdown > threshold) {
+                regressed = true;
+            }
+            System.out.printf("%-70s %14s %14s %+8.1f%% %12s %12s%s%n", entry.getKey(),
+                    format(beforeScore, unit), format(nowScore, unit), change,
+                    allocation(before), allocation(now), slowdown > threshold ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-70s %14s %14s %9s%n", name, "", "-", "missing");
+            }
+        }
+
+        if (regressed) {
+            System.out.printf("%nAt least one benchmark is more than %.1f%% slower than the baseline%n", threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String name = result.get("benchmark").asText().replace("com.example.tradingapp.benchmark.", "");
+            JsonNode params = result.get("params");
+            if (params != null) {
+                StringBuilder key = new StringBuilder(name);
+                params.fields().forEachRemaining(p -> key.append(' ').append(p.getKey()).append('=')
+                        .append(p.getValue().asText()));
+                name = key.toString();
+            }
+            results.put(name, result);
+        }
+        return results;
+    }
+
+    private static String allocation(JsonNode result) {
+        JsonNode norm = result.at("/secondaryMetrics/" + ALLOC_NORM + "/score");
+        return norm.isMissingNode() ? "-" : String.format("%.0f", norm.asDouble());
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
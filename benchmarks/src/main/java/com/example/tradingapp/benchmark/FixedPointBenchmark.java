@@ -0,0 +1,105 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.util.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic on the trade and aggregation hot paths, BigDecimal as the services used to do it
+ * against the FixedPoint long equivalent. Run with {@code -prof gc}: the FixedPoint variants
+ * should report zero gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FixedPointBenchmark {
+
+    private static final String BID_TEXT = "3481.21000000";
+
+    private BigDecimal existingBid;
+    private BigDecimal existingAsk;
+    private BigDecimal newBid;
+    private BigDecimal newAsk;
+    private BigDecimal quantity;
+    private BigDecimal balance;
+
+    private long existingBidUnits;
+    private long existingAskUnits;
+    private long newBidUnits;
+    private long newAskUnits;
+    private long quantityUnits;
+    private long balanceUnits;
+
+    private char[] bidChars;
+
+    @Setup
+    public void setUp() {
+        existingBid = new BigDecimal("3481.17");
+        existingAsk = new BigDecimal("3481.38");
+        newBid = new BigDecimal("3481.21");
+        newAsk = new BigDecimal("3481.40");
+        quantity = new BigDecimal("1.25");
+        balance = new BigDecimal("50000");
+
+        existingBidUnits = FixedPoint.fromBigDecimal(existingBid);
+        existingAskUnits = FixedPoint.fromBigDecimal(existingAsk);
+        newBidUnits = FixedPoint.fromBigDecimal(newBid);
+        newAskUnits = FixedPoint.fromBigDecimal(newAsk);
+        quantityUnits = FixedPoint.fromBigDecimal(quantity);
+        balanceUnits = FixedPoint.fromBigDecimal(balance);
+
+        bidChars = BID_TEXT.toCharArray();
+    }
+
+    @Benchmark
+    public boolean quoteComparisonBigDecimal() {
+        return newAsk.compareTo(existingAsk) < 0 || newBid.compareTo(existingBid) > 0;
+    }
+
+    @Benchmark
+    public boolean quoteComparisonFixedPoint() {
+        return newAskUnits < existingAskUnits || newBidUnits > existingBidUnits;
+    }
+
+    @Benchmark
+    public void buyBigDecimal(Blackhole bh) {
+        // Notional, balance check and debit as TradeService.executeTrade did it
+        BigDecimal totalAmount = quantity.multiply(existingAsk);
+        if (balance.compareTo(totalAmount) >= 0) {
+            bh.consume(balance.subtract(totalAmount));
+        }
+    }
+
+    @Benchmark
+    public void buyFixedPoint(Blackhole bh) {
+        long totalAmount = FixedPoint.multiply(quantityUnits, existingAskUnits);
+        if (balanceUnits >= totalAmount) {
+            bh.consume(balanceUnits - totalAmount);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal(bidChars, 0, bidChars.length);
+    }
+
+    @Benchmark
+    public long parseFixedPoint() {
+        return FixedPoint.parse(bidChars, 0, bidChars.length);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.entity.CryptoPrice;
+import com.example.tradingapp.entity.Trade;
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.repository.TradeRepository;
+import com.example.tradingapp.service.CryptoPriceJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade inserts through JPA, with the default mapping and with the high-throughput profile (pooled
+ * sequence ids, JDBC batching), and quote inserts through the path live quotes take: CryptoPriceJournal's
+ * writer thread and its JDBC batch insert. Each operation writes {@value #ROWS} new rows, trades in one
+ * transaction as the trade sequencer and the batch endpoint do, and scores are rows per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// Hibernate's insert path takes a long time to warm up fully
+@Warmup(iterations = 8, time = 4)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    static final int ROWS = 64;
+
+    private static final BigDecimal PRICE = new BigDecimal(TradingContext.ETH_ASK);
+
+    @Param({"default", "high-throughput"})
+    public String profile;
+
+    private TradingContext context;
+    private TransactionTemplate transactionTemplate;
+    private TradeRepository tradeRepository;
+    private CryptoPriceJournal cryptoPriceJournal;
+    private Counter quotesWritten;
+    private Counter quotesFailed;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // One journal batch per operation, flushed as soon as it is full
+        context = TradingContext.start("--spring.profiles.active=" + profile,
+                "--trading.price-journal.batch-size=" + ROWS);
+        transactionTemplate = new TransactionTemplate(context.bean(PlatformTransactionManager.class));
+        tradeRepository = context.bean(TradeRepository.class);
+        cryptoPriceJournal = context.bean(CryptoPriceJournal.class);
+        MeterRegistry meterRegistry = context.bean(MeterRegistry.class);
+        quotesWritten = meterRegistry.get("trading.price.journal.written").counter();
+        quotesFailed = meterRegistry.get("trading.price.journal.failed").counter();
+        user = context.testUser();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Trade> tradeInserts() {
+        List<Trade> trades = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Trade trade = new Trade();
+            trade.setUser(user);
+            trade.setSymbol("ETHUSDT");
+            trade.setType(Trade.TradeType.BUY);
+            trade.setQuantity(BigDecimal.ONE);
+            trade.setPrice(PRICE);
+            trade.setTotalAmount(PRICE);
+            trade.setTimestamp(LocalDateTime.now());
+            trade.setStatus("COMPLETED");
+            trades.add(trade);
+        }
+        return transactionTemplate.execute(status -> tradeRepository.saveAll(trades));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void quoteInserts() {
+        double written = quotesWritten.count() + ROWS;
+        double failed = quotesFailed.count();
+        for (int i = 0; i < ROWS; i++) {
+            CryptoPrice price = new CryptoPrice();
+            price.setSymbol("ETHUSDT");
+            price.setBidPrice(new BigDecimal(TradingContext.ETH_BID));
+            price.setAskPrice(PRICE);
+            price.setTimestamp(LocalDateTime.now());
+            price.setSource("BINANCE");
+            cryptoPriceJournal.append(price);
+        }
+        while (quotesWritten.count() < written) {
+            if (quotesFailed.count() > failed) {
+                throw new IllegalStateException("Journal failed to insert a batch of quotes");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
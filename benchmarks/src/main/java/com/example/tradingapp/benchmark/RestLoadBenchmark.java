@@ -0,0 +1,132 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.service.ExecutionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of REST traffic through the real HTTP stack: 300 clients posting trades and 100 reading
+ * their wallets at the same time, each waiting for its response before sending the next request.
+ * That is twice as many requests in flight as Tomcat's default pool of 200 platform threads, so
+ * {@code virtualThreads=false} shows the pool as the limit and {@code true} runs every request on
+ * its own virtual thread (the {@code virtual-threads} profile, Java 21+ only). The app refuses
+ * {@code SEQUENCED} execution on virtual threads, so that combination fails in its setup.
+ *
+ * Throughput is reported by the Throughput run, tail latency by the percentiles of the SampleTime run.
+ * Both client and server share the machine, so compare the two settings with each other rather than
+ * reading the numbers as capacity.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestLoadBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"DIRECT", "SEQUENCED"})
+    public ExecutionMode mode;
+
+    private TradingContext context;
+    private HttpClient client;
+    private HttpRequest buy;
+    private HttpRequest sell;
+    private HttpRequest wallet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            // Spring Boot would silently fall back to platform threads
+            throw new IllegalStateException("virtualThreads=true needs a Java 21 runtime, this is "
+                    + Runtime.version());
+        }
+        context = TradingContext.startServer(
+                "--spring.profiles.active=" + (virtualThreads ? "virtual-threads" : "default"),
+                "--trading.execution.mode=" + mode,
+                // Rejected trades are part of the load, not worth an ERROR line each
+                "--logging.level.com.example.tradingapp.controller=OFF");
+        context.publishEthQuote();
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .build();
+        String base = "http://localhost:" + context.port() + "/api";
+        buy = trade(base, "BUY");
+        sell = trade(base, "SELL");
+        wallet = HttpRequest.newBuilder(URI.create(base + "/wallet")).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest trade(String base, String type) {
+        String body = "{\"symbol\":\"ETHUSDT\",\"type\":\"" + type + "\",\"quantity\":0.001}";
+        return HttpRequest.newBuilder(URI.create(base + "/trade"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Per client: alternates BUY and SELL, so balances stay put however long the run.
+     */
+    @State(Scope.Thread)
+    public static class Trader {
+        boolean sellNext;
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(300)
+    public int trade(Trader trader) throws IOException, InterruptedException {
+        HttpRequest request = trader.sellNext ? sell : buy;
+        trader.sellNext = !trader.sellNext;
+        return send(request);
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(100)
+    public int wallet() throws IOException, InterruptedException {
+        return send(wallet);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " returned "
+                    + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tradingapp.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Full-size exchange payloads in the exact shape of the captured samples under
+ * src/test/resources/payloads, padded out with seeded synthetic symbols so every run
+ * parses identical bytes.
+ */
+final class SamplePayloads {
+
+    // Roughly the number of tickers each venue returned when the samples were captured
+    static final int BINANCE_TICKERS = 2600;
+    static final int HUOBI_TICKERS = 700;
+
+    private SamplePayloads() {
+    }
+
+    static byte[] binanceBookTicker() {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(BINANCE_TICKERS * 130).append('[');
+        for (int i = 0; i < BINANCE_TICKERS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String symbol = trackedOrSynthetic(i, BINANCE_TICKERS, false);
+            double bid = 0.0001 + random.nextDouble() * 70000;
+            json.append("{\"symbol\":\"").append(symbol)
+                    .append("\",\"bidPrice\":\"").append(decimal(bid))
+                    .append("\",\"bidQty\":\"").append(decimal(random.nextDouble() * 1000))
+                    .append("\",\"askPrice\":\"").append(decimal(bid * 1.0001))
+                    .append("\",\"askQty\":\"").append(decimal(random.nextDouble() * 1000))
+                    .append("\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] huobiTickers() {
+        Random random = new Random(43);
+        StringBuilder json = new StringBuilder(HUOBI_TICKERS * 220).append("{\"data\":[");
+        for (int i = 0; i < HUOBI_TICKERS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String symbol = trackedOrSynthetic(i, HUOBI_TICKERS, true);
+            double close = 0.0001 + random.nextDouble() * 70000;
+            json.append("{\"symbol\":\"").append(symbol)
+                    .append("\",\"open\":").append(close * 0.98)
+                    .append(",\"high\":").append(close * 1.02)
+                    .append(",\"low\":").append(close * 0.97)
+                    .append(",\"close\":").append(close)
+                    .append(",\"amount\":").append(random.nextDouble() * 1e6)
+                    .append(",\"vol\":").append(random.nextDouble() * 1e8)
+                    .append(",\"count\":").append(random.nextInt(200000))
+                    .append(",\"bid\":").append(close * 0.9999)
+                    .append(",\"bidSize\":").append(random.nextDouble() * 100)
+                    .append(",\"ask\":").append(close)
+                    .append(",\"askSize\":").append(random.nextDouble() * 100)
+                    .append('}');
+        }
+        return json.append("],\"status\":\"ok\",\"ts\":1718003412345}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Tracked symbols sit near the end, as they do in the real (alphabetical-ish) payloads
+    private static String trackedOrSynthetic(int i, int total, boolean lowercase) {
+        String symbol;
+        if (i == total - 40) {
+            symbol = "ETHUSDT";
+        } else if (i == total - 20) {
+            symbol = "BTCUSDT";
+        } else {
+            symbol = String.format(Locale.ROOT, "SYM%04dUSDT", i);
+        }
+        return lowercase ? symbol.toLowerCase(Locale.ROOT) : symbol;
+    }
+
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.8f", value);
+    }
+}
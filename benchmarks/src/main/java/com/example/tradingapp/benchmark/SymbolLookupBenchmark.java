@@ -0,0 +1,65 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.market.SymbolIndex;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.Venue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching one ticker row's symbol token against the tracked universe, as the parsers do for every
+ * row of a venue payload. Three in four tokens are untracked, like in a full-exchange ticker list.
+ * The cost should not grow with {@code trackedPairs}, and nothing is allocated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SymbolLookupBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    @Param({"2", "500"})
+    public int trackedPairs;
+
+    private SymbolIndex huobiSymbols;
+    private char[][] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] pairs = new String[trackedPairs];
+        for (int i = 0; i < trackedPairs; i++) {
+            pairs[i] = String.format(Locale.ROOT, "C%04d/USDT", i);
+        }
+        huobiSymbols = new SymbolRegistry(pairs).venueSymbols(Venue.HUOBI);
+
+        SplittableRandom random = new SplittableRandom(42);
+        tokens = new char[TOKENS][];
+        for (int i = 0; i < TOKENS; i++) {
+            int id = random.nextInt(trackedPairs * 4);
+            tokens[i] = String.format(Locale.ROOT, id < trackedPairs ? "c%04dusdt" : "x%04dusdt", id).toCharArray();
+        }
+    }
+
+    @Benchmark
+    public int lookup() {
+        char[] token = tokens[next++ & (TOKENS - 1)];
+        return huobiSymbols.indexOf(token, 0, token.length);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.market.TickLog;
+import com.example.tradingapp.market.TickLogReader;
+import com.example.tradingapp.util.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The raw tick log. {@code append} writes one million records per measured batch, so the run stays
+ * at a few hundred MB of segment files instead of filling the disk at full append speed; {@code scan}
+ * reads one million records through the flyweight reader and reports ticks per second.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickLogBenchmark {
+
+    private static final int TICKS = 1_000_000;
+
+    private Path dir;
+    private TradingContext context;
+    private TickLog tickLog;
+
+    private long bid;
+    private long qty;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("tick-log-benchmark");
+        context = TradingContext.start("--trading.tick-log.enabled=true", "--trading.tick-log.dir=" + dir);
+        tickLog = context.bean(TickLog.class);
+        bid = FixedPoint.parse(TradingContext.ETH_BID);
+        qty = FixedPoint.parse("1.5");
+
+        // Data for scan
+        for (int i = 0; i < TICKS; i++) {
+            append();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = TICKS)
+    @Measurement(iterations = 5, batchSize = TICKS)
+    public void append() {
+        int i = next++;
+        tickLog.append(i & 1, i & 1, bid + (i & 15), bid + FixedPoint.ONE + (i & 15), qty, qty);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(TICKS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public long scan() throws IOException {
+        // Mid-price checksum over the first million ticks, so nothing is optimized away
+        long sum = 0;
+        try (TickLogReader reader = TickLogReader.open(dir)) {
+            for (int i = 0; i < TICKS && reader.next(); i++) {
+                sum += (reader.bid() + reader.ask()) / 2 + reader.timestampNanos();
+            }
+        }
+        return sum;
+    }
+}
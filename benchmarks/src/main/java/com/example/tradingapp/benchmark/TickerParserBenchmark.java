@@ -0,0 +1,88 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.TickerStreamParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One aggregation cycle's worth of ticker parsing: the previous String + JsonNode tree approach
+ * against the streaming parser. Run with {@code -prof gc} to compare gc.alloc.rate.norm (bytes per cycle).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickerParserBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TickerStreamParser streamParser = new TickerStreamParser(new SymbolRegistry("ETH/USDT", "BTC/USDT"));
+
+    private byte[] binancePayload;
+    private byte[] huobiPayload;
+
+    @Setup
+    public void setUp() {
+        binancePayload = SamplePayloads.binanceBookTicker();
+        huobiPayload = SamplePayloads.huobiTickers();
+    }
+
+    @Benchmark
+    public void binanceTree(Blackhole bh) throws IOException {
+        // What fetchBinancePrices did before: decode to String, build the whole tree, filter
+        JsonNode jsonArray = objectMapper.readTree(new String(binancePayload, StandardCharsets.UTF_8));
+        for (JsonNode item : jsonArray) {
+            String symbol = item.get("symbol").asText();
+            if (isRelevantSymbol(symbol)) {
+                bh.consume(new BigDecimal(item.get("bidPrice").asText()));
+                bh.consume(new BigDecimal(item.get("askPrice").asText()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void binanceStreaming(Blackhole bh) throws IOException {
+        bh.consume(streamParser.parseBinance(new ByteArrayInputStream(binancePayload)));
+    }
+
+    @Benchmark
+    public void huobiTree(Blackhole bh) throws IOException {
+        JsonNode jsonResponse = objectMapper.readTree(new String(huobiPayload, StandardCharsets.UTF_8));
+        for (JsonNode item : jsonResponse.get("data")) {
+            String symbol = item.get("symbol").asText().toUpperCase();
+            if (isRelevantSymbol(symbol)) {
+                bh.consume(new BigDecimal(item.get("bid").asText()));
+                bh.consume(new BigDecimal(item.get("ask").asText()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void huobiStreaming(Blackhole bh) throws IOException {
+        bh.consume(streamParser.parseHuobi(new ByteArrayInputStream(huobiPayload)));
+    }
+
+    private static boolean isRelevantSymbol(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        return upperSymbol.equals("ETHUSDT") || upperSymbol.equals("BTCUSDT");
+    }
+}
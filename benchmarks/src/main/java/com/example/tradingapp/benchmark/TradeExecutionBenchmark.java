@@ -0,0 +1,62 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.service.TradeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code TradeService.executeTrade} end to end against the embedded H2: price lookup, settlement in the
+ * wallet ledger and the trade insert. Every operation is a BUY followed by a SELL of the same quantity,
+ * so balances stay within range however long the run is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradeExecutionBenchmark {
+
+    private static final BigDecimal QUANTITY = new BigDecimal("0.001");
+
+    private TradingContext context;
+    private TradeService tradeService;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = TradingContext.start();
+        tradeService = context.bean(TradeService.class);
+        user = context.testUser();
+        context.publishEthQuote();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void buyThenSell(Blackhole bh) {
+        TradeDTO buy = tradeService.executeTrade(user, "ETHUSDT", "BUY", QUANTITY);
+        TradeDTO sell = tradeService.executeTrade(user, "ETHUSDT", "SELL", QUANTITY);
+        bh.consume(buy);
+        bh.consume(sell);
+    }
+}
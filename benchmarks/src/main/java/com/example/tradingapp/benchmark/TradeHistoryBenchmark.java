@@ -0,0 +1,87 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.dto.TradePageDTO;
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.service.TradeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code GET /api/trades} path for a user with a long history: {@code query} is the keyset read of
+ * the latest page, projected straight to TradeDTOs, {@code serialize} is the JSON encoding of that page with the
+ * application's ObjectMapper, and {@code queryAndSerialize} is both, as the endpoint does it.
+ * With paging, the scores should not grow with {@code tradeCount}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TradeHistoryBenchmark {
+
+    @Param({"100", "1000"})
+    private int tradeCount;
+
+    private TradingContext context;
+    private TradeService tradeService;
+    private ObjectMapper objectMapper;
+    private User user;
+    private TradePageDTO history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = TradingContext.start();
+        tradeService = context.bean(TradeService.class);
+        objectMapper = context.bean(ObjectMapper.class);
+        user = context.testUser();
+        context.publishEthQuote();
+
+        BigDecimal quantity = new BigDecimal("0.001");
+        for (int i = 0; i < tradeCount / 2; i++) {
+            tradeService.executeTrade(user, "ETHUSDT", "BUY", quantity);
+            tradeService.executeTrade(user, "ETHUSDT", "SELL", quantity);
+        }
+        history = latestPage();
+    }
+
+    private TradePageDTO latestPage() {
+        return tradeService.getTradeHistoryPage(user, null, null, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TradePageDTO query() {
+        return latestPage();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+
+    @Benchmark
+    public byte[] queryAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(latestPage());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.service.ExecutionMode;
+import com.example.tradingapp.service.TradeSequencer;
+import com.example.tradingapp.service.TradeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade throughput under concurrent load, DIRECT against SEQUENCED execution: eight threads trading
+ * for the same user, as concurrent POST /api/trade requests would. Each operation is a BUY followed
+ * by a SELL, each waited for, so the two modes do the same work per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TradeThroughputBenchmark {
+
+    private static final BigDecimal QUANTITY = new BigDecimal("0.001");
+
+    @Param({"DIRECT", "SEQUENCED"})
+    public ExecutionMode mode;
+
+    private TradingContext context;
+    private TradeService tradeService;
+    private TradeSequencer tradeSequencer;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = TradingContext.start("--trading.execution.mode=" + mode);
+        tradeService = context.bean(TradeService.class);
+        tradeSequencer = context.bean(TradeSequencer.class);
+        user = context.testUser();
+        context.publishEthQuote();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void buyThenSell(Blackhole bh) {
+        if (mode == ExecutionMode.SEQUENCED) {
+            bh.consume(tradeSequencer.execute(user, "ETHUSDT", "BUY", QUANTITY));
+            bh.consume(tradeSequencer.execute(user, "ETHUSDT", "SELL", QUANTITY));
+        } else {
+            bh.consume(tradeService.executeTrade(user, "ETHUSDT", "BUY", QUANTITY));
+            bh.consume(tradeService.executeTrade(user, "ETHUSDT", "SELL", QUANTITY));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.tradingapp.benchmark;
+
+import com.example.tradingapp.TradingApplication;
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.repository.UserRepository;
+import com.example.tradingapp.util.FixedPoint;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application as it runs in production, minus the exchange connections: real services,
+ * repositories and the embedded in-memory H2. Benchmarks that go through the service layer start it
+ * without the HTTP server; load tests of the REST API start it with one on a free port.
+ */
+final class TradingContext implements AutoCloseable {
+
+    static final String ETH_BID = "2999.50";
+    static final String ETH_ASK = "3000.25";
+
+    private final ConfigurableApplicationContext context;
+
+    private TradingContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @param overrides extra {@code --key=value} properties for the benchmark at hand
+     */
+    static TradingContext start(String... overrides) {
+        return start(WebApplicationType.NONE, overrides);
+    }
+
+    /**
+     * Same as {@link #start}, plus the embedded web server on a free port; see {@link #port()}.
+     */
+    static TradingContext startServer(String... overrides) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0"));
+        args.addAll(List.of(overrides));
+        return start(WebApplicationType.SERVLET, args.toArray(new String[0]));
+    }
+
+    private static TradingContext start(WebApplicationType webApplicationType, String... overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                // No exchange traffic; benchmarks feed quotes themselves
+                "--trading.ingestion.mode=OFF",
+                // Quotes seeded at setup must stay tradable for the whole run
+                "--trading.price.max-age-ms=86400000",
+                "--trading.book.venue-ttl-ms=86400000",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.tradingapp=WARN",
+                // application.properties logs every statement at DEBUG
+                "--logging.level.org.hibernate.SQL=WARN"));
+        args.addAll(List.of(overrides));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TradingApplication.class)
+                .web(webApplicationType)
+                // Command-line arguments, so they win over application.properties
+                .run(args.toArray(new String[0]));
+        return new TradingContext(context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int port() {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    User testUser() {
+        return bean(UserRepository.class).findByUsername("testuser")
+                .orElseThrow(() -> new IllegalStateException("DataInitializer did not create testuser"));
+    }
+
+    void publishEthQuote() {
+        bean(TopOfBookStore.class).publish("ETHUSDT", FixedPoint.parse(ETH_BID), FixedPoint.parse(ETH_ASK),
+                "BINANCE", "BINANCE", System.currentTimeMillis());
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
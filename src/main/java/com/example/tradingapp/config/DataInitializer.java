@@ -3,6 +3,7 @@ package com.example.tradingapp.config;
 import com.example.tradingapp.entity.User;
 import com.example.tradingapp.entity.Wallet;
 import com.example.tradingapp.entity.CryptoPrice;
+import com.example.tradingapp.market.SymbolRegistry;
 import com.example.tradingapp.repository.UserRepository;
 import com.example.tradingapp.repository.WalletRepository;
 import com.example.tradingapp.repository.CryptoPriceRepository;
@@ -27,6 +28,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private CryptoPriceRepository cryptoPriceRepository;
 
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
     @Override
     public void run(String... args) throws Exception {
         initializeDefaultUser();
@@ -50,11 +54,12 @@ public class DataInitializer implements CommandLineRunner {
         // Initialize USDT wallet with 50,000 balance (only if not exists)
         initializeWalletIfNotExists(savedUser, "USDT", new BigDecimal("50000"));
 
-        // Initialize ETH wallet with 0 balance (only if not exists)
-        initializeWalletIfNotExists(savedUser, "ETH", BigDecimal.ZERO);
-
-        // Initialize BTC wallet with 0 balance (only if not exists)
-        initializeWalletIfNotExists(savedUser, "BTC", BigDecimal.ZERO);
+        // Initialize every other traded currency (ETH, BTC, ...) with 0 balance (only if not exists)
+        for (String currency : symbolRegistry.getCurrencies()) {
+            if (!"USDT".equals(currency)) {
+                initializeWalletIfNotExists(savedUser, currency, BigDecimal.ZERO);
+            }
+        }
     }
 
     private void initializeWalletIfNotExists(User user, String currency, BigDecimal defaultBalance) {
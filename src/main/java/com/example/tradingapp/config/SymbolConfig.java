@@ -0,0 +1,15 @@
+package com.example.tradingapp.config;
+
+import com.example.tradingapp.market.SymbolRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SymbolConfig {
+
+    @Bean
+    public SymbolRegistry symbolRegistry(@Value("${trading.symbols:ETH/USDT,BTC/USDT}") String pairs) {
+        return SymbolRegistry.parse(pairs);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.tradingapp.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the high-throughput profile's {@code trades_seq} past the trades already stored. A file database
+ * first run without the profile holds IDENTITY ids from 1, and ddl-auto=update then creates the
+ * sequence starting at 1 too, so the first pooled ids would collide with existing trades.
+ *
+ * Runs once Hibernate has updated the schema and before the app takes requests. The statements are
+ * H2's, the only database the app ships with; on any other database this only logs a warning.
+ */
+@Component
+@Profile("high-throughput")
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class TradeSequenceInitializer {
+
+    // allocation-size in high-throughput-orm.xml; the pooled optimizer may hand out the block below a value
+    static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void skipExistingTradeIds() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(database)) {
+            log.warn("Not restarting trades_seq on {}, only H2 is supported; make sure it starts past the "
+                    + "highest existing trade id", database);
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM trades", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        Long next = jdbcTemplate.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE UPPER(SEQUENCE_NAME) = 'TRADES_SEQ'", Long.class);
+        long start = maxId + ALLOCATION_SIZE + 1;
+        if (next != null && next >= start) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE trades_seq RESTART WITH " + start);
+        log.info("Restarted trades_seq at {}, past the highest existing trade id {}", start, maxId);
+    }
+}
@@ -1,22 +1,40 @@
 package com.example.tradingapp.controller;
 
 import com.example.tradingapp.dto.ApiResponseDTO;
+import com.example.tradingapp.dto.CandleDTO;
 import com.example.tradingapp.dto.PriceResponseDTO;
 import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.dto.TradePageDTO;
 import com.example.tradingapp.dto.TradeRequestDTO;
+import com.example.tradingapp.dto.TradeResultDTO;
 import com.example.tradingapp.dto.WalletDTO;
 import com.example.tradingapp.entity.User;
-import com.example.tradingapp.entity.CryptoPrice;
-import com.example.tradingapp.repository.UserRepository;
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.service.CandleService;
+import com.example.tradingapp.service.ExecutionMode;
 import com.example.tradingapp.service.PriceAggregationService;
+import com.example.tradingapp.service.PriceStreamService;
+import com.example.tradingapp.service.TradeBatchService;
+import com.example.tradingapp.service.TradeExportService;
+import com.example.tradingapp.service.TradeSequencer;
 import com.example.tradingapp.service.TradeService;
+import com.example.tradingapp.service.UserDirectory;
 import com.example.tradingapp.service.WalletService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -27,6 +45,18 @@ public class MainController {
     @Autowired
     private TradeService tradeService;
 
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private TradeBatchService tradeBatchService;
+
+    @Autowired
+    private TradeExportService tradeExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private WalletService walletService;
 
@@ -34,41 +64,88 @@ public class MainController {
     private PriceAggregationService priceAggregationService;
 
     @Autowired
-    private UserRepository userRepository;
+    private PriceStreamService priceStreamService;
+
+    @Autowired
+    private CandleService candleService;
+
+    // Resolves the caller from memory after the first request
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Value("${trading.execution.mode:DIRECT}")
+    private ExecutionMode executionMode;
 
     private static final Long DEFAULT_USER_ID = 1L;
-    private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Part of every ETag, so a version that restarted from 0 never matches a tag from an earlier run
+    private final String etagEpoch = Long.toString(System.currentTimeMillis(), 36);
 
     /**
      * Get latest aggregated price for a symbol
+     * The ETag follows the order book's quote sequence; a matching If-None-Match gets an empty 304.
      */
     @GetMapping("/price/{symbol}")
-    public ResponseEntity<ApiResponseDTO<PriceResponseDTO>> getLatestPrice(@PathVariable String symbol) {
+    public ResponseEntity<ApiResponseDTO<PriceResponseDTO>> getLatestPrice(
+            @PathVariable String symbol,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            CryptoPrice price = priceAggregationService.getLatestPrice(symbol);
-            PriceResponseDTO response = new PriceResponseDTO();
-            response.setSymbol(price.getSymbol());
-            response.setBidPrice(price.getBidPrice());
-            response.setAskPrice(price.getAskPrice());
-            response.setTimestamp(price.getTimestamp().format(dateFormatter));
-
-            return ResponseEntity.ok(ApiResponseDTO.success(response));
+            BookQuote price = priceAggregationService.getLatestPrice(symbol);
+            String etag = etag("price-" + price.getSymbol(), price.getSequence());
+            if (notModified(ifNoneMatch, etag)) {
+                return notModifiedResponse(etag);
+            }
+            PriceResponseDTO response = PriceResponseDTO.from(price);
+
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                    .body(ApiResponseDTO.success(response));
         } catch (Exception e) {
             log.error("Error getting price: ", e);
             return ResponseEntity.badRequest().body(ApiResponseDTO.error(e.getMessage()));
         }
     }
 
+    /**
+     * Stream best-price changes for all symbols as Server-Sent Events ("price" events, PriceResponseDTO data)
+     */
+    @GetMapping(value = "/prices/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPrices() {
+        return priceStreamService.subscribe();
+    }
+
+    /**
+     * Get OHLC candles of mid prices for a symbol, oldest first
+     * interval: 1s, 1m, 5m or 1h; source: BEST (consolidated book, default) or a venue name;
+     * from/to: ISO date-times bounding the candle open time, the last candle may still be filling
+     */
+    @GetMapping("/candles/{symbol}")
+    public ResponseEntity<ApiResponseDTO<List<CandleDTO>>> getCandles(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            List<CandleDTO> candles = candleService.getCandles(symbol, interval, source, from, to);
+            return ResponseEntity.ok(ApiResponseDTO.success(candles));
+        } catch (Exception e) {
+            log.error("Error getting candles: ", e);
+            return ResponseEntity.badRequest().body(ApiResponseDTO.error(e.getMessage()));
+        }
+    }
+
     /**
      * Execute a trade (BUY or SELL)
      */
     @PostMapping("/trade")
     public ResponseEntity<ApiResponseDTO<TradeDTO>> executeTrade(@RequestBody TradeRequestDTO request) {
         try {
-            User user = userRepository.findById(DEFAULT_USER_ID)
+            User user = userDirectory.findById(DEFAULT_USER_ID)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            TradeDTO trade = tradeService.executeTrade(user, request.getSymbol(), request.getType(), request.getQuantity());
+            TradeDTO trade = executionMode == ExecutionMode.SEQUENCED
+                    ? tradeSequencer.execute(user, request.getSymbol(), request.getType(), request.getQuantity())
+                    : tradeService.executeTrade(user, request.getSymbol(), request.getType(), request.getQuantity());
 
             return ResponseEntity.ok(ApiResponseDTO.success("Trade executed successfully", trade));
         } catch (Exception e) {
@@ -77,18 +154,48 @@ public class MainController {
         }
     }
 
+    /**
+     * Execute a batch of trades for the user, returning one result per trade in request order.
+     * A trade whose idempotencyKey was already submitted is not executed again; its first result is returned.
+     */
+    @PostMapping("/trade/batch")
+    public ResponseEntity<ApiResponseDTO<List<TradeResultDTO>>> executeTradeBatch(
+            @RequestBody List<TradeRequestDTO> requests) {
+        try {
+            User user = userDirectory.findById(DEFAULT_USER_ID)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            List<TradeResultDTO> results = tradeBatchService.execute(user, requests);
+            long filled = results.stream().filter(result -> TradeResultDTO.FILLED.equals(result.getStatus())).count();
+
+            return ResponseEntity.ok(ApiResponseDTO.success(filled + " of " + results.size() + " trades filled",
+                    results));
+        } catch (Exception e) {
+            log.error("Error executing trade batch: ", e);
+            return ResponseEntity.badRequest().body(ApiResponseDTO.error(e.getMessage()));
+        }
+    }
+
     /**
      * Get user's wallet balance
+     * The ETag follows the ledger's version of the user's balances; a matching If-None-Match gets an empty 304.
      */
     @GetMapping("/wallet")
-    public ResponseEntity<ApiResponseDTO<List<WalletDTO>>> getWalletBalance() {
+    public ResponseEntity<ApiResponseDTO<List<WalletDTO>>> getWalletBalance(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            User user = userRepository.findById(DEFAULT_USER_ID)
+            User user = userDirectory.findById(DEFAULT_USER_ID)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
+            // Read before the wallets: if they change in between, the tag is older than the body, never newer
+            String etag = etag("wallet", walletService.getWalletsVersion(user));
+            if (notModified(ifNoneMatch, etag)) {
+                return notModifiedResponse(etag);
+            }
             List<WalletDTO> wallets = walletService.getUserWallets(user);
 
-            return ResponseEntity.ok(ApiResponseDTO.success(wallets));
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                    .body(ApiResponseDTO.success(wallets));
         } catch (Exception e) {
             log.error("Error getting wallet balance: ", e);
             return ResponseEntity.badRequest().body(ApiResponseDTO.error(e.getMessage()));
@@ -96,41 +203,108 @@ public class MainController {
     }
 
     /**
-     * Get user's trading history
+     * Get one page of the user's trading history, newest first
+     * The ETag changes whenever the user's trades do; a matching If-None-Match gets an empty 304.
      */
     @GetMapping("/trades")
-    public ResponseEntity<ApiResponseDTO<List<TradeDTO>>> getTradeHistory() {
+    public ResponseEntity<ApiResponseDTO<TradePageDTO>> getTradeHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return tradeHistoryPage(null, cursor, since, limit, ifNoneMatch);
+    }
+
+    /**
+     * Get one page of trading history for a specific symbol
+     */
+    @GetMapping("/trades/{symbol}")
+    public ResponseEntity<ApiResponseDTO<TradePageDTO>> getTradeHistoryBySymbol(
+            @PathVariable String symbol,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return tradeHistoryPage(symbol, cursor, since, limit, ifNoneMatch);
+    }
+
+    /**
+     * Stream the user's full trading history, oldest first, as NDJSON or CSV
+     */
+    @GetMapping("/trades/export")
+    public ResponseEntity<StreamingResponseBody> exportTradeHistory(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String symbol) {
         try {
-            User user = userRepository.findById(DEFAULT_USER_ID)
+            User user = userDirectory.findById(DEFAULT_USER_ID)
                     .orElseThrow(() -> new RuntimeException("User not found"));
+            TradeExportService.Format exportFormat = TradeExportService.Format.parse(format);
 
-            List<TradeDTO> trades = tradeService.getUserTradeHistory(user);
+            // Rows are written while the query runs, after this method returns
+            StreamingResponseBody body = out -> tradeExportService.export(user, symbol, exportFormat, out);
 
-            return ResponseEntity.ok(ApiResponseDTO.success(trades));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"trades." + exportFormat.getExtension() + "\"")
+                    .body(body);
         } catch (Exception e) {
-            log.error("Error getting trade history: ", e);
-            return ResponseEntity.badRequest().body(ApiResponseDTO.error(e.getMessage()));
+            log.error("Error exporting trade history: ", e);
+            // MVC only streams a body declared as StreamingResponseBody, so the error is written as one too
+            ApiResponseDTO<Void> error = ApiResponseDTO.error(e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
         }
     }
 
-    /**
-     * Get trading history for a specific symbol
-     */
-    @GetMapping("/trades/{symbol}")
-    public ResponseEntity<ApiResponseDTO<List<TradeDTO>>> getTradeHistoryBySymbol(@PathVariable String symbol) {
+    private ResponseEntity<ApiResponseDTO<TradePageDTO>> tradeHistoryPage(String symbol, String cursor, String since,
+                                                                          Integer limit, String ifNoneMatch) {
         try {
-            User user = userRepository.findById(DEFAULT_USER_ID)
+            User user = userDirectory.findById(DEFAULT_USER_ID)
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            List<TradeDTO> trades = tradeService.getUserTradeHistoryBySymbol(user, symbol);
+            // Every page of a URL stays the same until the user trades again; read before the query, as above
+            String etag = etag("trades", tradeService.historyVersion(user));
+            if (notModified(ifNoneMatch, etag)) {
+                return notModifiedResponse(etag);
+            }
+            TradePageDTO page = tradeService.getTradeHistoryPage(user, symbol, cursor, since, limit);
 
-            return ResponseEntity.ok(ApiResponseDTO.success(trades));
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                    .body(ApiResponseDTO.success(page));
         } catch (Exception e) {
             log.error("Error getting trade history: ", e);
             return ResponseEntity.badRequest().body(ApiResponseDTO.error(e.getMessage()));
         }
     }
 
+    private String etag(String resource, long version) {
+        return "\"" + resource + "-" + etagEpoch + "-" + version + "\"";
+    }
+
+    // If-None-Match lists the tag, compared weakly as GET allows, or is "*"
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // no-cache: clients may keep the body but must revalidate it on every poll
+    private static <T> ResponseEntity<T> notModifiedResponse(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
     /**
      * Health check endpoint
      */
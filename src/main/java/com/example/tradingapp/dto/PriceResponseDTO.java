@@ -1,6 +1,9 @@
 package com.example.tradingapp.dto;
 
+import com.example.tradingapp.market.BookQuote;
+
 import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,5 +16,14 @@ public class PriceResponseDTO {
     private String symbol;
     private BigDecimal bidPrice;
     private BigDecimal askPrice;
+    private String bidSource;
+    private String askSource;
     private String timestamp;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static PriceResponseDTO from(BookQuote quote) {
+        return new PriceResponseDTO(quote.getSymbol(), quote.getBidPrice(), quote.getAskPrice(),
+                quote.getBidSource(), quote.getAskSource(), quote.getTimestamp().format(TIMESTAMP_FORMAT));
+    }
 }
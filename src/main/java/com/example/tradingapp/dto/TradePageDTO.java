@@ -0,0 +1,25 @@
+package com.example.tradingapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of trade history, newest first. Cursors are opaque; pass {@code nextCursor} back as
+ * {@code cursor} for the next older page, and {@code latestCursor} as {@code since} to fetch only
+ * trades made after this page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradePageDTO {
+    private List<TradeDTO> trades;
+    // Null on the last page, and in since mode
+    private String nextCursor;
+    // Newest trade in this response; the request's since when there are no new trades
+    private String latestCursor;
+    // More trades in the requested direction than fit in this page
+    private boolean hasMore;
+}
@@ -13,4 +13,6 @@ public class TradeRequestDTO {
     private String symbol;
     private String type;
     private BigDecimal quantity;
+    // Client-chosen, used by the batch endpoint to recognise a retried trade
+    private String idempotencyKey;
 }
@@ -0,0 +1,40 @@
+package com.example.tradingapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one trade in a batch: FILLED with the trade, or REJECTED / FAILED with the reason.
+ * {@code duplicate} marks an outcome replayed for an idempotency key that was already submitted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeResultDTO {
+    public static final String FILLED = "FILLED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private String idempotencyKey;
+    private String status;
+    private TradeDTO trade;
+    private String error;
+    private boolean duplicate;
+
+    public static TradeResultDTO filled(String idempotencyKey, TradeDTO trade) {
+        return new TradeResultDTO(idempotencyKey, FILLED, trade, null, false);
+    }
+
+    public static TradeResultDTO rejected(String idempotencyKey, String error) {
+        return new TradeResultDTO(idempotencyKey, REJECTED, null, error, false);
+    }
+
+    public static TradeResultDTO failed(String idempotencyKey, String error) {
+        return new TradeResultDTO(idempotencyKey, FAILED, null, error, false);
+    }
+
+    public TradeResultDTO asDuplicate() {
+        return new TradeResultDTO(idempotencyKey, status, trade, error, true);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.tradingapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A completed OHLC bucket of mid prices. Source is a venue name, or BEST for the consolidated book.
+ */
+@Entity
+@Table(name = "candles", indexes = {
+        @Index(name = "idx_candle_series_time", columnList = "symbol, source, bar_interval, open_time")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Candle {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false, length = 16)
+    private String source;
+
+    // "1s", "1m", ... (INTERVAL is a reserved word)
+    @Column(name = "bar_interval", nullable = false, length = 4)
+    private String barInterval;
+
+    @Column(name = "open_time", nullable = false)
+    private LocalDateTime openTime;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal openPrice;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal highPrice;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal lowPrice;
+
+    @Column(nullable = false, precision = 18, scale = 8)
+    private BigDecimal closePrice;
+
+    @Column(nullable = false)
+    private int tickCount;
+}
@@ -0,0 +1,24 @@
+package com.example.tradingapp.entity;
+
+import com.example.tradingapp.util.FixedPoint;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps a {@link FixedPoint} long onto a DECIMAL(18,8) column.
+ */
+@Converter
+public class FixedPointConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long units) {
+        return units == null ? null : BigDecimal.valueOf(units, FixedPoint.SCALE);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal value) {
+        return value == null ? null : FixedPoint.fromBigDecimal(value);
+    }
+}
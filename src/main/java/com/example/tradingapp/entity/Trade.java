@@ -3,14 +3,18 @@ package com.example.tradingapp.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "trades", indexes = {
-        @Index(name = "idx_user_timestamp", columnList = "user_id, timestamp DESC")
+        // id breaks timestamp ties for keyset paging
+        @Index(name = "idx_user_timestamp", columnList = "user_id, timestamp DESC, id DESC"),
+        @Index(name = "idx_user_symbol_timestamp", columnList = "user_id, symbol, timestamp DESC, id DESC")
 })
 @Data
 @NoArgsConstructor
@@ -20,8 +24,12 @@ public class Trade {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy: reads only need the user id, which the proxy holds without a query. Excluded from
+    // toString/equals so a detached proxy is never initialized outside a session
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @Column(nullable = false)
@@ -1,9 +1,12 @@
 package com.example.tradingapp.entity;
 
+import com.example.tradingapp.util.FixedPoint;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 
@@ -19,16 +22,39 @@ public class Wallet {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy: reads only need the user id, which the proxy holds without a query. Excluded from
+    // toString/equals so a detached proxy is never initialized outside a session
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @Column(nullable = false)
     private String currency;
 
-    @Column(nullable = false, precision = 18, scale = 8)
-    private BigDecimal balance;
+    // Balances are FixedPoint units; the trade path compares and adjusts them without BigDecimal
+    @Convert(converter = FixedPointConverter.class)
+    @Column(name = "balance", nullable = false, precision = 18, scale = 8)
+    private long balanceUnits;
 
-    @Column(nullable = false, precision = 18, scale = 8)
-    private BigDecimal availableBalance;
+    @Convert(converter = FixedPointConverter.class)
+    @Column(name = "available_balance", nullable = false, precision = 18, scale = 8)
+    private long availableBalanceUnits;
+
+    public BigDecimal getBalance() {
+        return FixedPoint.toBigDecimal(balanceUnits);
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balanceUnits = FixedPoint.fromBigDecimal(balance);
+    }
+
+    public BigDecimal getAvailableBalance() {
+        return FixedPoint.toBigDecimal(availableBalanceUnits);
+    }
+
+    public void setAvailableBalance(BigDecimal availableBalance) {
+        this.availableBalanceUnits = FixedPoint.fromBigDecimal(availableBalance);
+    }
 }
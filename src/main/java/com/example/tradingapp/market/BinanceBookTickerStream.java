@@ -0,0 +1,172 @@
+package com.example.tradingapp.market;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Binance bookTicker WebSocket feed for the tracked symbols only. Each frame is handed to the
+ * listener as soon as it arrives; the connection is re-established with exponential backoff
+ * whenever it drops, or when no frame has arrived for {@code trading.venues.binance.stream-idle-timeout-ms},
+ * which catches a connection that silently stopped delivering without being closed.
+ *
+ * Binance update ids ({@code u}) only ever increase, but they number order book updates across
+ * the exchange, so ids skipped between two frames of a symbol are normal and mean nothing. An id
+ * at or below the last one seen for the symbol is a duplicate or out-of-order frame and is dropped.
+ * A frame missed for any reason needs no resync, since each one is a full top-of-book snapshot.
+ */
+@Component
+@Slf4j
+public class BinanceBookTickerStream {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Value("${trading.venues.binance.stream-url:wss://stream.binance.com:9443/stream}")
+    private String streamUrl;
+
+    @Value("${trading.venues.binance.stream-idle-timeout-ms:30000}")
+    private long idleTimeoutMillis;
+
+    @Value("${trading.ingestion.reconnect.min-backoff-ms:500}")
+    private long minBackoffMillis;
+
+    @Value("${trading.ingestion.reconnect.max-backoff-ms:30000}")
+    private long maxBackoffMillis;
+
+    private final WebSocketClient client = new ReactorNettyWebSocketClient();
+    private TickerStreamParser parser;
+
+    // Only touched from the single inbound frame thread of the current connection
+    private final BookTickerEvent event = new BookTickerEvent();
+    private long[] lastUpdateIds;
+
+    private volatile boolean running;
+    private volatile Disposable connection;
+    private volatile int failedAttempts;
+    private Consumer<VenueQuote> listener;
+
+    private Counter ticksCounter;
+    private Counter duplicatesCounter;
+    private Counter reconnectsCounter;
+
+    public Venue getVenue() {
+        return Venue.BINANCE;
+    }
+
+    public synchronized void start(Consumer<VenueQuote> listener) {
+        if (running) {
+            return;
+        }
+        this.listener = listener;
+        parser = new TickerStreamParser(symbolRegistry);
+        lastUpdateIds = new long[symbolRegistry.size()];
+        ticksCounter = meterRegistry.counter("trading.stream.ticks", "venue", getVenue().name());
+        duplicatesCounter = meterRegistry.counter("trading.stream.duplicates", "venue", getVenue().name());
+        reconnectsCounter = meterRegistry.counter("trading.stream.reconnects", "venue", getVenue().name());
+        running = true;
+        connect();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        Disposable current = connection;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    URI subscriptionUri() {
+        StringJoiner streams = new StringJoiner("/");
+        for (int i = 0; i < symbolRegistry.size(); i++) {
+            streams.add(symbolRegistry.symbol(i).toLowerCase(Locale.ROOT) + "@bookTicker");
+        }
+        return URI.create(streamUrl + "?streams=" + streams);
+    }
+
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        URI uri = subscriptionUri();
+        log.info("Connecting to Binance bookTicker stream: {}", uri);
+        connection = client.execute(uri, this::handleSession)
+                .doFinally(signal -> scheduleReconnect())
+                .subscribe(null, e -> log.warn("Binance stream disconnected: {}", e.toString()));
+    }
+
+    private void scheduleReconnect() {
+        if (!running) {
+            return;
+        }
+        long delay = backoffMillis(failedAttempts++);
+        reconnectsCounter.increment();
+        log.info("Reconnecting to Binance stream in {}ms", delay);
+        Mono.delay(Duration.ofMillis(delay)).subscribe(tick -> connect());
+    }
+
+    private long backoffMillis(int attempt) {
+        long delay = minBackoffMillis << Math.min(attempt, 16);
+        delay = Math.min(delay, maxBackoffMillis);
+        // Up to 20% jitter so many instances don't reconnect in lockstep
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private Mono<Void> handleSession(WebSocketSession session) {
+        return session.receive()
+                .timeout(Duration.ofMillis(idleTimeoutMillis))
+                .map(WebSocketMessage::getPayload)
+                .doOnNext(this::onFrame)
+                .then();
+    }
+
+    void onFrame(DataBuffer payload) {
+        // A frame arrived, so the connection is healthy again
+        failedAttempts = 0;
+        try (InputStream in = payload.asInputStream()) {
+            if (!parser.parseBinanceBookTicker(in, event)) {
+                return;
+            }
+        } catch (IOException e) {
+            log.warn("Skipping malformed Binance stream frame: {}", e.getMessage());
+            return;
+        }
+
+        int symbolId = event.getSymbolId();
+        long updateId = event.getUpdateId();
+        long last = lastUpdateIds[symbolId];
+        if (updateId <= last) {
+            duplicatesCounter.increment();
+            return;
+        }
+        lastUpdateIds[symbolId] = updateId;
+
+        ticksCounter.increment();
+        listener.accept(new VenueQuote(getVenue(), symbolRegistry.symbol(symbolId),
+                event.getBidPrice(), event.getAskPrice(), event.getBidQty(), event.getAskQty()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable top-of-book snapshot for one symbol, as published by {@link TopOfBookStore}.
+ * The bid and ask may come from different venues.
+ */
+@Value
+public class BookQuote {
+    String symbol;
+    // FixedPoint units
+    long bid;
+    long ask;
+    String bidSource;
+    String askSource;
+    LocalDateTime timestamp;
+    // Wall-clock time of the oldest venue quote behind this snapshot, used for staleness checks
+    long receivedAtMillis;
+    // Monotonic store-wide sequence, bumped on every publish
+    long sequence;
+
+    public BigDecimal getBidPrice() {
+        return FixedPoint.toBigDecimal(bid);
+    }
+
+    public BigDecimal getAskPrice() {
+        return FixedPoint.toBigDecimal(ask);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import lombok.Data;
+
+/**
+ * One Binance bookTicker stream update. Reused across frames by the stream reader.
+ */
+@Data
+public class BookTickerEvent {
+    private int symbolId = -1;
+    private long updateId = -1;
+    // FixedPoint units, NONE until read
+    private long bidPrice = FixedPoint.NONE;
+    private long askPrice = FixedPoint.NONE;
+    private long bidQty;
+    private long askQty;
+
+    void reset() {
+        symbolId = -1;
+        updateId = -1;
+        bidPrice = FixedPoint.NONE;
+        askPrice = FixedPoint.NONE;
+        bidQty = 0;
+        askQty = 0;
+    }
+}
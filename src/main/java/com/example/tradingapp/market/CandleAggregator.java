@@ -0,0 +1,100 @@
+package com.example.tradingapp.market;
+
+import java.util.function.Consumer;
+
+/**
+ * Open OHLC buckets for every (symbol, source, interval), stored in flat primitive arrays indexed by
+ * {@code (symbolId * sourceCount + sourceId) * intervalCount + interval.ordinal()}. Each quote is folded
+ * into all intervals at once; a bucket is handed out as a completed {@link CandleBar} as soon as a
+ * later quote falls into the next bucket, or when {@link #closeExpired} finds its time is up.
+ *
+ * Buckets without any quote are skipped rather than filled in, so a quiet source leaves gaps.
+ * Not thread-safe: callers serialize all access.
+ */
+public class CandleAggregator {
+
+    private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+    private final int sourceCount;
+
+    // Per (symbol, source, interval)
+    private final long[] openTimes;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final int[] ticks;
+
+    public CandleAggregator(int symbolCount, int sourceCount) {
+        this.sourceCount = sourceCount;
+        int slots = symbolCount * sourceCount * INTERVALS.length;
+        this.openTimes = new long[slots];
+        this.opens = new long[slots];
+        this.highs = new long[slots];
+        this.lows = new long[slots];
+        this.closes = new long[slots];
+        this.ticks = new int[slots];
+    }
+
+    /**
+     * Folds one price into every interval of the series.
+     *
+     * @param price     FixedPoint units
+     * @param completed receives the buckets this price closed
+     */
+    public void update(int symbolId, int sourceId, long price, long nowMillis, Consumer<CandleBar> completed) {
+        int base = (symbolId * sourceCount + sourceId) * INTERVALS.length;
+        for (CandleInterval interval : INTERVALS) {
+            int slot = base + interval.ordinal();
+            long bucket = interval.bucketStart(nowMillis);
+            // A clock step backwards keeps folding into the open bucket instead of reopening an old one
+            if (ticks[slot] > 0 && bucket > openTimes[slot]) {
+                completed.accept(toBar(symbolId, sourceId, interval, slot));
+                ticks[slot] = 0;
+            }
+            if (ticks[slot] == 0) {
+                openTimes[slot] = bucket;
+                opens[slot] = price;
+                highs[slot] = price;
+                lows[slot] = price;
+            } else {
+                highs[slot] = Math.max(highs[slot], price);
+                lows[slot] = Math.min(lows[slot], price);
+            }
+            closes[slot] = price;
+            ticks[slot]++;
+        }
+    }
+
+    /**
+     * Completes every open bucket whose time has passed, even if its source has stopped quoting.
+     */
+    public void closeExpired(long nowMillis, Consumer<CandleBar> completed) {
+        int symbolCount = ticks.length / (sourceCount * INTERVALS.length);
+        for (int symbolId = 0; symbolId < symbolCount; symbolId++) {
+            for (int sourceId = 0; sourceId < sourceCount; sourceId++) {
+                int base = (symbolId * sourceCount + sourceId) * INTERVALS.length;
+                for (CandleInterval interval : INTERVALS) {
+                    int slot = base + interval.ordinal();
+                    if (ticks[slot] > 0 && nowMillis >= openTimes[slot] + interval.getMillis()) {
+                        completed.accept(toBar(symbolId, sourceId, interval, slot));
+                        ticks[slot] = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The bucket currently being filled, or null if the series has no quote in it yet.
+     */
+    public CandleBar getOpen(int symbolId, int sourceId, CandleInterval interval) {
+        int slot = (symbolId * sourceCount + sourceId) * INTERVALS.length + interval.ordinal();
+        return ticks[slot] == 0 ? null : toBar(symbolId, sourceId, interval, slot);
+    }
+
+    private CandleBar toBar(int symbolId, int sourceId, CandleInterval interval, int slot) {
+        return new CandleBar(symbolId, sourceId, interval, openTimes[slot],
+                opens[slot], highs[slot], lows[slot], closes[slot], ticks[slot]);
+    }
+}
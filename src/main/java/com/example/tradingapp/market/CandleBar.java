@@ -0,0 +1,20 @@
+package com.example.tradingapp.market;
+
+import lombok.Value;
+
+/**
+ * One OHLC bucket as produced by {@link CandleAggregator}. Prices are FixedPoint units.
+ */
+@Value
+public class CandleBar {
+    int symbolId;
+    int sourceId;
+    CandleInterval interval;
+    long openTimeMillis;
+    long open;
+    long high;
+    long low;
+    long close;
+    // Quotes folded into the bucket; venues report no traded volume with their best bid/ask
+    int ticks;
+}
@@ -0,0 +1,44 @@
+package com.example.tradingapp.market;
+
+/**
+ * Bucket widths the candle engine maintains for every symbol and source. Buckets are aligned to the
+ * epoch, so a one-minute candle always opens on a whole UTC minute.
+ */
+public enum CandleInterval {
+    SECOND("1s", 1_000L),
+    MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 300_000L),
+    HOUR("1h", 3_600_000L);
+
+    private final String code;
+    private final long millis;
+
+    CandleInterval(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Start of the bucket containing the given time.
+     */
+    public long bucketStart(long epochMillis) {
+        return epochMillis - Math.floorMod(epochMillis, millis);
+    }
+
+    public static CandleInterval fromCode(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equals(code)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported candle interval: " + code);
+    }
+}
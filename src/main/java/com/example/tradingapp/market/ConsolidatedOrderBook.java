@@ -0,0 +1,134 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+
+import java.util.Arrays;
+
+/**
+ * Latest bid/ask per (symbol, venue), stored in flat primitive arrays indexed by
+ * {@code symbolId * venueCount + venueId}. The best bid and best ask are chosen independently,
+ * each remembering its venue, and venues that have not quoted within the TTL drop out.
+ *
+ * Prices are {@link FixedPoint} units. Not thread-safe: callers serialize updates, and readers
+ * consume the snapshots published from it rather than the book itself.
+ */
+public class ConsolidatedOrderBook {
+
+    public static final int NO_VENUE = -1;
+
+    private final int symbolCount;
+    private final int venueCount;
+    private final long venueTtlMillis;
+
+    // Per (symbol, venue)
+    private final long[] bids;
+    private final long[] asks;
+    private final long[] updatedAtMillis;
+
+    // Per symbol
+    private final long[] bestBids;
+    private final long[] bestAsks;
+    private final int[] bestBidVenues;
+    private final int[] bestAskVenues;
+    private final long[] bestQuotedAtMillis;
+
+    public ConsolidatedOrderBook(int symbolCount, int venueCount, long venueTtlMillis) {
+        this.symbolCount = symbolCount;
+        this.venueCount = venueCount;
+        this.venueTtlMillis = venueTtlMillis;
+        this.bids = new long[symbolCount * venueCount];
+        this.asks = new long[symbolCount * venueCount];
+        this.updatedAtMillis = new long[symbolCount * venueCount];
+        this.bestBids = new long[symbolCount];
+        this.bestAsks = new long[symbolCount];
+        this.bestBidVenues = new int[symbolCount];
+        this.bestAskVenues = new int[symbolCount];
+        this.bestQuotedAtMillis = new long[symbolCount];
+        Arrays.fill(bestBidVenues, NO_VENUE);
+        Arrays.fill(bestAskVenues, NO_VENUE);
+    }
+
+    /**
+     * Records a venue's quote and recomputes the symbol's best prices.
+     *
+     * @return true if the best bid, best ask, or either of their venues changed
+     */
+    public boolean update(int symbolId, int venueId, long bid, long ask, long nowMillis) {
+        int slot = symbolId * venueCount + venueId;
+        bids[slot] = bid;
+        asks[slot] = ask;
+        updatedAtMillis[slot] = nowMillis;
+        return recompute(symbolId, nowMillis);
+    }
+
+    /**
+     * Recomputes the symbol's best prices without new input, dropping venues past their TTL.
+     *
+     * @return true if the best bid, best ask, or either of their venues changed
+     */
+    public boolean recompute(int symbolId, long nowMillis) {
+        long bestBid = 0;
+        long bestAsk = 0;
+        int bestBidVenue = NO_VENUE;
+        int bestAskVenue = NO_VENUE;
+
+        int base = symbolId * venueCount;
+        for (int venueId = 0; venueId < venueCount; venueId++) {
+            int slot = base + venueId;
+            long updatedAt = updatedAtMillis[slot];
+            if (updatedAt == 0 || nowMillis - updatedAt > venueTtlMillis) {
+                continue;
+            }
+            // Higher bid is better for sellers, lower ask is better for buyers
+            if (bestBidVenue == NO_VENUE || bids[slot] > bestBid) {
+                bestBid = bids[slot];
+                bestBidVenue = venueId;
+            }
+            if (bestAskVenue == NO_VENUE || asks[slot] < bestAsk) {
+                bestAsk = asks[slot];
+                bestAskVenue = venueId;
+            }
+        }
+
+        boolean changed = bestBid != bestBids[symbolId] || bestAsk != bestAsks[symbolId]
+                || bestBidVenue != bestBidVenues[symbolId] || bestAskVenue != bestAskVenues[symbolId];
+        bestBids[symbolId] = bestBid;
+        bestAsks[symbolId] = bestAsk;
+        bestBidVenues[symbolId] = bestBidVenue;
+        bestAskVenues[symbolId] = bestAskVenue;
+        bestQuotedAtMillis[symbolId] = bestBidVenue == NO_VENUE ? 0
+                : Math.min(updatedAtMillis[base + bestBidVenue], updatedAtMillis[base + bestAskVenue]);
+        return changed;
+    }
+
+    public boolean hasQuote(int symbolId) {
+        return bestBidVenues[symbolId] != NO_VENUE;
+    }
+
+    public long getBestBid(int symbolId) {
+        return bestBids[symbolId];
+    }
+
+    public long getBestAsk(int symbolId) {
+        return bestAsks[symbolId];
+    }
+
+    public int getBestBidVenue(int symbolId) {
+        return bestBidVenues[symbolId];
+    }
+
+    public int getBestAskVenue(int symbolId) {
+        return bestAskVenues[symbolId];
+    }
+
+    /**
+     * Arrival time of the older of the two venue quotes behind the current best bid and ask.
+     */
+    public long getBestQuotedAtMillis(int symbolId) {
+        return bestQuotedAtMillis[symbolId];
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+}
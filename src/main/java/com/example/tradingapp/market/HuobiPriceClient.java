@@ -0,0 +1,39 @@
+package com.example.tradingapp.market;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+
+@Component
+public class HuobiPriceClient extends TickerPriceClient {
+
+    @Value("${trading.venues.huobi.url:https://api.huobi.pro/market/tickers}")
+    private String url;
+
+    @Value("${trading.venues.huobi.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    @Override
+    public Venue getVenue() {
+        return Venue.HUOBI;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return Duration.ofMillis(timeoutMillis);
+    }
+
+    @Override
+    protected String getUrl() {
+        return url;
+    }
+
+    @Override
+    protected List<VenueQuote> parse(TickerStreamParser parser, InputStream in) throws IOException {
+        return parser.parseHuobi(in);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.tradingapp.market;
+
+/**
+ * How PriceAggregationService receives market data ({@code trading.ingestion.mode}).
+ */
+public enum IngestionMode {
+    // Every venue is polled over REST on the aggregation schedule
+    POLLING,
+    // Venues with a WebSocket feed push each tick; the rest are still polled
+    STREAMING,
+    // No exchange traffic at all, e.g. in benchmarks
+    OFF,
+    // No exchange traffic; ReplayService feeds recorded or synthetic quotes (trading.replay.*)
+    REPLAY
+}
@@ -0,0 +1,28 @@
+package com.example.tradingapp.market;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Non-blocking price source for one exchange. Every registered client is queried concurrently
+ * once per aggregation cycle, so adding a venue does not lengthen the cycle.
+ */
+public interface PriceVenueClient {
+
+    Venue getVenue();
+
+    /**
+     * Upper bound for one fetch; a venue that misses it is skipped for the cycle.
+     */
+    Duration getTimeout();
+
+    /**
+     * Quotes for the relevant symbols. Errors are signalled on the Mono, not thrown.
+     */
+    Mono<List<VenueQuote>> fetchQuotes();
+
+    // Full-exchange ticker payloads run to several MB; anything past this is treated as an error
+    int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+}
@@ -0,0 +1,27 @@
+package com.example.tradingapp.market;
+
+import java.io.IOException;
+
+/**
+ * Ordered stream of venue quotes to drive the aggregation pipeline with, instead of the live venues.
+ * Each quote carries the time it was (or would have been) received, which only paces the replay.
+ */
+public interface ReplaySource extends AutoCloseable {
+
+    /**
+     * Advances to the next quote.
+     *
+     * @return false once the source is exhausted
+     */
+    boolean next() throws IOException;
+
+    VenueQuote quote();
+
+    /**
+     * Receive time of the current quote in nanoseconds; only differences between quotes are meaningful.
+     */
+    long timestampNanos();
+
+    @Override
+    void close();
+}
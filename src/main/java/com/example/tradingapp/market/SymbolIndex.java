@@ -0,0 +1,95 @@
+package com.example.tradingapp.market;
+
+/**
+ * Fixed set of symbol spellings with dense integer ids, held in an open-addressing hash table.
+ * Lookups hash and compare raw character ranges, so a parser can match a symbol straight out of its
+ * token buffer without creating a String, in constant time however many symbols are tracked.
+ */
+public final class SymbolIndex {
+
+    private final String[] symbols;
+    private final char[][] chars;
+    // id + 1 per slot, 0 for empty; at most half full so probe chains stay short
+    private final int[] slots;
+    private final int mask;
+
+    public SymbolIndex(String... symbols) {
+        this.symbols = symbols.clone();
+        this.chars = new char[symbols.length][];
+        this.slots = new int[Math.max(2, Integer.highestOneBit(Math.max(1, symbols.length)) << 2)];
+        this.mask = slots.length - 1;
+        for (int id = 0; id < symbols.length; id++) {
+            char[] symbol = symbols[id].toCharArray();
+            if (indexOf(symbol, 0, symbol.length) >= 0) {
+                throw new IllegalArgumentException("Duplicate symbol: " + symbols[id]);
+            }
+            chars[id] = symbol;
+            int slot = hash(symbol, 0, symbol.length) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public String symbol(int id) {
+        return symbols[id];
+    }
+
+    public int indexOf(String symbol) {
+        int length = symbol.length();
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + symbol.charAt(i);
+        }
+        for (int slot = spread(h) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (symbols[id].equals(symbol)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Id of the symbol spelled exactly by {@code buffer[offset, offset + length)}, or -1 if not tracked.
+     */
+    public int indexOf(char[] buffer, int offset, int length) {
+        for (int slot = hash(buffer, offset, length) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (matches(chars[id], buffer, offset, length)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    // Same value as String.hashCode() of the range, then spread so the low bits used by the mask vary
+    private static int hash(char[] buffer, int offset, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer[offset + i];
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(char[] symbol, char[] buffer, int offset, int length) {
+        if (symbol.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[offset + i] != symbol[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.tradingapp.market;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The traded symbol universe ({@code trading.symbols}), e.g. {@code ETH/USDT,BTC/USDT}.
+ *
+ * Each pair gets a dense id, its position in the configured list, shared by the order book, candles
+ * and the tick log. Tick log segments record the names behind their ids, so the list can be reordered
+ * between capture and replay.
+ * The canonical symbol is base + quote in uppercase ("ETHUSDT"). Every venue also gets its own
+ * {@link SymbolIndex} of its spelling of the same pairs, with the same ids, so ticker rows are matched
+ * exactly and without allocation whatever case the venue uses.
+ */
+public final class SymbolRegistry {
+
+    private static final Venue[] VENUES = Venue.values();
+
+    private final SymbolIndex symbols;
+    private final String[] baseCurrencies;
+    private final String[] quoteCurrencies;
+    private final SymbolIndex[] venueSymbols;
+    private final List<String> currencies;
+
+    /**
+     * @param pairs {@code BASE/QUOTE} pairs, in id order
+     */
+    public SymbolRegistry(String... pairs) {
+        int count = pairs.length;
+        String[] canonical = new String[count];
+        baseCurrencies = new String[count];
+        quoteCurrencies = new String[count];
+        Set<String> allCurrencies = new LinkedHashSet<>();
+        for (int id = 0; id < count; id++) {
+            String[] parts = pairs[id].trim().split("/");
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                throw new IllegalArgumentException("Invalid symbol pair: " + pairs[id].trim() + " (expected BASE/QUOTE)");
+            }
+            baseCurrencies[id] = parts[0].trim().toUpperCase(Locale.ROOT);
+            quoteCurrencies[id] = parts[1].trim().toUpperCase(Locale.ROOT);
+            canonical[id] = baseCurrencies[id] + quoteCurrencies[id];
+            allCurrencies.add(quoteCurrencies[id]);
+            allCurrencies.add(baseCurrencies[id]);
+        }
+        symbols = new SymbolIndex(canonical);
+        currencies = List.copyOf(allCurrencies);
+
+        venueSymbols = new SymbolIndex[VENUES.length];
+        for (Venue venue : VENUES) {
+            String[] spelled = new String[count];
+            for (int id = 0; id < count; id++) {
+                spelled[id] = venue.symbolFor(baseCurrencies[id], quoteCurrencies[id]);
+            }
+            venueSymbols[venue.ordinal()] = new SymbolIndex(spelled);
+        }
+    }
+
+    /**
+     * Parses a comma-separated {@code BASE/QUOTE} list.
+     */
+    public static SymbolRegistry parse(String pairs) {
+        List<String> parts = new ArrayList<>();
+        for (String part : pairs.split(",")) {
+            if (!part.isBlank()) {
+                parts.add(part);
+            }
+        }
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("No trading symbols configured");
+        }
+        return new SymbolRegistry(parts.toArray(new String[0]));
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    public String symbol(int id) {
+        return symbols.symbol(id);
+    }
+
+    /**
+     * Id of a canonical symbol such as "ETHUSDT", or -1 if it is not traded.
+     */
+    public int indexOf(String symbol) {
+        return symbol == null ? -1 : symbols.indexOf(symbol);
+    }
+
+    public String baseCurrency(int id) {
+        return baseCurrencies[id];
+    }
+
+    public String quoteCurrency(int id) {
+        return quoteCurrencies[id];
+    }
+
+    /**
+     * Lookup of the venue's own spelling of each symbol, with the same ids as this registry.
+     */
+    public SymbolIndex venueSymbols(Venue venue) {
+        return venueSymbols[venue.ordinal()];
+    }
+
+    /**
+     * Every currency that appears in a pair, quote currencies first within each pair.
+     */
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+}
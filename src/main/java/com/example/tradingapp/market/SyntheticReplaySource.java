@@ -0,0 +1,103 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generated venue quotes: a random walk of each symbol's mid price, quoted by every venue with its
+ * own spread and a small skew, so the best bid and best ask regularly come from different venues.
+ *
+ * Fully determined by the seed and start prices: the same arguments always produce the same quotes.
+ * Symbols with a start price of 0 are never quoted.
+ */
+public final class SyntheticReplaySource implements ReplaySource {
+
+    private static final Venue[] VENUES = Venue.values();
+
+    // Per tick the mid moves by up to this many basis points either way
+    private static final int MAX_STEP_BPS = 5;
+    // Half-spread and venue skew, in basis points of the mid
+    private static final int MAX_HALF_SPREAD_BPS = 5;
+    private static final int MAX_SKEW_BPS = 2;
+
+    private final SymbolRegistry symbols;
+    private final long[] mids;
+    private final int[] quotedSymbols;
+    private final SplittableRandom random;
+    private final long count;
+    private final long tickIntervalNanos;
+
+    private long emitted;
+    private VenueQuote quote;
+
+    /**
+     * @param startMids         starting mid price per symbol id, in FixedPoint units
+     * @param count             number of quotes to generate
+     * @param tickIntervalNanos spacing between consecutive quotes
+     */
+    public SyntheticReplaySource(SymbolRegistry symbols, long[] startMids, long seed, long count, long tickIntervalNanos) {
+        this.symbols = symbols;
+        this.mids = startMids.clone();
+        this.random = new SplittableRandom(seed);
+        this.count = count;
+        this.tickIntervalNanos = tickIntervalNanos;
+
+        int quoted = 0;
+        for (long mid : mids) {
+            if (mid > 0) {
+                quoted++;
+            }
+        }
+        if (quoted == 0) {
+            throw new IllegalArgumentException("No start price for any symbol");
+        }
+        quotedSymbols = new int[quoted];
+        for (int symbolId = 0, i = 0; symbolId < mids.length; symbolId++) {
+            if (mids[symbolId] > 0) {
+                quotedSymbols[i++] = symbolId;
+            }
+        }
+    }
+
+    @Override
+    public boolean next() {
+        if (emitted >= count) {
+            quote = null;
+            return false;
+        }
+        emitted++;
+
+        int symbolId = quotedSymbols[random.nextInt(quotedSymbols.length)];
+        Venue venue = VENUES[random.nextInt(VENUES.length)];
+        long mid = mids[symbolId];
+        mid = Math.max(1, mid + bps(mid, random.nextInt(-MAX_STEP_BPS, MAX_STEP_BPS + 1)));
+        mids[symbolId] = mid;
+
+        long venueMid = mid + bps(mid, random.nextInt(-MAX_SKEW_BPS, MAX_SKEW_BPS + 1));
+        long halfSpread = Math.max(1, bps(mid, random.nextInt(1, MAX_HALF_SPREAD_BPS + 1)));
+        long bidQty = FixedPoint.ONE / 100 * random.nextInt(1, 1001);
+        long askQty = FixedPoint.ONE / 100 * random.nextInt(1, 1001);
+        quote = new VenueQuote(venue, symbols.symbol(symbolId),
+                venueMid - halfSpread, venueMid + halfSpread, bidQty, askQty);
+        return true;
+    }
+
+    private static long bps(long price, int basisPoints) {
+        return price / 10_000 * basisPoints;
+    }
+
+    @Override
+    public VenueQuote quote() {
+        return quote;
+    }
+
+    @Override
+    public long timestampNanos() {
+        return emitted * tickIntervalNanos;
+    }
+
+    @Override
+    public void close() {
+    }
+}
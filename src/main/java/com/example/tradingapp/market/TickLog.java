@@ -0,0 +1,219 @@
+package com.example.tradingapp.market;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Append-only binary capture of every raw venue quote, for replay and research.
+ *
+ * Records are fixed-size and written straight into memory-mapped segment files, so appending is a
+ * handful of stores into the page cache with no allocation, serialization or system call. A segment
+ * is pre-sized to {@code trading.tick-log.segment-size-mb}; when it fills up the next one is mapped.
+ * Every start opens a new segment, so a segment is only ever written by one process.
+ *
+ * Layout, little-endian, {@link #RECORD_SIZE} bytes per record:
+ * <pre>
+ *  0 int  symbolId   SymbolRegistry id, i.e. position in trading.symbols when written
+ *  4 int  venueId    Venue ordinal
+ *  8 long bid        FixedPoint units
+ * 16 long ask
+ * 24 long bidQty     0 if the venue did not report it
+ * 32 long askQty
+ * 40 long timestamp  epoch nanoseconds; written last, 0 marks the end of the data
+ * </pre>
+ * Every segment starts with a header, padded to whole record slots:
+ * <pre>
+ *  0 int  magic        {@link #MAGIC}
+ *  4 int  version      {@link #VERSION}
+ *  8 int  recordSize   {@link #RECORD_SIZE}
+ * 12 int  dataOffset   position of the first record
+ * 16 int  symbolCount
+ * 20      symbols      per symbol id in order: short length, then the canonical name in UTF-8
+ * </pre>
+ * The symbol table lets a reader resolve ids by name after trading.symbols has been reordered.
+ * Version 1 segments have no symbol table and a single header slot.
+ *
+ * Data reaches the OS on every append but is only forced to disk when a segment is closed, so a
+ * process crash loses nothing while a machine crash may lose the last unflushed pages.
+ */
+@Component
+@Slf4j
+public class TickLog {
+
+    public static final int RECORD_SIZE = 48;
+    public static final int MAGIC = 0x5449434B; // "TICK"
+    public static final int VERSION = 2;
+
+    static final int SYMBOL_OFFSET = 0;
+    static final int VENUE_OFFSET = 4;
+    static final int BID_OFFSET = 8;
+    static final int ASK_OFFSET = 16;
+    static final int BID_QTY_OFFSET = 24;
+    static final int ASK_QTY_OFFSET = 32;
+    static final int TIMESTAMP_OFFSET = 40;
+
+    static final int DATA_OFFSET_OFFSET = 12;
+    static final int SYMBOL_COUNT_OFFSET = 16;
+    static final int SYMBOLS_OFFSET = 20;
+
+    static final String SEGMENT_PREFIX = "ticks-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Value("${trading.tick-log.enabled:false}")
+    private boolean enabled;
+
+    @Value("${trading.tick-log.dir:./data/ticks}")
+    private String directory;
+
+    @Value("${trading.tick-log.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private Path dir;
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private int position;
+    private int limit;
+    private byte[][] symbolNames;
+
+    // Epoch nanoseconds without allocating an Instant per record
+    private long epochNanosBase;
+    private long nanoTimeBase;
+
+    @PostConstruct
+    synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        List<Path> existing = TickLogReader.segments(dir);
+        segmentIndex = existing.isEmpty() ? 0 : segmentIndexOf(existing.get(existing.size() - 1)) + 1;
+
+        Instant now = Instant.now();
+        nanoTimeBase = System.nanoTime();
+        epochNanosBase = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+
+        symbolNames = new byte[symbolRegistry.size()][];
+        for (int id = 0; id < symbolNames.length; id++) {
+            symbolNames[id] = symbolRegistry.symbol(id).getBytes(StandardCharsets.UTF_8);
+        }
+
+        mapSegment();
+        log.info("Tick log writing to {} ({} MB segments)", segmentPath(segmentIndex), segmentSizeMb);
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends one quote stamped with the current time. Does nothing if the log is disabled.
+     *
+     * @param bid FixedPoint units, like ask and the quantities
+     */
+    public void append(int symbolId, int venueId, long bid, long ask, long bidQty, long askQty) {
+        if (!enabled) {
+            return;
+        }
+        append(symbolId, venueId, bid, ask, bidQty, askQty, epochNanosBase + (System.nanoTime() - nanoTimeBase));
+    }
+
+    synchronized void append(int symbolId, int venueId, long bid, long ask, long bidQty, long askQty,
+                             long timestampNanos) {
+        if (segment == null) {
+            return;
+        }
+        if (position == limit) {
+            rollSegment();
+        }
+        int at = position;
+        segment.putInt(at + SYMBOL_OFFSET, symbolId);
+        segment.putInt(at + VENUE_OFFSET, venueId);
+        segment.putLong(at + BID_OFFSET, bid);
+        segment.putLong(at + ASK_OFFSET, ask);
+        segment.putLong(at + BID_QTY_OFFSET, bidQty);
+        segment.putLong(at + ASK_QTY_OFFSET, askQty);
+        // A reader that sees the timestamp also sees the fields above
+        VarHandle.releaseFence();
+        segment.putLong(at + TIMESTAMP_OFFSET, timestampNanos);
+        position = at + RECORD_SIZE;
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    private void rollSegment() {
+        segment.force();
+        segmentIndex++;
+        try {
+            mapSegment();
+        } catch (IOException e) {
+            segment = null;
+            throw new UncheckedIOException("Cannot open tick log segment " + segmentPath(segmentIndex), e);
+        }
+        log.debug("Tick log rolled to {}", segmentPath(segmentIndex));
+    }
+
+    private void mapSegment() throws IOException {
+        // Whole records only; the file is created sparse and filled in as records arrive
+        long bytes = (long) segmentSizeMb * 1024 * 1024;
+        limit = (int) Math.min(bytes / RECORD_SIZE * RECORD_SIZE, Integer.MAX_VALUE / RECORD_SIZE * RECORD_SIZE);
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentIndex), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, limit);
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putInt(8, RECORD_SIZE);
+        int at = SYMBOLS_OFFSET;
+        for (byte[] name : symbolNames) {
+            segment.putShort(at, (short) name.length);
+            segment.put(at + 2, name);
+            at += 2 + name.length;
+        }
+        int dataOffset = (at + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+        segment.putInt(DATA_OFFSET_OFFSET, dataOffset);
+        segment.putInt(SYMBOL_COUNT_OFFSET, symbolNames.length);
+        position = dataOffset;
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentIndexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.tradingapp.market;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.example.tradingapp.market.TickLog.*;
+
+/**
+ * Forward-only cursor over every record in a {@link TickLog} directory, oldest segment first.
+ *
+ * The reader is a flyweight: each segment is mapped read-only and the getters read the current record
+ * straight out of the mapping, so scanning allocates nothing per record. Values are only valid until
+ * the next call to {@link #next()}. The segments present when the reader is opened are scanned up to
+ * their last completed record, which includes a segment still being written.
+ *
+ * <pre>
+ * try (TickLogReader reader = TickLogReader.open(dir)) {
+ *     while (reader.next()) {
+ *         long mid = (reader.bid() + reader.ask()) / 2;
+ *     }
+ * }
+ * </pre>
+ */
+public final class TickLogReader implements AutoCloseable {
+
+    private final List<Path> segments;
+    private int segmentPosition = -1;
+    private MappedByteBuffer segment;
+    private int offset;
+    private int limit;
+    // Symbol names of the current segment by id, null for a version 1 segment
+    private String[] symbols;
+
+    private TickLogReader(List<Path> segments) {
+        this.segments = segments;
+    }
+
+    public static TickLogReader open(Path dir) throws IOException {
+        return new TickLogReader(segments(dir));
+    }
+
+    /**
+     * Segment files in the directory in write order.
+     */
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return false once every segment has been read
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (segment != null) {
+                int next = offset + RECORD_SIZE;
+                if (next + RECORD_SIZE <= limit && segment.getLong(next + TIMESTAMP_OFFSET) != 0) {
+                    // Pairs with the writer's release fence before the timestamp
+                    VarHandle.acquireFence();
+                    offset = next;
+                    return true;
+                }
+            }
+            if (++segmentPosition >= segments.size()) {
+                segment = null;
+                return false;
+            }
+            mapSegment(segments.get(segmentPosition));
+        }
+    }
+
+    public int symbolId() {
+        return segment.getInt(offset + SYMBOL_OFFSET);
+    }
+
+    /**
+     * Name of the record's symbol in the symbol table of its segment, or null if its id is not in the
+     * table or the segment has none (version 1).
+     */
+    public String symbol() {
+        int id = symbolId();
+        return symbols != null && id >= 0 && id < symbols.length ? symbols[id] : null;
+    }
+
+    /**
+     * False for version 1 segments, whose symbol ids are positions in trading.symbols when written.
+     */
+    public boolean hasSymbolTable() {
+        return symbols != null;
+    }
+
+    public int venueId() {
+        return segment.getInt(offset + VENUE_OFFSET);
+    }
+
+    public long bid() {
+        return segment.getLong(offset + BID_OFFSET);
+    }
+
+    public long ask() {
+        return segment.getLong(offset + ASK_OFFSET);
+    }
+
+    public long bidQty() {
+        return segment.getLong(offset + BID_QTY_OFFSET);
+    }
+
+    public long askQty() {
+        return segment.getLong(offset + ASK_QTY_OFFSET);
+    }
+
+    public long timestampNanos() {
+        return segment.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    @Override
+    public void close() {
+        // Mappings are released with the buffers; nothing is held open
+        segment = null;
+        segmentPosition = segments.size();
+    }
+
+    private void mapSegment(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+        }
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        limit = segment.limit() / RECORD_SIZE * RECORD_SIZE;
+        if (limit < RECORD_SIZE || segment.getInt(0) != MAGIC) {
+            throw new IOException("Not a tick log segment: " + path);
+        }
+        int version = segment.getInt(4);
+        if (version < 1 || version > VERSION || segment.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Unsupported tick log version " + version + " in " + path);
+        }
+        int dataOffset = RECORD_SIZE;
+        symbols = null;
+        if (version >= 2) {
+            dataOffset = segment.getInt(DATA_OFFSET_OFFSET);
+            symbols = new String[segment.getInt(SYMBOL_COUNT_OFFSET)];
+            int at = SYMBOLS_OFFSET;
+            for (int id = 0; id < symbols.length; id++) {
+                byte[] name = new byte[segment.getShort(at)];
+                segment.get(at + 2, name);
+                symbols[id] = new String(name, StandardCharsets.UTF_8);
+                at += 2 + name.length;
+            }
+        }
+        // Last header slot; the first call to next() moves onto the first record
+        offset = dataOffset - RECORD_SIZE;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.tradingapp.market;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays the quotes captured by {@link TickLog}, oldest segment first, at their recorded spacing.
+ * Symbols are matched by name through each segment's symbol table, so reordering trading.symbols
+ * between capture and replay is harmless. Records of a symbol or venue this build no longer tracks
+ * are skipped.
+ */
+public final class TickLogReplaySource implements ReplaySource {
+
+    private static final Venue[] VENUES = Venue.values();
+
+    private final TickLogReader reader;
+    private final SymbolRegistry symbols;
+    private VenueQuote quote;
+
+    public TickLogReplaySource(Path dir, SymbolRegistry symbols) throws IOException {
+        this.reader = TickLogReader.open(dir);
+        this.symbols = symbols;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (reader.next()) {
+            int symbolId = symbols.indexOf(symbolOf(reader));
+            int venueId = reader.venueId();
+            if (symbolId < 0 || venueId < 0 || venueId >= VENUES.length) {
+                continue;
+            }
+            quote = new VenueQuote(VENUES[venueId], symbols.symbol(symbolId),
+                    reader.bid(), reader.ask(), reader.bidQty(), reader.askQty());
+            return true;
+        }
+        quote = null;
+        return false;
+    }
+
+    private String symbolOf(TickLogReader reader) {
+        if (reader.hasSymbolTable()) {
+            return reader.symbol();
+        }
+        // Version 1 segments only have ids, taken to be positions in the current trading.symbols
+        int id = reader.symbolId();
+        return id >= 0 && id < symbols.size() ? symbols.symbol(id) : null;
+    }
+
+    @Override
+    public VenueQuote quote() {
+        return quote;
+    }
+
+    @Override
+    public long timestampNanos() {
+        return reader.timestampNanos();
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tradingapp.market;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * A venue polled over REST for its whole ticker payload. The body is buffered up to MAX_PAYLOAD_BYTES
+ * and parsed on a bounded-elastic worker rather than on the Reactor Netty event loop that received it,
+ * where a multi-MB parse would hold up every other connection served by that loop.
+ */
+public abstract class TickerPriceClient implements PriceVenueClient {
+
+    @Autowired
+    private WebClient marketDataWebClient;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    private TickerStreamParser parser;
+
+    @PostConstruct
+    void init() {
+        parser = new TickerStreamParser(symbolRegistry);
+    }
+
+    protected abstract String getUrl();
+
+    /**
+     * Reads this venue's ticker payload with the parser for its format.
+     */
+    protected abstract List<VenueQuote> parse(TickerStreamParser parser, InputStream in) throws IOException;
+
+    @Override
+    public Mono<List<VenueQuote>> fetchQuotes() {
+        return marketDataWebClient.get()
+                .uri(getUrl())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> DataBufferUtils.join(body, MAX_PAYLOAD_BYTES))
+                .publishOn(Schedulers.boundedElastic())
+                // A fetch cancelled by its timeout between the hop and the parse still frees the body
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .map(this::parseQuotes);
+    }
+
+    private List<VenueQuote> parseQuotes(DataBuffer body) {
+        try (InputStream in = body.asInputStream(true)) {
+            return parse(parser, in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed " + getVenue() + " ticker payload", e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for exchange ticker payloads. Tokens are pulled straight from the byte stream:
+ * no String copy of the body, no JsonNode tree, and tickers for untracked symbols are skipped
+ * as soon as their symbol field has been read.
+ */
+public class TickerStreamParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final SymbolRegistry symbols;
+    // Each venue's own spelling of the symbols, e.g. lowercase for Huobi
+    private final SymbolIndex binanceSymbols;
+    private final SymbolIndex huobiSymbols;
+
+    public TickerStreamParser(SymbolRegistry symbols) {
+        this.symbols = symbols;
+        this.binanceSymbols = symbols.venueSymbols(Venue.BINANCE);
+        this.huobiSymbols = symbols.venueSymbols(Venue.HUOBI);
+    }
+
+    /**
+     * Binance {@code /api/v3/ticker/bookTicker}: a top-level array of
+     * {@code {"symbol","bidPrice","bidQty","askPrice","askQty"}} objects with string prices.
+     */
+    public List<VenueQuote> parseBinance(InputStream in) throws IOException {
+        List<VenueQuote> quotes = new ArrayList<>(symbols.size());
+        try (JsonParser p = JSON_FACTORY.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of Binance tickers");
+            }
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                VenueQuote quote = readTicker(p, Venue.BINANCE, binanceSymbols, "bidPrice", "askPrice", "bidQty", "askQty");
+                if (quote != null) {
+                    quotes.add(quote);
+                }
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Huobi {@code /market/tickers}: {@code {"status","ts","data":[...]}} where each ticker has a
+     * lowercase symbol and numeric bid/ask fields.
+     */
+    public List<VenueQuote> parseHuobi(InputStream in) throws IOException {
+        List<VenueQuote> quotes = new ArrayList<>(symbols.size());
+        try (JsonParser p = JSON_FACTORY.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object from Huobi");
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                if (!"data".equals(field) || value != JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    VenueQuote quote = readTicker(p, Venue.HUOBI, huobiSymbols, "bid", "ask", "bidSize", "askSize");
+                    if (quote != null) {
+                        quotes.add(quote);
+                    }
+                }
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * Binance bookTicker stream frame, either raw ({@code {"u","s","b","B","a","A"}}) or wrapped
+     * in a combined-stream envelope ({@code {"stream","data":{...}}}).
+     *
+     * @return true if the frame carried a complete quote for a tracked symbol
+     */
+    public boolean parseBinanceBookTicker(InputStream in, BookTickerEvent event) throws IOException {
+        event.reset();
+        try (JsonParser p = JSON_FACTORY.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object from the Binance stream");
+            }
+            readBookTicker(p, event);
+        }
+        return event.getSymbolId() >= 0 && event.getUpdateId() >= 0
+                && event.getBidPrice() != FixedPoint.NONE && event.getAskPrice() != FixedPoint.NONE;
+    }
+
+    private void readBookTicker(JsonParser p, BookTickerEvent event) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                readBookTicker(p, event);
+            } else if ("s".equals(field) && value == JsonToken.VALUE_STRING) {
+                int symbolId = binanceSymbols.indexOf(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                if (symbolId < 0) {
+                    skipRestOfObject(p);
+                    return;
+                }
+                event.setSymbolId(symbolId);
+            } else if ("u".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                event.setUpdateId(p.getLongValue());
+            } else if ("b".equals(field)) {
+                event.setBidPrice(readDecimal(p, value));
+            } else if ("a".equals(field)) {
+                event.setAskPrice(readDecimal(p, value));
+            } else if ("B".equals(field)) {
+                event.setBidQty(readQuantity(p, value));
+            } else if ("A".equals(field)) {
+                event.setAskQty(readQuantity(p, value));
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads one ticker object; the parser is positioned on its START_OBJECT and is left on its END_OBJECT.
+     */
+    private VenueQuote readTicker(JsonParser p, Venue venue, SymbolIndex venueSymbols, String bidField,
+                                  String askField, String bidQtyField, String askQtyField) throws IOException {
+        int symbolId = -1;
+        long bid = FixedPoint.NONE;
+        long ask = FixedPoint.NONE;
+        long bidQty = 0;
+        long askQty = 0;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            // Field names are interned by the parser, so this does not allocate
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            if ("symbol".equals(field)) {
+                symbolId = value == JsonToken.VALUE_STRING
+                        ? venueSymbols.indexOf(p.getTextCharacters(), p.getTextOffset(), p.getTextLength())
+                        : -1;
+                if (symbolId < 0) {
+                    skipRestOfObject(p);
+                    return null;
+                }
+            } else if (bidField.equals(field)) {
+                bid = readDecimal(p, value);
+            } else if (askField.equals(field)) {
+                ask = readDecimal(p, value);
+            } else if (bidQtyField.equals(field)) {
+                bidQty = readQuantity(p, value);
+            } else if (askQtyField.equals(field)) {
+                askQty = readQuantity(p, value);
+            } else {
+                p.skipChildren();
+            }
+        }
+
+        if (symbolId < 0 || bid == FixedPoint.NONE || ask == FixedPoint.NONE) {
+            return null;
+        }
+        return new VenueQuote(venue, symbols.symbol(symbolId), bid, ask, bidQty, askQty);
+    }
+
+    private static long readDecimal(JsonParser p, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING && value != JsonToken.VALUE_NUMBER_INT
+                && value != JsonToken.VALUE_NUMBER_FLOAT) {
+            p.skipChildren();
+            return FixedPoint.NONE;
+        }
+        // Straight from the token buffer into FixedPoint units, without a String or BigDecimal
+        try {
+            return FixedPoint.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IOException("Malformed price: " + p.getText(), e);
+        }
+    }
+
+    /**
+     * Sizes are informational: a missing or unreadable one is recorded as 0 rather than failing the quote.
+     */
+    private static long readQuantity(JsonParser p, JsonToken value) throws IOException {
+        try {
+            long qty = readDecimal(p, value);
+            return qty == FixedPoint.NONE ? 0 : qty;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void skipRestOfObject(JsonParser p) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            p.nextToken();
+            p.skipChildren();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.entity.CryptoPrice;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.CryptoPriceRepository;
+import com.example.tradingapp.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory best bid/ask per symbol. Reads are a single lock-free map lookup and never touch JDBC.
+ *
+ * Staleness rules:
+ * - a quote older than {@code trading.price.max-age-ms} is still served for display,
+ *   but {@link #getTradable(String)} refuses to trade on it;
+ * - snapshots are derived from the consolidated book, which stops quoting a venue once it falls
+ *   silent, so a quote only stays fresh while the venues behind it keep updating.
+ */
+@Component
+@Slf4j
+public class TopOfBookStore {
+
+    @Autowired
+    private CryptoPriceRepository cryptoPriceRepository;
+
+    @Autowired
+    private TradingMetrics tradingMetrics;
+
+    @Value("${trading.price.max-age-ms:30000}")
+    private long maxQuoteAgeMillis;
+
+    private final ConcurrentHashMap<String, BookQuote> quotes = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @PostConstruct
+    void loadFromDatabase() {
+        for (CryptoPrice price : cryptoPriceRepository.findLatestForAllSymbols()) {
+            long receivedAt = price.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            // Consolidated rows are labelled "BID_VENUE/ASK_VENUE"
+            String[] sources = price.getSource().split("/", 2);
+            String askSource = sources.length > 1 ? sources[1] : sources[0];
+            quotes.putIfAbsent(price.getSymbol(), new BookQuote(price.getSymbol(),
+                    FixedPoint.fromBigDecimal(price.getBidPrice()), FixedPoint.fromBigDecimal(price.getAskPrice()),
+                    sources[0], askSource, price.getTimestamp(), receivedAt, sequence.incrementAndGet()));
+        }
+        log.info("Loaded {} quotes into top-of-book store", quotes.size());
+    }
+
+    /**
+     * Replaces the symbol's snapshot.
+     *
+     * @param bid              best bid in FixedPoint units
+     * @param ask              best ask in FixedPoint units
+     * @param receivedAtMillis when the oldest venue quote behind these prices arrived
+     */
+    public BookQuote publish(String symbol, long bid, long ask, String bidSource, String askSource,
+                             long receivedAtMillis) {
+        BookQuote quote = new BookQuote(symbol, bid, ask, bidSource, askSource, LocalDateTime.now(),
+                receivedAtMillis, sequence.incrementAndGet());
+        quotes.put(symbol, quote);
+        return quote;
+    }
+
+    /**
+     * Latest quote for the symbol regardless of age, or null if none has been seen.
+     */
+    public BookQuote get(String symbol) {
+        return quotes.get(symbol);
+    }
+
+    /**
+     * Latest quote of every symbol seen so far, regardless of age.
+     */
+    public Collection<BookQuote> getAll() {
+        return quotes.values();
+    }
+
+    /**
+     * Latest quote that is fresh enough to execute against.
+     */
+    public BookQuote getTradable(String symbol) {
+        BookQuote quote = quotes.get(symbol);
+        tradingMetrics.cacheLookup(TradingMetrics.Cache.TOP_OF_BOOK, quote != null);
+        if (quote == null) {
+            throw new IllegalArgumentException("No price data available for symbol: " + symbol);
+        }
+        if (isStale(quote)) {
+            throw new IllegalArgumentException("Price data for " + symbol + " is stale");
+        }
+        return quote;
+    }
+
+    public boolean isStale(BookQuote quote) {
+        return System.currentTimeMillis() - quote.getReceivedAtMillis() > maxQuoteAgeMillis;
+    }
+
+    public long getMaxQuoteAgeMillis() {
+        return maxQuoteAgeMillis;
+    }
+}
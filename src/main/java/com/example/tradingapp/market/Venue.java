@@ -0,0 +1,26 @@
+package com.example.tradingapp.market;
+
+import java.util.Locale;
+
+/**
+ * Exchanges we take prices from. The ordinal doubles as a dense venue id.
+ */
+public enum Venue {
+    BINANCE(false),
+    // Huobi spells its symbols in lowercase, e.g. "ethusdt"
+    HUOBI(true);
+
+    private final boolean lowercaseSymbols;
+
+    Venue(boolean lowercaseSymbols) {
+        this.lowercaseSymbols = lowercaseSymbols;
+    }
+
+    /**
+     * This venue's spelling of the pair, as it appears in its ticker payloads.
+     */
+    public String symbolFor(String baseCurrency, String quoteCurrency) {
+        String symbol = baseCurrency + quoteCurrency;
+        return lowercaseSymbols ? symbol.toLowerCase(Locale.ROOT) : symbol.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.tradingapp.market;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * One venue's bid/ask for a symbol, as fetched in a single aggregation cycle.
+ * Prices are {@link com.example.tradingapp.util.FixedPoint} units.
+ */
+@Value
+@AllArgsConstructor
+public class VenueQuote {
+    Venue venue;
+    String symbol;
+    long bidPrice;
+    long askPrice;
+    // Size available at the bid/ask, 0 if the venue did not report it
+    long bidQty;
+    long askQty;
+
+    public VenueQuote(Venue venue, String symbol, long bidPrice, long askPrice) {
+        this(venue, symbol, bidPrice, askPrice, 0, 0);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.tradingapp.metrics;
+
+import com.example.tradingapp.market.Venue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the ingestion, trade execution and lookup hot paths.
+ *
+ * Every meter is registered up front and kept in arrays indexed by enum ordinals, so recording is a
+ * lookup and an increment: no tag objects, no registry lookups, no allocation per call. Tags only
+ * take values from fixed enums (venue, mode, side, outcome, reason), never symbols or users.
+ */
+@Component
+public class TradingMetrics {
+
+    public enum FetchOutcome { SUCCESS, ERROR, TIMEOUT }
+
+    public enum Mode { DIRECT, SEQUENCED, BATCH }
+
+    public enum Side { BUY, SELL, OTHER }
+
+    public enum Outcome { FILLED, REJECTED, FAILED }
+
+    public enum Rejection { INVALID_SYMBOL, INVALID_TYPE, INVALID_QUANTITY, PRICE_UNAVAILABLE, NO_WALLET, INSUFFICIENT_BALANCE, QUEUE_FULL, TIMEOUT }
+
+    public enum Cache { TOP_OF_BOOK, WALLET_LEDGER, USERS }
+
+    private static final Venue[] VENUES = Venue.values();
+    private static final FetchOutcome[] FETCH_OUTCOMES = FetchOutcome.values();
+    private static final Mode[] MODES = Mode.values();
+    private static final Side[] SIDES = Side.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final Rejection[] REJECTIONS = Rejection.values();
+    private static final Cache[] CACHES = Cache.values();
+
+    private final Timer[] venueFetchTimers;
+    private final Counter[] quotesReceived;
+    private final Counter bestPriceChanges;
+    private final Timer aggregationCycleTimer;
+
+    private final Timer[] tradeTimers;
+    private final Counter[] rejectionCounters;
+    private final Timer quoteAgeTimer;
+
+    private final Counter[] cacheHits;
+    private final Counter[] cacheMisses;
+    private final Timer walletReadTimer;
+
+    @Autowired
+    public TradingMetrics(MeterRegistry meterRegistry) {
+        venueFetchTimers = new Timer[VENUES.length * FETCH_OUTCOMES.length];
+        quotesReceived = new Counter[VENUES.length];
+        for (Venue venue : VENUES) {
+            for (FetchOutcome outcome : FETCH_OUTCOMES) {
+                venueFetchTimers[venue.ordinal() * FETCH_OUTCOMES.length + outcome.ordinal()] =
+                        Timer.builder("trading.venue.fetch")
+                                .description("Latency of one venue's ticker fetch in a polling cycle")
+                                .tag("venue", venue.name())
+                                .tag("outcome", tagValue(outcome))
+                                .publishPercentileHistogram()
+                                .register(meterRegistry);
+            }
+            quotesReceived[venue.ordinal()] = Counter.builder("trading.quotes.received")
+                    .description("Venue quotes for tracked symbols, polled or streamed")
+                    .tag("venue", venue.name())
+                    .register(meterRegistry);
+        }
+        bestPriceChanges = Counter.builder("trading.quotes.best.changed")
+                .description("Changes of a consolidated best bid/ask, each one persisted and pushed")
+                .register(meterRegistry);
+        aggregationCycleTimer = Timer.builder("trading.aggregation.cycle")
+                .description("Duration of one polling cycle across all venues")
+                .register(meterRegistry);
+
+        tradeTimers = new Timer[MODES.length * SIDES.length * OUTCOMES.length];
+        for (Mode mode : MODES) {
+            for (Side side : SIDES) {
+                for (Outcome outcome : OUTCOMES) {
+                    tradeTimers[tradeSlot(mode, side, outcome)] = Timer.builder("trading.trade.execute")
+                            .description("End-to-end latency of a trade request, including queueing when sequenced")
+                            .tag("mode", tagValue(mode))
+                            .tag("type", side.name())
+                            .tag("outcome", tagValue(outcome))
+                            .publishPercentileHistogram()
+                            .publishPercentiles(0.5, 0.9, 0.99)
+                            .register(meterRegistry);
+                }
+            }
+        }
+        rejectionCounters = new Counter[REJECTIONS.length];
+        for (Rejection reason : REJECTIONS) {
+            rejectionCounters[reason.ordinal()] = Counter.builder("trading.trade.rejected")
+                    .description("Trades refused before settlement, by reason")
+                    .tag("reason", tagValue(reason))
+                    .register(meterRegistry);
+        }
+        quoteAgeTimer = Timer.builder("trading.trade.quote.age")
+                .description("Age of the quote a trade was priced against")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        cacheHits = new Counter[CACHES.length];
+        cacheMisses = new Counter[CACHES.length];
+        for (Cache cache : CACHES) {
+            // Same names and tags as Micrometer's own cache binders, so dashboards treat them alike
+            cacheHits[cache.ordinal()] = Counter.builder("cache.gets")
+                    .tag("cache", tagValue(cache)).tag("result", "hit")
+                    .register(meterRegistry);
+            cacheMisses[cache.ordinal()] = Counter.builder("cache.gets")
+                    .tag("cache", tagValue(cache)).tag("result", "miss")
+                    .register(meterRegistry);
+        }
+        walletReadTimer = Timer.builder("trading.wallet.read")
+                .description("Latency of serving a user's wallets")
+                .register(meterRegistry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static int tradeSlot(Mode mode, Side side, Outcome outcome) {
+        return (mode.ordinal() * SIDES.length + side.ordinal()) * OUTCOMES.length + outcome.ordinal();
+    }
+
+    public void venueFetched(Venue venue, FetchOutcome outcome, long nanos) {
+        venueFetchTimers[venue.ordinal() * FETCH_OUTCOMES.length + outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void quoteReceived(Venue venue) {
+        quotesReceived[venue.ordinal()].increment();
+    }
+
+    public void bestPriceChanged() {
+        bestPriceChanges.increment();
+    }
+
+    public void aggregationCycle(long nanos) {
+        aggregationCycleTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tradeExecuted(Mode mode, Side side, Outcome outcome, long nanos) {
+        tradeTimers[tradeSlot(mode, side, outcome)].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tradeRejected(Rejection reason) {
+        rejectionCounters[reason.ordinal()].increment();
+    }
+
+    public void quoteAgeAtTrade(long millis) {
+        quoteAgeTimer.record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+    }
+
+    public void cacheLookup(Cache cache, boolean hit) {
+        (hit ? cacheHits : cacheMisses)[cache.ordinal()].increment();
+    }
+
+    public void walletRead(long nanos) {
+        walletReadTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Side tag for a requested trade type, without allocating for the case-insensitive match.
+     */
+    public static Side side(String tradeType) {
+        if ("BUY".equalsIgnoreCase(tradeType)) {
+            return Side.BUY;
+        }
+        return "SELL".equalsIgnoreCase(tradeType) ? Side.SELL : Side.OTHER;
+    }
+}
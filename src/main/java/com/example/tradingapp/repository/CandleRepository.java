@@ -0,0 +1,19 @@
+package com.example.tradingapp.repository;
+
+import com.example.tradingapp.entity.Candle;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CandleRepository extends JpaRepository<Candle, Long> {
+    // Candles opening in [from, to), oldest first
+    @Query("SELECT c FROM Candle c WHERE c.symbol = :symbol AND c.source = :source AND c.barInterval = :barInterval "
+            + "AND c.openTime >= :from AND c.openTime < :to ORDER BY c.openTime")
+    List<Candle> findRange(String symbol, String source, String barInterval,
+                           LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
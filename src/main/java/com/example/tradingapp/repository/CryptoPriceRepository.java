@@ -13,5 +13,9 @@ public interface CryptoPriceRepository extends JpaRepository<CryptoPrice, Long>
     @Query("SELECT c FROM CryptoPrice c WHERE c.symbol = :symbol ORDER BY c.timestamp DESC LIMIT 1")
     Optional<CryptoPrice> findLatestBySymbol(String symbol);
 
+    @Query("SELECT c FROM CryptoPrice c WHERE c.timestamp = "
+            + "(SELECT MAX(c2.timestamp) FROM CryptoPrice c2 WHERE c2.symbol = c.symbol)")
+    List<CryptoPrice> findLatestForAllSymbols();
+
     List<CryptoPrice> findBySymbolOrderByTimestampDesc(String symbol);
 }
@@ -1,15 +1,59 @@
 package com.example.tradingapp.repository;
 
+import com.example.tradingapp.dto.TradeDTO;
 import com.example.tradingapp.entity.Trade;
-import com.example.tradingapp.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * History reads are keyset pages: (timestamp, id) is the key, newest first, so every page costs one
+ * index range scan no matter how deep into the history it is. All-symbol pages scan idx_user_timestamp;
+ * the ...BySymbol variants scan idx_user_symbol_timestamp, so a page of one symbol never walks past the
+ * user's trades in other symbols. They are separate queries rather than an optional symbol filter,
+ * which would make the database plan for both cases at once.
+ */
 @Repository
 public interface TradeRepository extends JpaRepository<Trade, Long> {
-    List<Trade> findByUserOrderByTimestampDesc(User user);
 
-    List<Trade> findByUserAndSymbolOrderByTimestampDesc(User user, String symbol);
+    // Rows are mapped to TradeDTOs by the query itself: no entities, no persistence context, no user fetch
+    String SELECT_DTO = "SELECT new com.example.tradingapp.dto.TradeDTO(t.id, t.symbol, cast(t.type as String), "
+            + "t.quantity, t.price, t.totalAmount, t.timestamp, t.status) FROM Trade t WHERE t.user.id = :userId ";
+    String AND_SYMBOL = "AND t.symbol = :symbol ";
+    String NEWEST_FIRST = "ORDER BY t.timestamp DESC, t.id DESC";
+    // Older than the key
+    String BEFORE_KEY = "AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id)) ";
+    // Newer than the key, read oldest first so a capped page never skips trades
+    String AFTER_KEY = "AND (t.timestamp > :timestamp OR (t.timestamp = :timestamp AND t.id > :id)) "
+            + "ORDER BY t.timestamp ASC, t.id ASC";
+
+    @Query(SELECT_DTO + NEWEST_FIRST)
+    List<TradeDTO> findLatest(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(SELECT_DTO + AND_SYMBOL + NEWEST_FIRST)
+    List<TradeDTO> findLatestBySymbol(@Param("userId") Long userId, @Param("symbol") String symbol,
+                                      Pageable pageable);
+
+    @Query(SELECT_DTO + BEFORE_KEY + NEWEST_FIRST)
+    List<TradeDTO> findBefore(@Param("userId") Long userId, @Param("timestamp") LocalDateTime timestamp,
+                              @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + AND_SYMBOL + BEFORE_KEY + NEWEST_FIRST)
+    List<TradeDTO> findBeforeBySymbol(@Param("userId") Long userId, @Param("symbol") String symbol,
+                                      @Param("timestamp") LocalDateTime timestamp, @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query(SELECT_DTO + AFTER_KEY)
+    List<TradeDTO> findAfter(@Param("userId") Long userId, @Param("timestamp") LocalDateTime timestamp,
+                             @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + AND_SYMBOL + AFTER_KEY)
+    List<TradeDTO> findAfterBySymbol(@Param("userId") Long userId, @Param("symbol") String symbol,
+                                     @Param("timestamp") LocalDateTime timestamp, @Param("id") Long id,
+                                     Pageable pageable);
 }
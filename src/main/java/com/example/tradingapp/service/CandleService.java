@@ -0,0 +1,269 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.dto.CandleDTO;
+import com.example.tradingapp.entity.Candle;
+import com.example.tradingapp.market.CandleAggregator;
+import com.example.tradingapp.market.CandleBar;
+import com.example.tradingapp.market.CandleInterval;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.Venue;
+import com.example.tradingapp.repository.CandleRepository;
+import com.example.tradingapp.util.FixedPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental OHLC candles of mid prices, per symbol and source. Every venue quote is folded in under
+ * its venue, and every change of the consolidated best price under {@link #BEST_SOURCE}. Completed
+ * buckets are written to the candles table by a background thread; the bucket still being filled is
+ * only held in memory and is appended to range queries as an incomplete candle. Buckets whose write
+ * fails stay queued and are retried with the next flush, up to {@code trading.candles.max-write-attempts}
+ * flushes in a row before they are dropped.
+ */
+@Service
+@Slf4j
+public class CandleService {
+
+    static final String INSERT_SQL = "INSERT INTO candles (symbol, source, bar_interval, open_time, "
+            + "open_price, high_price, low_price, close_price, tick_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Venue.values() clones on every call
+    private static final Venue[] VENUES = Venue.values();
+
+    // Source id of the consolidated best bid/ask; venue ids come first
+    public static final int BEST_SOURCE = VENUES.length;
+    public static final String BEST_SOURCE_NAME = "BEST";
+
+    @Autowired
+    private CandleRepository candleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Value("${trading.candles.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${trading.candles.max-bars:1000}")
+    private int maxBars;
+
+    @Value("${trading.candles.max-write-attempts:10}")
+    private int maxWriteAttempts;
+
+    private CandleAggregator aggregator;
+
+    // Completed buckets not yet written, guarded by this
+    private final List<CandleBar> unwritten = new ArrayList<>();
+    // Flushes in a row that failed; only touched by the writer
+    private int failedAttempts;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    void start() {
+        aggregator = new CandleAggregator(symbolRegistry.size(), VENUES.length + 1);
+        writtenCounter = meterRegistry.counter("trading.candles.written");
+        failedCounter = meterRegistry.counter("trading.candles.failed");
+        droppedCounter = meterRegistry.counter("trading.candles.dropped");
+
+        running = true;
+        writer = new Thread(this::runWriter, "candle-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Folds one bid/ask into the source's candles at its mid price.
+     *
+     * @param bid FixedPoint units
+     * @param ask FixedPoint units
+     */
+    public synchronized void record(int symbolId, int sourceId, long bid, long ask, long nowMillis) {
+        aggregator.update(symbolId, sourceId, (bid + ask) / 2, nowMillis, unwritten::add);
+    }
+
+    /**
+     * Candles of one series opening in [from, to), oldest first.
+     *
+     * @param from defaults to {@code to} minus the maximum number of bars
+     * @param to   defaults to now, which also includes the bucket still being filled
+     */
+    public List<CandleDTO> getCandles(String symbol, String intervalCode, String source,
+                                      LocalDateTime from, LocalDateTime to) {
+        int symbolId = symbolRegistry.indexOf(symbol);
+        if (symbolId < 0) {
+            throw new IllegalArgumentException("Invalid trading symbol: " + symbol);
+        }
+        CandleInterval interval = CandleInterval.fromCode(intervalCode);
+        int sourceId = sourceId(source);
+
+        long toMillis = to != null ? toEpochMillis(to) : System.currentTimeMillis() + interval.getMillis();
+        long fromMillis = from != null ? toEpochMillis(from) : toMillis - maxBars * interval.getMillis();
+        if (fromMillis >= toMillis) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if ((toMillis - fromMillis) / interval.getMillis() > maxBars) {
+            throw new IllegalArgumentException("Range too large: at most " + maxBars + " "
+                    + interval.getCode() + " candles per request");
+        }
+
+        // Keyed by open time: a bucket being written right now may show up both in the table and in memory
+        TreeMap<Long, CandleDTO> candles = new TreeMap<>();
+        String sourceName = sourceName(sourceId);
+        for (Candle candle : candleRepository.findRange(symbol, sourceName, interval.getCode(),
+                toLocalDateTime(fromMillis), toLocalDateTime(toMillis), PageRequest.ofSize(maxBars + 1))) {
+            candles.put(toEpochMillis(candle.getOpenTime()), mapToDto(candle));
+        }
+        synchronized (this) {
+            for (CandleBar bar : unwritten) {
+                if (bar.getSymbolId() == symbolId && bar.getSourceId() == sourceId && bar.getInterval() == interval
+                        && bar.getOpenTimeMillis() >= fromMillis && bar.getOpenTimeMillis() < toMillis) {
+                    candles.put(bar.getOpenTimeMillis(), mapToDto(bar, true));
+                }
+            }
+            CandleBar open = aggregator.getOpen(symbolId, sourceId, interval);
+            if (open != null && open.getOpenTimeMillis() >= fromMillis && open.getOpenTimeMillis() < toMillis) {
+                candles.put(open.getOpenTimeMillis(), mapToDto(open, false));
+            }
+        }
+        return new ArrayList<>(candles.values());
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            flush();
+        }
+        // Open buckets are incomplete and are not persisted on shutdown
+        flush();
+        synchronized (this) {
+            if (!unwritten.isEmpty()) {
+                log.warn("Candle writer stopped with {} unwritten candles", unwritten.size());
+            }
+        }
+    }
+
+    void flush() {
+        List<CandleBar> batch;
+        synchronized (this) {
+            // Buckets of sources that went quiet would otherwise stay open indefinitely
+            aggregator.closeExpired(System.currentTimeMillis(), unwritten::add);
+            if (unwritten.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(unwritten);
+        }
+        try {
+            write(batch);
+            writtenCounter.increment(batch.size());
+            failedAttempts = 0;
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            if (++failedAttempts < maxWriteAttempts) {
+                log.error("Error writing {} candles, will retry: ", batch.size(), e);
+                // Still queued, so they are retried and still served to range queries
+                return;
+            }
+            droppedCounter.increment(batch.size());
+            log.error("Error writing {} candles, dropping them after {} attempts: ", batch.size(), failedAttempts, e);
+            failedAttempts = 0;
+        }
+        synchronized (this) {
+            // Later buckets may have been appended meanwhile
+            unwritten.subList(0, batch.size()).clear();
+        }
+    }
+
+    /**
+     * Inserts completed candles in one JDBC batch on the calling thread.
+     */
+    void write(List<CandleBar> bars) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, bars, bars.size(), (ps, bar) -> {
+            ps.setString(1, symbolRegistry.symbol(bar.getSymbolId()));
+            ps.setString(2, sourceName(bar.getSourceId()));
+            ps.setString(3, bar.getInterval().getCode());
+            ps.setTimestamp(4, Timestamp.valueOf(toLocalDateTime(bar.getOpenTimeMillis())));
+            ps.setBigDecimal(5, FixedPoint.toBigDecimal(bar.getOpen()));
+            ps.setBigDecimal(6, FixedPoint.toBigDecimal(bar.getHigh()));
+            ps.setBigDecimal(7, FixedPoint.toBigDecimal(bar.getLow()));
+            ps.setBigDecimal(8, FixedPoint.toBigDecimal(bar.getClose()));
+            ps.setInt(9, bar.getTicks());
+        });
+    }
+
+    private static int sourceId(String source) {
+        if (source == null || BEST_SOURCE_NAME.equalsIgnoreCase(source)) {
+            return BEST_SOURCE;
+        }
+        for (Venue venue : VENUES) {
+            if (venue.name().equalsIgnoreCase(source)) {
+                return venue.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle source: " + source);
+    }
+
+    static String sourceName(int sourceId) {
+        return sourceId == BEST_SOURCE ? BEST_SOURCE_NAME : VENUES[sourceId].name();
+    }
+
+    static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private CandleDTO mapToDto(Candle candle) {
+        return new CandleDTO(candle.getSymbol(), candle.getSource(), candle.getBarInterval(), candle.getOpenTime(),
+                candle.getOpenPrice(), candle.getHighPrice(), candle.getLowPrice(), candle.getClosePrice(),
+                candle.getTickCount(), true);
+    }
+
+    private CandleDTO mapToDto(CandleBar bar, boolean complete) {
+        return new CandleDTO(symbolRegistry.symbol(bar.getSymbolId()), sourceName(bar.getSourceId()),
+                bar.getInterval().getCode(), toLocalDateTime(bar.getOpenTimeMillis()),
+                FixedPoint.toBigDecimal(bar.getOpen()), FixedPoint.toBigDecimal(bar.getHigh()),
+                FixedPoint.toBigDecimal(bar.getLow()), FixedPoint.toBigDecimal(bar.getClose()),
+                bar.getTicks(), complete);
+    }
+}
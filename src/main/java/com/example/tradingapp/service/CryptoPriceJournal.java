@@ -0,0 +1,220 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.CryptoPrice;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for CryptoPrice rows. Ingestion threads only enqueue; a dedicated writer
+ * thread drains the queue and inserts rows in JDBC batches, so a slow database never stalls
+ * the price aggregation scheduler. A batch that fails to insert is retried after a flush interval,
+ * and dropped after trading.price-journal.max-write-attempts failures in a row; records queued
+ * meanwhile wait behind it, subject to the overflow policy.
+ */
+@Component
+@Slf4j
+public class CryptoPriceJournal {
+
+    static final String INSERT_SQL = "INSERT INTO crypto_prices "
+            + "(symbol, bid_price, ask_price, timestamp, source, bid_qty, ask_qty) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * What {@link #append(CryptoPrice)} does when the queue is full.
+     */
+    public enum OverflowPolicy {
+        // Wait for the writer to make room (ingestion slows down to database speed)
+        BLOCK,
+        // Discard the record being appended
+        DROP_NEWEST,
+        // Discard the oldest queued record to make room
+        DROP_OLDEST
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.price-journal.capacity:10000}")
+    private int capacity;
+
+    @Value("${trading.price-journal.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trading.price-journal.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${trading.price-journal.overflow-policy:DROP_OLDEST}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${trading.price-journal.max-write-attempts:10}")
+    private int maxWriteAttempts;
+
+    private ArrayBlockingQueue<CryptoPrice> queue;
+    private Thread writer;
+    private volatile boolean running;
+    // Flushes of the current batch that failed; only touched by the writer
+    private int failedAttempts;
+
+    private Timer flushTimer;
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("trading.price.journal.queue.depth", queue, ArrayBlockingQueue::size)
+                .description("CryptoPrice records waiting to be written")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("trading.price.journal.flush")
+                .description("Latency of one batched insert into crypto_prices")
+                .register(meterRegistry);
+        writtenCounter = meterRegistry.counter("trading.price.journal.written");
+        droppedCounter = meterRegistry.counter("trading.price.journal.dropped");
+        failedCounter = meterRegistry.counter("trading.price.journal.failed");
+
+        running = true;
+        writer = new Thread(this::runWriter, "price-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Price journal started: capacity={}, batchSize={}, flushIntervalMs={}, overflowPolicy={}",
+                capacity, batchSize, flushIntervalMillis, overflowPolicy);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (!queue.isEmpty()) {
+            log.warn("Price journal stopped with {} unwritten records", queue.size());
+        }
+    }
+
+    /**
+     * Queues a record for insertion. Never touches the database on the calling thread.
+     *
+     * @return false if the record was dropped because the queue was full
+     */
+    public boolean append(CryptoPrice price) {
+        if (queue.offer(price)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(price);
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCounter.increment();
+                    return false;
+                }
+            case DROP_OLDEST:
+                // Another producer may take the freed slot first, so retry until this record fits
+                while (!queue.offer(price)) {
+                    if (queue.poll() != null) {
+                        droppedCounter.increment();
+                    }
+                }
+                return true;
+            default:
+                droppedCounter.increment();
+                return false;
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        List<CryptoPrice> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (!batch.isEmpty()) {
+                    // A failed batch: back off, then write it again
+                    TimeUnit.MILLISECONDS.sleep(flushIntervalMillis);
+                    flush(batch);
+                    continue;
+                }
+                CryptoPrice first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger until the batch is full or the flush interval has elapsed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    CryptoPrice next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Inserts the batch and clears it, or leaves it in place to be retried after a failure.
+     */
+    void flush(List<CryptoPrice> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, price) -> {
+                ps.setString(1, price.getSymbol());
+                ps.setBigDecimal(2, price.getBidPrice());
+                ps.setBigDecimal(3, price.getAskPrice());
+                ps.setTimestamp(4, Timestamp.valueOf(price.getTimestamp()));
+                ps.setString(5, price.getSource());
+                ps.setBigDecimal(6, price.getBidQty());
+                ps.setBigDecimal(7, price.getAskQty());
+            });
+            writtenCounter.increment(batch.size());
+            failedAttempts = 0;
+            batch.clear();
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            if (++failedAttempts < maxWriteAttempts) {
+                log.error("Error writing {} prices to crypto_prices, will retry: ", batch.size(), e);
+                return;
+            }
+            droppedCounter.increment(batch.size());
+            log.error("Error writing {} prices to crypto_prices, dropping them after {} attempts: ",
+                    batch.size(), failedAttempts, e);
+            failedAttempts = 0;
+            batch.clear();
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.tradingapp.service;
+
+/**
+ * How trade requests reach the wallet ledger ({@code trading.execution.mode}).
+ */
+public enum ExecutionMode {
+    // Each request settles on its caller's thread and inserts its own trade row
+    DIRECT,
+    // Requests go through the TradeSequencer's ring buffer and are settled and persisted in batches
+    SEQUENCED
+}
@@ -1,141 +1,243 @@
 package com.example.tradingapp.service;
 
 import com.example.tradingapp.entity.CryptoPrice;
-import com.example.tradingapp.repository.CryptoPriceRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.tradingapp.market.BinanceBookTickerStream;
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.market.ConsolidatedOrderBook;
+import com.example.tradingapp.market.IngestionMode;
+import com.example.tradingapp.market.PriceVenueClient;
+import com.example.tradingapp.market.TickLog;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.market.Venue;
+import com.example.tradingapp.market.VenueQuote;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
 public class PriceAggregationService {
 
     @Autowired
-    private CryptoPriceRepository cryptoPriceRepository;
+    private TopOfBookStore topOfBookStore;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private SymbolRegistry symbolRegistry;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private CryptoPriceJournal cryptoPriceJournal;
+
+    @Autowired
+    private PriceStreamService priceStreamService;
+
+    @Autowired
+    private CandleService candleService;
+
+    @Autowired
+    private TickLog tickLog;
+
+    @Autowired
+    private TradingMetrics tradingMetrics;
 
-    private final Map<String, CryptoPrice> bestPricesCache = new ConcurrentHashMap<>();
+    @Autowired
+    private List<PriceVenueClient> venueClients;
+
+    @Autowired
+    private BinanceBookTickerStream binanceBookTickerStream;
+
+    @Value("${trading.ingestion.mode:POLLING}")
+    private IngestionMode ingestionMode;
+
+    @Value("${trading.book.venue-ttl-ms:20000}")
+    private long venueTtlMillis;
+
+    // Venue.values() clones on every call
+    private static final Venue[] VENUES = Venue.values();
+
+    // Persisted source label for every (bid venue, ask venue) pair, e.g. "BINANCE/HUOBI"
+    private static final String[][] SOURCE_LABELS = sourceLabels();
+
+    private ConsolidatedOrderBook orderBook;
+
+    @PostConstruct
+    void init() {
+        orderBook = new ConsolidatedOrderBook(symbolRegistry.size(), VENUES.length, venueTtlMillis);
+        if (ingestionMode == IngestionMode.STREAMING) {
+            binanceBookTickerStream.start(this::onVenueQuote);
+        }
+    }
 
     // Run every 10 seconds
     @Scheduled(fixedRate = 10000)
     public void aggregatePrices() {
+        if (ingestionMode == IngestionMode.OFF || ingestionMode == IngestionMode.REPLAY) {
+            return;
+        }
         log.info("Starting price aggregation...");
 
+        long start = System.nanoTime();
         try {
-            // Fetch from Binance
-            fetchBinancePrices();
+            // All venues are queried concurrently; the cycle lasts as long as the slowest one
+            List<VenueQuote> quotes = Flux.fromIterable(venueClients)
+                    .filter(client -> !isStreamed(client.getVenue()))
+                    .flatMap(this::fetchVenue)
+                    .collectList()
+                    .block(maxVenueTimeout().plusSeconds(1));
 
-            // Fetch from Huobi
-            fetchHuobiPrices();
+            // Publish the merged cycle in one pass
+            if (quotes != null) {
+                quotes.forEach(this::onVenueQuote);
+            }
 
             log.info("Price aggregation completed");
         } catch (Exception e) {
             log.error("Error during price aggregation: ", e);
+        } finally {
+            tradingMetrics.aggregationCycle(System.nanoTime() - start);
         }
     }
 
-    private void fetchBinancePrices() {
-        try {
-            String url = "https://api.binance.com/api/v3/ticker/bookTicker";
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode jsonArray = objectMapper.readTree(response);
-
-            if (jsonArray.isArray()) {
-                for (JsonNode item : jsonArray) {
-                    String symbol = item.get("symbol").asText();
-                    if (isRelevantSymbol(symbol)) {
-                        BigDecimal bidPrice = new BigDecimal(item.get("bidPrice").asText());
-                        BigDecimal askPrice = new BigDecimal(item.get("askPrice").asText());
-
-                        processPriceData(symbol, bidPrice, askPrice, "BINANCE");
-                    }
-                }
+    private Flux<VenueQuote> fetchVenue(PriceVenueClient client) {
+        Venue venue = client.getVenue();
+        // Deferred so the clock starts at subscription, when the request is actually made
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.fetchQuotes()
+                            .timeout(client.getTimeout())
+                            .doOnNext(quotes -> tradingMetrics.venueFetched(venue,
+                                    TradingMetrics.FetchOutcome.SUCCESS, System.nanoTime() - start))
+                            .onErrorResume(e -> {
+                                tradingMetrics.venueFetched(venue, e instanceof TimeoutException
+                                                ? TradingMetrics.FetchOutcome.TIMEOUT : TradingMetrics.FetchOutcome.ERROR,
+                                        System.nanoTime() - start);
+                                // A failing venue only costs its own quotes for this cycle
+                                log.error("Error fetching {} prices: {}", venue, e.toString());
+                                return Mono.just(List.of());
+                            });
+                })
+                .flatMapIterable(quotes -> quotes);
+    }
+
+    private boolean isStreamed(Venue venue) {
+        return ingestionMode == IngestionMode.STREAMING && venue == binanceBookTickerStream.getVenue();
+    }
+
+    /**
+     * Entry point for a single venue quote, from either a polling cycle or a stream tick.
+     */
+    public void onVenueQuote(VenueQuote quote) {
+        processPriceData(quote.getSymbol(), quote.getBidPrice(), quote.getAskPrice(),
+                quote.getBidQty(), quote.getAskQty(), quote.getVenue());
+    }
+
+    /**
+     * Drops venues that have gone quiet for longer than the TTL, even if no other venue ticks.
+     */
+    @Scheduled(fixedDelayString = "${trading.book.sweep-interval-ms:1000}")
+    public synchronized void expireStaleVenues() {
+        long now = System.currentTimeMillis();
+        for (int symbolId = 0; symbolId < orderBook.getSymbolCount(); symbolId++) {
+            if (orderBook.recompute(symbolId, now)) {
+                publishBest(symbolId, true);
             }
-        } catch (Exception e) {
-            log.error("Error fetching Binance prices: ", e);
         }
     }
 
-    private void fetchHuobiPrices() {
-        try {
-            String url = "https://api.huobi.pro/market/tickers";
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode jsonResponse = objectMapper.readTree(response);
-
-            if (jsonResponse.has("data") && jsonResponse.get("data").isArray()) {
-                for (JsonNode item : jsonResponse.get("data")) {
-                    String symbol = item.get("symbol").asText().toUpperCase();
-                    if (isRelevantSymbol(symbol)) {
-                        // Huobi uses different naming convention and provides bid/ask
-                        BigDecimal bid = new BigDecimal(item.get("bid").asText());
-                        BigDecimal ask = new BigDecimal(item.get("ask").asText());
-
-                        processPriceData(symbol, bid, ask, "HUOBI");
-                    }
-                }
+    private Duration maxVenueTimeout() {
+        Duration max = Duration.ZERO;
+        for (PriceVenueClient client : venueClients) {
+            if (client.getTimeout().compareTo(max) > 0) {
+                max = client.getTimeout();
             }
-        } catch (Exception e) {
-            log.error("Error fetching Huobi prices: ", e);
         }
+        return max;
+    }
+
+    // Polling cycles, stream ticks and the expiry sweep may run concurrently
+    private synchronized void processPriceData(String symbol, long bidPrice, long askPrice,
+                                               long bidQty, long askQty, Venue venue) {
+        int symbolId = symbolRegistry.indexOf(symbol);
+        if (symbolId < 0) {
+            return;
+        }
+        tradingMetrics.quoteReceived(venue);
+        if (ingestionMode != IngestionMode.REPLAY) {
+            // Replayed quotes were captured already (or are synthetic); a tick log replay must not feed itself
+            tickLog.append(symbolId, venue.ordinal(), bidPrice, askPrice, bidQty, askQty);
+        }
+        long now = System.currentTimeMillis();
+        boolean changed = orderBook.update(symbolId, venue.ordinal(), bidPrice, askPrice, now);
+        candleService.record(symbolId, venue.ordinal(), bidPrice, askPrice, now);
+        publishBest(symbolId, changed);
     }
 
-    private void processPriceData(String symbol, BigDecimal bidPrice, BigDecimal askPrice, String source) {
-        CryptoPrice existingBestPrice = bestPricesCache.get(symbol);
-
-        // Create new price entry
-        CryptoPrice newPrice = new CryptoPrice();
-        newPrice.setSymbol(symbol);
-        newPrice.setBidPrice(bidPrice);
-        newPrice.setAskPrice(askPrice);
-        newPrice.setTimestamp(LocalDateTime.now());
-        newPrice.setSource(source);
-
-        boolean shouldUpdate = false;
-
-        if (existingBestPrice == null) {
-            // First price, always save
-            shouldUpdate = true;
-        } else {
-            // Compare bid and ask prices
-            // For BUY (ask price): lower is better for buyers
-            // For SELL (bid price): higher is better for sellers
-            int askComparison = newPrice.getAskPrice().compareTo(existingBestPrice.getAskPrice());
-            int bidComparison = newPrice.getBidPrice().compareTo(existingBestPrice.getBidPrice());
-
-            // Update if new ask is lower (better for buyers) or bid is higher (better for sellers)
-            if (askComparison < 0 || bidComparison > 0) {
-                shouldUpdate = true;
+    private void publishBest(int symbolId, boolean changed) {
+        if (!orderBook.hasQuote(symbolId)) {
+            // Every venue went quiet: the last snapshot ages out in the store on its own
+            return;
+        }
+        String symbol = symbolRegistry.symbol(symbolId);
+        long quotedAt = orderBook.getBestQuotedAtMillis(symbolId);
+        if (!changed) {
+            // Same prices re-quoted: refresh the snapshot's age now and then, but don't persist it again
+            BookQuote current = topOfBookStore.get(symbol);
+            if (current != null && quotedAt - current.getReceivedAtMillis() < topOfBookStore.getMaxQuoteAgeMillis() / 2) {
+                return;
             }
         }
 
-        if (shouldUpdate) {
-            bestPricesCache.put(symbol, newPrice);
-            cryptoPriceRepository.save(newPrice);
-            log.debug("Saved best price for {}: Bid={}, Ask={} from {}", symbol, bidPrice, askPrice, source);
+        Venue bidVenue = VENUES[orderBook.getBestBidVenue(symbolId)];
+        Venue askVenue = VENUES[orderBook.getBestAskVenue(symbolId)];
+        long bestBid = orderBook.getBestBid(symbolId);
+        long bestAsk = orderBook.getBestAsk(symbolId);
+
+        BookQuote published = topOfBookStore.publish(symbol, bestBid, bestAsk, bidVenue.name(), askVenue.name(), quotedAt);
+        if (changed) {
+            // Age refreshes are not pushed: clients only see actual price or venue changes
+            priceStreamService.publish(published);
+            tradingMetrics.bestPriceChanged();
+            candleService.record(symbolId, CandleService.BEST_SOURCE, bestBid, bestAsk, System.currentTimeMillis());
+            CryptoPrice best = new CryptoPrice();
+            best.setSymbol(symbol);
+            best.setBidPrice(FixedPoint.toBigDecimal(bestBid));
+            best.setAskPrice(FixedPoint.toBigDecimal(bestAsk));
+            best.setTimestamp(LocalDateTime.now());
+            best.setSource(SOURCE_LABELS[bidVenue.ordinal()][askVenue.ordinal()]);
+            cryptoPriceJournal.append(best);
+            log.debug("Best price for {}: Bid={} from {}, Ask={} from {}",
+                    symbol, best.getBidPrice(), bidVenue, best.getAskPrice(), askVenue);
         }
     }
 
-    private boolean isRelevantSymbol(String symbol) {
-        String upperSymbol = symbol.toUpperCase();
-        return upperSymbol.equals("ETHUSDT") || upperSymbol.equals("BTCUSDT");
+    private static String[][] sourceLabels() {
+        String[][] labels = new String[VENUES.length][VENUES.length];
+        for (Venue bid : VENUES) {
+            for (Venue ask : VENUES) {
+                labels[bid.ordinal()][ask.ordinal()] = bid == ask ? bid.name() : bid.name() + "/" + ask.name();
+            }
+        }
+        return labels;
     }
 
-    public CryptoPrice getLatestPrice(String symbol) {
-        return cryptoPriceRepository.findLatestBySymbol(symbol)
-                .orElseThrow(() -> new RuntimeException("No price data available for symbol: " + symbol));
+    public BookQuote getLatestPrice(String symbol) {
+        BookQuote quote = topOfBookStore.get(symbol);
+        if (quote == null) {
+            throw new RuntimeException("No price data available for symbol: " + symbol);
+        }
+        return quote;
     }
 
     /*
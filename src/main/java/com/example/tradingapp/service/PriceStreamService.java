@@ -0,0 +1,266 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.dto.PriceResponseDTO;
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes best-price changes to browsers over Server-Sent Events.
+ *
+ * Each change is serialized into one SSE event, shared by every subscriber. Subscribers only hold the
+ * latest pending event per symbol: a client that reads slower than prices change skips intermediate
+ * prices instead of building a backlog. A small dispatch pool drains subscribers, at most one send in
+ * flight per subscriber.
+ *
+ * A send is a blocking servlet write, so it runs on a separate writer thread while the dispatcher waits
+ * at most {@code trading.price-stream.send-timeout-ms} for it. A client whose write has not finished by
+ * then (a stalled TCP connection) is dropped, so it holds up a dispatcher for one timeout at most and
+ * other clients wait no longer than that. Its writer thread stays blocked until the socket gives up.
+ */
+@Service
+@Slf4j
+public class PriceStreamService {
+
+    // Pending-map key for the keep-alive comment, alongside the symbols
+    private static final String HEARTBEAT = "";
+
+    @Autowired
+    private TopOfBookStore topOfBookStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Browsers reconnect on their own when an emitter times out
+    @Value("${trading.price-stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${trading.price-stream.dispatch-threads:2}")
+    private int dispatchThreads;
+
+    @Value("${trading.price-stream.send-timeout-ms:5000}")
+    private long sendTimeoutMillis;
+
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+    private ExecutorService dispatcher;
+    // Runs the blocking writes; one thread per send in flight, and at most one send per subscriber
+    private ExecutorService writer;
+    private Set<DataWithMediaType> heartbeat;
+
+    private Counter sentCounter;
+    private Counter coalescedCounter;
+    private Counter evictedCounter;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "price-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger writerCount = new AtomicInteger();
+        writer = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "price-stream-writer-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = SseEmitter.event().comment("keep-alive").build();
+
+        Gauge.builder("trading.price.stream.subscribers", subscribers, Set::size)
+                .description("Open Server-Sent Events price subscriptions")
+                .register(meterRegistry);
+        sentCounter = meterRegistry.counter("trading.price.stream.sent");
+        coalescedCounter = meterRegistry.counter("trading.price.stream.coalesced");
+        evictedCounter = meterRegistry.counter("trading.price.stream.evicted");
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        writer.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * Opens a subscription. The current price of every symbol is queued first, so clients need no
+     * separate REST call to fill in their initial view.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Commits the response headers even if no symbol has a price yet
+        subscriber.pending.put(HEARTBEAT, heartbeat);
+        for (BookQuote quote : topOfBookStore.getAll()) {
+            Set<DataWithMediaType> event = toEvent(quote);
+            if (event != null) {
+                subscriber.pending.put(quote.getSymbol(), event);
+            }
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Fans a new best price out to every subscriber.
+     */
+    public void publish(BookQuote quote) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> event = toEvent(quote);
+        if (event == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.pending.put(quote.getSymbol(), event) != null) {
+                coalescedCounter.increment();
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and finds clients that went away without closing.
+     */
+    @Scheduled(fixedDelayString = "${trading.price-stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.pending.putIfAbsent(HEARTBEAT, heartbeat);
+            schedule(subscriber);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private Set<DataWithMediaType> toEvent(BookQuote quote) {
+        try {
+            String json = objectMapper.writeValueAsString(PriceResponseDTO.from(quote));
+            return SseEmitter.event()
+                    .id(Long.toString(quote.getSequence()))
+                    .name("price")
+                    .data(json)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing price for {}: ", quote.getSymbol(), e);
+            return null;
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Iterator<Map.Entry<String, Set<DataWithMediaType>>> it = subscriber.pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Set<DataWithMediaType>> entry = it.next();
+                // Remove only this exact event; a newer one put meanwhile stays for the next pass
+                if (subscriber.pending.remove(entry.getKey(), entry.getValue())) {
+                    send(subscriber, entry.getValue());
+                    sentCounter.increment();
+                }
+            }
+        } catch (ExecutionException e) {
+            // Client disconnected or emitter already completed
+            subscribers.remove(subscriber);
+            subscriber.pending.clear();
+            return;
+        } catch (TimeoutException e) {
+            evict(subscriber);
+            return;
+        } catch (InterruptedException e) {
+            // Shutting down
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Events that arrived after the pass above, with nobody scheduled to send them
+        if (!subscriber.pending.isEmpty() && subscribers.contains(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Set<DataWithMediaType> event)
+            throws ExecutionException, TimeoutException, InterruptedException {
+        Future<?> write = writer.submit(() -> {
+            subscriber.emitter.send(event);
+            return null;
+        });
+        try {
+            write.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            write.cancel(true);
+            throw e;
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.pending.clear();
+        evictedCounter.increment();
+        log.warn("Dropping a price stream subscriber whose write took longer than {}ms", sendTimeoutMillis);
+        // Waits for the stalled write to give up, since the emitter lets one thread in at a time
+        writer.execute(subscriber.emitter::complete);
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        // Latest unsent event per symbol
+        final Map<String, Set<DataWithMediaType>> pending = new ConcurrentHashMap<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.tradingapp.service;
+
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Outcome of one market-data replay: what was driven through the pipeline, how fast, and how long
+ * each step took. Latencies are exact percentiles over every sample of the run, in nanoseconds.
+ */
+@Value
+public class ReplayReport {
+
+    String source;
+    long ticks;
+    long trades;
+    long rejectedTrades;
+    long elapsedNanos;
+    // Time spent in PriceAggregationService.onVenueQuote per tick
+    Latency tickLatency;
+    // Time to execute one scripted trade, including rejected ones
+    Latency tradeLatency;
+
+    public double getTicksPerSecond() {
+        return perSecond(ticks);
+    }
+
+    public double getTradesPerSecond() {
+        return perSecond(trades + rejectedTrades);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "replay of %s: %d ticks in %.3fs (%.0f ticks/s), %d trades + %d rejected (%.0f trades/s)%n"
+                        + "  tick  latency %s%n"
+                        + "  trade latency %s",
+                source, ticks, elapsedNanos / 1e9, getTicksPerSecond(), trades, rejectedTrades,
+                getTradesPerSecond(), tickLatency, tradeLatency);
+    }
+
+    @Value
+    public static class Latency {
+        long count;
+        long p50Nanos;
+        long p90Nanos;
+        long p99Nanos;
+        long p999Nanos;
+        long maxNanos;
+
+        /**
+         * Summarizes the first {@code count} samples; the array is sorted in place.
+         */
+        public static Latency of(long[] samples, int count) {
+            if (count == 0) {
+                return new Latency(0, 0, 0, 0, 0, 0);
+            }
+            Arrays.sort(samples, 0, count);
+            return new Latency(count, rank(samples, count, 0.50), rank(samples, count, 0.90),
+                    rank(samples, count, 0.99), rank(samples, count, 0.999), samples[count - 1]);
+        }
+
+        // Nearest-rank percentile: the smallest sample at or above the given fraction of all samples
+        private static long rank(long[] sorted, int count, double fraction) {
+            int index = (int) Math.ceil(fraction * count) - 1;
+            return sorted[Math.max(0, index)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "n=%d p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                    count, p50Nanos / 1e3, p90Nanos / 1e3, p99Nanos / 1e3, p999Nanos / 1e3, maxNanos / 1e3);
+        }
+    }
+}
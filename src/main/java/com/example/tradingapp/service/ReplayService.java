@@ -0,0 +1,331 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.CryptoPrice;
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.market.IngestionMode;
+import com.example.tradingapp.market.ReplaySource;
+import com.example.tradingapp.market.SyntheticReplaySource;
+import com.example.tradingapp.market.TickLogReplaySource;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.repository.CryptoPriceRepository;
+import com.example.tradingapp.repository.UserRepository;
+import com.example.tradingapp.util.FixedPoint;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the aggregation pipeline from a {@link ReplaySource} instead of the exchanges, optionally
+ * running a scripted trade flow against the replayed prices, and reports throughput and latency.
+ *
+ * Quotes are fed to {@link PriceAggregationService#onVenueQuote} one at a time on the calling thread,
+ * and scripted trades execute between ticks, so a given source and script always produce the same
+ * sequence of prices, fills and rejections. Recorded timestamps only pace the replay: at speed 1 the
+ * original spacing is kept, at speed N it is N times faster, and at speed 0 there is no waiting at all.
+ * Replayed quotes are stamped with the wall clock as they are processed, like live ones.
+ *
+ * With {@code trading.ingestion.mode=REPLAY} the configured replay starts on its own thread once the
+ * application is ready and its report is logged.
+ */
+@Service
+@Slf4j
+public class ReplayService {
+
+    public enum Source {
+        // Seeded random walk from trading.replay.start-prices
+        SYNTHETIC,
+        // Quotes captured by the tick log under trading.tick-log.dir
+        TICK_LOG
+    }
+
+    @Autowired
+    private PriceAggregationService priceAggregationService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private TopOfBookStore topOfBookStore;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired
+    private CryptoPriceRepository cryptoPriceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${trading.ingestion.mode:POLLING}")
+    private IngestionMode ingestionMode;
+
+    @Value("${trading.execution.mode:DIRECT}")
+    private ExecutionMode executionMode;
+
+    @Value("${trading.replay.source:SYNTHETIC}")
+    private Source source;
+
+    @Value("${trading.replay.speed:0}")
+    private double speed;
+
+    @Value("${trading.replay.ticks:100000}")
+    private long syntheticTicks;
+
+    @Value("${trading.replay.seed:42}")
+    private long seed;
+
+    @Value("${trading.replay.tick-interval-ms:10}")
+    private long tickIntervalMillis;
+
+    // symbol:price pairs; symbols left out start from their latest known price
+    @Value("${trading.replay.start-prices:ETHUSDT:2500,BTCUSDT:50000}")
+    private String startPrices;
+
+    @Value("${trading.replay.script:}")
+    private String script;
+
+    @Value("${trading.replay.user:testuser}")
+    private String username;
+
+    @Value("${trading.tick-log.dir:./data/ticks}")
+    private String tickLogDirectory;
+
+    private Thread worker;
+    private volatile ReplayReport lastReport;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (ingestionMode != IngestionMode.REPLAY) {
+            return;
+        }
+        worker = new Thread(this::runConfigured, "market-replay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void runConfigured() {
+        try (ReplaySource replaySource = openSource()) {
+            List<TradeStep> steps = TradeStep.parse(script);
+            User user = steps.isEmpty() ? null : userRepository.findByUsername(username)
+                    .orElseThrow(() -> new IllegalArgumentException("Replay user not found: " + username));
+            log.info("Replaying {} market data at speed {}{}", source, speed == 0 ? "max" : speed,
+                    steps.isEmpty() ? "" : " with " + steps.size() + " scripted trade steps as " + username);
+            ReplayReport report = replay(replaySource, source.name(), speed, steps, user);
+            log.info(report.summary());
+        } catch (InterruptedException e) {
+            log.info("Market-data replay interrupted");
+        } catch (Exception e) {
+            log.error("Market-data replay failed: ", e);
+        }
+    }
+
+    private ReplaySource openSource() throws IOException {
+        if (source == Source.TICK_LOG) {
+            return new TickLogReplaySource(Paths.get(tickLogDirectory), symbolRegistry);
+        }
+        return new SyntheticReplaySource(symbolRegistry, startMids(), seed, syntheticTicks,
+                TimeUnit.MILLISECONDS.toNanos(tickIntervalMillis));
+    }
+
+    private long[] startMids() {
+        long[] mids = new long[symbolRegistry.size()];
+        if (!startPrices.isBlank()) {
+            for (String part : startPrices.split(",")) {
+                String[] fields = part.trim().split(":");
+                int symbolId = fields.length == 2 ? symbolRegistry.indexOf(fields[0].trim().toUpperCase()) : -1;
+                if (symbolId < 0) {
+                    throw new IllegalArgumentException("Invalid replay start price: " + part.trim());
+                }
+                mids[symbolId] = FixedPoint.parse(fields[1].trim());
+            }
+        }
+        for (int symbolId = 0; symbolId < mids.length; symbolId++) {
+            if (mids[symbolId] == 0) {
+                mids[symbolId] = latestMid(symbolRegistry.symbol(symbolId));
+            }
+        }
+        return mids;
+    }
+
+    // Current book if there is one, otherwise the last recorded price, like the old internal price generator
+    private long latestMid(String symbol) {
+        BookQuote quote = topOfBookStore.get(symbol);
+        if (quote != null) {
+            return (quote.getBid() + quote.getAsk()) / 2;
+        }
+        Optional<CryptoPrice> latest = cryptoPriceRepository.findLatestBySymbol(symbol);
+        if (latest.isPresent()) {
+            return (FixedPoint.fromBigDecimal(latest.get().getBidPrice())
+                    + FixedPoint.fromBigDecimal(latest.get().getAskPrice())) / 2;
+        }
+        log.warn("No price history found for symbol: {}. It is left out of the synthetic replay.", symbol);
+        return 0;
+    }
+
+    /**
+     * Feeds every quote of the source through the aggregation pipeline, running each scripted step on
+     * every tick number that is a multiple of its interval.
+     *
+     * @param speed 0 for as fast as possible, otherwise the multiple of the recorded pace
+     * @param user  trader for the scripted steps; may be null if there are none
+     */
+    public ReplayReport replay(ReplaySource replaySource, String sourceName, double speed,
+                               List<TradeStep> steps, User user) throws IOException, InterruptedException {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Replay speed must not be negative");
+        }
+        Samples tickSamples = new Samples();
+        Samples tradeSamples = new Samples();
+        long ticks = 0;
+        long trades = 0;
+        long rejected = 0;
+        long firstTimestamp = 0;
+
+        long start = System.nanoTime();
+        while (replaySource.next()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            if (speed > 0) {
+                if (ticks == 0) {
+                    firstTimestamp = replaySource.timestampNanos();
+                }
+                pace(start + (long) ((replaySource.timestampNanos() - firstTimestamp) / speed));
+            }
+
+            long tickStart = System.nanoTime();
+            priceAggregationService.onVenueQuote(replaySource.quote());
+            tickSamples.add(System.nanoTime() - tickStart);
+            ticks++;
+
+            for (TradeStep step : steps) {
+                if (ticks % step.getEveryTicks() != 0) {
+                    continue;
+                }
+                long tradeStart = System.nanoTime();
+                try {
+                    executeTrade(user, step);
+                    trades++;
+                } catch (RuntimeException e) {
+                    // Insufficient balance, stale price, full queue: part of the outcome, not a failure
+                    rejected++;
+                    log.debug("Scripted {} {} {} rejected at tick {}: {}",
+                            step.getTradeType(), step.getQuantity(), step.getSymbol(), ticks, e.getMessage());
+                }
+                tradeSamples.add(System.nanoTime() - tradeStart);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        ReplayReport report = new ReplayReport(sourceName, ticks, trades, rejected, elapsed,
+                tickSamples.summarize(), tradeSamples.summarize());
+        lastReport = report;
+        return report;
+    }
+
+    private void executeTrade(User user, TradeStep step) {
+        if (executionMode == ExecutionMode.SEQUENCED) {
+            tradeSequencer.execute(user, step.getSymbol(), step.getTradeType(), step.getQuantity());
+        } else {
+            tradeService.executeTrade(user, step.getSymbol(), step.getTradeType(), step.getQuantity());
+        }
+    }
+
+    private static void pace(long dueNanos) {
+        // parkNanos may return early; keep waiting until the tick is due
+        for (long wait = dueNanos - System.nanoTime(); wait > 0; wait = dueNanos - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * Report of the most recent replay, or null if none has finished.
+     */
+    public ReplayReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * One step of a trade script: trade {@code quantity} of {@code symbol} every {@code everyTicks} ticks.
+     */
+    @lombok.Value
+    public static class TradeStep {
+        int everyTicks;
+        String tradeType;
+        String symbol;
+        BigDecimal quantity;
+
+        /**
+         * Parses a comma-separated script of {@code every:TYPE:SYMBOL:quantity} steps,
+         * e.g. {@code 100:BUY:ETHUSDT:0.01,250:SELL:ETHUSDT:0.02}. A blank script has no steps.
+         */
+        public static List<TradeStep> parse(String script) {
+            List<TradeStep> steps = new ArrayList<>();
+            if (script == null || script.isBlank()) {
+                return steps;
+            }
+            for (String part : script.split(",")) {
+                String[] fields = part.trim().split(":");
+                try {
+                    if (fields.length != 4) {
+                        throw new IllegalArgumentException();
+                    }
+                    int every = Integer.parseInt(fields[0]);
+                    BigDecimal quantity = new BigDecimal(fields[3]);
+                    if (every < 1 || quantity.signum() <= 0) {
+                        throw new IllegalArgumentException();
+                    }
+                    steps.add(new TradeStep(every, fields[1].toUpperCase(), fields[2].toUpperCase(), quantity));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid replay step: " + part.trim()
+                            + " (expected every:BUY|SELL:SYMBOL:quantity)");
+                }
+            }
+            return steps;
+        }
+    }
+
+    // Growable buffer of raw latency samples, kept whole so the percentiles are exact
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int count;
+
+        void add(long nanos) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = nanos;
+        }
+
+        ReplayReport.Latency summarize() {
+            return ReplayReport.Latency.of(values, count);
+        }
+    }
+}
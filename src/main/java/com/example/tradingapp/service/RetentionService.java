@@ -0,0 +1,275 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.market.CandleAggregator;
+import com.example.tradingapp.market.CandleBar;
+import com.example.tradingapp.market.CandleInterval;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.util.FixedPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps crypto_prices and candles from growing without bound. Each pass, on its own thread:
+ * - raw ticks older than {@code trading.retention.raw-ticks-hours} are rolled up hour by hour into
+ *   1m/5m/1h BEST candles (unless the live candle engine already wrote that hour) and then deleted;
+ * - candles of each interval are deleted once older than that interval's retention (0 keeps them).
+ *
+ * Every delete is a separate statement of at most {@code batch-size} rows with a short pause after it,
+ * so ingestion writes never wait behind one long-running delete.
+ */
+@Component
+@Slf4j
+public class RetentionService {
+
+    private static final long HOUR_MILLIS = CandleInterval.HOUR.getMillis();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CandleService candleService;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trading.retention.interval-ms:300000}")
+    private long intervalMillis;
+
+    @Value("${trading.retention.raw-ticks-hours:24}")
+    private long rawTicksHours;
+
+    @Value("${trading.retention.candles-1s-hours:24}")
+    private long secondCandleHours;
+
+    @Value("${trading.retention.candles-1m-hours:720}")
+    private long minuteCandleHours;
+
+    @Value("${trading.retention.candles-5m-hours:4320}")
+    private long fiveMinuteCandleHours;
+
+    @Value("${trading.retention.candles-1h-hours:0}")
+    private long hourCandleHours;
+
+    @Value("${trading.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${trading.retention.batch-pause-ms:20}")
+    private long batchPauseMillis;
+
+    // Caps one pass; whatever is left over is picked up by the next one
+    @Value("${trading.retention.max-rows-per-pass:100000}")
+    private long maxRowsPerPass;
+
+    private Thread worker;
+    private volatile boolean running;
+
+    // Candles rolled up during the current pass; only touched by the pass
+    private long passRolledUp;
+
+    private Timer passTimer;
+    private Counter ticksPrunedCounter;
+    private Counter candlesPrunedCounter;
+    private Counter rolledUpCounter;
+
+    @PostConstruct
+    void start() {
+        passTimer = Timer.builder("trading.retention.pass")
+                .description("Duration of one retention pass over crypto_prices and candles")
+                .register(meterRegistry);
+        ticksPrunedCounter = meterRegistry.counter("trading.retention.pruned", "table", "crypto_prices");
+        candlesPrunedCounter = meterRegistry.counter("trading.retention.pruned", "table", "candles");
+        rolledUpCounter = meterRegistry.counter("trading.retention.rolled.up");
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::runWorker, "retention");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void runWorker() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+                runPass(System.currentTimeMillis());
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.error("Error during retention pass: ", e);
+            }
+        }
+    }
+
+    /**
+     * One bounded pass.
+     *
+     * @return rows deleted from both tables
+     */
+    long runPass(long nowMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        passRolledUp = 0;
+        long ticks = pruneRawTicks(nowMillis);
+        long candles = pruneCandles(nowMillis, maxRowsPerPass - ticks);
+        long elapsed = System.nanoTime() - start;
+        passTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (ticks > 0 || candles > 0) {
+            log.info("Retention pass pruned {} ticks and {} candles, rolled up {} candles in {} ms",
+                    ticks, candles, passRolledUp, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return ticks + candles;
+    }
+
+    private long pruneRawTicks(long nowMillis) throws InterruptedException {
+        if (rawTicksHours <= 0) {
+            return 0;
+        }
+        // Whole hours only, so a rolled-up hour candle always covers a full hour of ticks
+        long cutoff = CandleInterval.HOUR.bucketStart(nowMillis - TimeUnit.HOURS.toMillis(rawTicksHours));
+        long pruned = 0;
+        for (int symbolId = 0; symbolId < symbolRegistry.size() && pruned < maxRowsPerPass; symbolId++) {
+            String symbol = symbolRegistry.symbol(symbolId);
+            while (pruned < maxRowsPerPass) {
+                Timestamp oldest = jdbcTemplate.queryForObject(
+                        "SELECT MIN(timestamp) FROM crypto_prices WHERE symbol = ?", Timestamp.class, symbol);
+                if (oldest == null) {
+                    break;
+                }
+                long hour = CandleInterval.HOUR.bucketStart(CandleService.toEpochMillis(oldest.toLocalDateTime()));
+                if (hour + HOUR_MILLIS > cutoff) {
+                    break;
+                }
+                if (!hasHourCandle(symbol, hour)) {
+                    passRolledUp += rollUp(symbolId, hour);
+                }
+                pruned += deleteInBatches("DELETE FROM crypto_prices WHERE symbol = ? AND timestamp < ? LIMIT ?",
+                        maxRowsPerPass - pruned, symbol, timestamp(hour + HOUR_MILLIS));
+            }
+        }
+        ticksPrunedCounter.increment(pruned);
+        return pruned;
+    }
+
+    private boolean hasHourCandle(String symbol, long hour) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM candles WHERE symbol = ? AND source = ? "
+                        + "AND bar_interval = ? AND open_time = ?", Integer.class,
+                symbol, CandleService.BEST_SOURCE_NAME, CandleInterval.HOUR.getCode(), timestamp(hour));
+        return count != null && count > 0;
+    }
+
+    /**
+     * Folds one hour of a symbol's ticks into BEST candles, the same way the live engine would have.
+     */
+    private int rollUp(int symbolId, long hour) {
+        CandleAggregator aggregator = new CandleAggregator(symbolRegistry.size(), CandleService.BEST_SOURCE + 1);
+        List<CandleBar> bars = new ArrayList<>();
+        jdbcTemplate.query("SELECT bid_price, ask_price, timestamp FROM crypto_prices "
+                        + "WHERE symbol = ? AND timestamp >= ? AND timestamp < ? ORDER BY timestamp, id",
+                rs -> {
+                    long mid = (FixedPoint.fromBigDecimal(rs.getBigDecimal(1))
+                            + FixedPoint.fromBigDecimal(rs.getBigDecimal(2))) / 2;
+                    long at = CandleService.toEpochMillis(rs.getTimestamp(3).toLocalDateTime());
+                    aggregator.update(symbolId, CandleService.BEST_SOURCE, mid, at, bars::add);
+                },
+                symbolRegistry.symbol(symbolId), timestamp(hour), timestamp(hour + HOUR_MILLIS));
+        aggregator.closeExpired(hour + HOUR_MILLIS, bars::add);
+
+        // Per-second candles of an hour this old are already past their own retention
+        bars.removeIf(bar -> bar.getInterval() == CandleInterval.SECOND);
+        if (!bars.isEmpty()) {
+            candleService.write(bars);
+            rolledUpCounter.increment(bars.size());
+        }
+        return bars.size();
+    }
+
+    private long pruneCandles(long nowMillis, long budget) throws InterruptedException {
+        long pruned = 0;
+        for (CandleInterval interval : CandleInterval.values()) {
+            long hours = retentionHours(interval);
+            if (hours <= 0) {
+                continue;
+            }
+            Timestamp cutoff = timestamp(nowMillis - TimeUnit.HOURS.toMillis(hours));
+            for (int symbolId = 0; symbolId < symbolRegistry.size(); symbolId++) {
+                // One series at a time, so each delete walks the series index
+                for (int sourceId = 0; sourceId <= CandleService.BEST_SOURCE && pruned < budget; sourceId++) {
+                    pruned += deleteInBatches("DELETE FROM candles WHERE symbol = ? AND source = ? "
+                                    + "AND bar_interval = ? AND open_time < ? LIMIT ?", budget - pruned,
+                            symbolRegistry.symbol(symbolId), CandleService.sourceName(sourceId),
+                            interval.getCode(), cutoff);
+                }
+            }
+        }
+        candlesPrunedCounter.increment(pruned);
+        return pruned;
+    }
+
+    private long retentionHours(CandleInterval interval) {
+        switch (interval) {
+            case SECOND:
+                return secondCandleHours;
+            case MINUTE:
+                return minuteCandleHours;
+            case FIVE_MINUTES:
+                return fiveMinuteCandleHours;
+            default:
+                return hourCandleHours;
+        }
+    }
+
+    /**
+     * Runs a {@code ... LIMIT ?} delete until it comes back short or the budget is spent.
+     * The batch size is bound as the last parameter.
+     */
+    private long deleteInBatches(String sql, long budget, Object... args) throws InterruptedException {
+        Object[] params = new Object[args.length + 1];
+        System.arraycopy(args, 0, params, 0, args.length);
+        long deleted = 0;
+        while (deleted < budget) {
+            int limit = (int) Math.min(batchSize, budget - deleted);
+            params[args.length] = limit;
+            int count = jdbcTemplate.update(sql, params);
+            deleted += count;
+            if (count < limit) {
+                break;
+            }
+            Thread.sleep(batchPauseMillis);
+        }
+        return deleted;
+    }
+
+    private static Timestamp timestamp(long epochMillis) {
+        return Timestamp.valueOf(CandleService.toLocalDateTime(epochMillis));
+    }
+}
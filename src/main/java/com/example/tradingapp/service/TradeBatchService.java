@@ -0,0 +1,265 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.dto.TradeRequestDTO;
+import com.example.tradingapp.dto.TradeResultDTO;
+import com.example.tradingapp.entity.User;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Batch trade submission with client-supplied idempotency keys.
+ *
+ * The outcome of every keyed trade is remembered per user, so a retried batch, or a key repeated
+ * within one batch, gets the first outcome back (marked as a duplicate) instead of trading again.
+ * A retry that arrives while the first submission is still running waits for its outcome. A key sent
+ * again with a different symbol, side or quantity is rejected rather than answered with the outcome of
+ * another trade. Only the last trading.batch.idempotency-keys keys are kept, oldest dropped first,
+ * except that a key whose trade is still running is never dropped; until it finishes there may be more.
+ * Trades that FAILED (their insert was rolled back) are forgotten, so retrying them executes them;
+ * trades without a key are never deduplicated. Malformed trades are rejected before their key is
+ * remembered, so a corrected retry under the same key executes.
+ *
+ * A batch waits at most trading.sequencer.timeout-ms, for its sequenced trades and for the outcomes of
+ * keys another request is still running. A sequenced trade not started by then is dropped and rejected
+ * with TIMEOUT_MESSAGE, and its key is forgotten; a key still running elsewhere is rejected with
+ * IN_FLIGHT_MESSAGE. Either way a retry later gets the real outcome.
+ */
+@Service
+@Slf4j
+public class TradeBatchService {
+
+    static final int MAX_KEY_LENGTH = 64;
+    static final String KEY_REUSED_MESSAGE = "idempotency key reused with a different request";
+    static final String TIMEOUT_MESSAGE = "Trade was not executed in time, try again";
+    static final String IN_FLIGHT_MESSAGE = "A trade with this idempotency key is still executing, try again";
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Value("${trading.execution.mode:DIRECT}")
+    private ExecutionMode executionMode;
+
+    @Value("${trading.sequencer.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${trading.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${trading.batch.idempotency-keys:10000}")
+    private int maxKeys;
+
+    // "<userId>:<key>" -> the trade first submitted with the key, and its outcome
+    private Map<String, Submission> outcomes;
+
+    @PostConstruct
+    void init() {
+        outcomes = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Submission> eldest) {
+                // A retry of a dropped key that is still running would execute it a second time
+                Iterator<Submission> oldestFirst = values().iterator();
+                while (size() > maxKeys && oldestFirst.hasNext()) {
+                    if (oldestFirst.next().outcome.isDone()) {
+                        oldestFirst.remove();
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return one result per request, in request order
+     * @throws IllegalArgumentException if the batch is empty or larger than trading.batch.max-size
+     */
+    public List<TradeResultDTO> execute(User user, List<TradeRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch contains no trades");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch of " + requests.size() + " trades exceeds the limit of "
+                    + maxBatchSize);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        TradeResultDTO[] results = new TradeResultDTO[requests.size()];
+        List<CompletableFuture<TradeResultDTO>> earlier = new ArrayList<>(requests.size());
+        List<Integer> newIndexes = new ArrayList<>(requests.size());
+        List<Submission> newSubmissions = new ArrayList<>(requests.size());
+        synchronized (outcomes) {
+            for (int i = 0; i < requests.size(); i++) {
+                TradeRequestDTO request = requests.get(i);
+                String key = request.getIdempotencyKey();
+                Submission submission = null;
+                CompletableFuture<TradeResultDTO> outcome = null;
+                if (key != null && key.length() > MAX_KEY_LENGTH) {
+                    results[i] = TradeResultDTO.rejected(key, "idempotencyKey is longer than " + MAX_KEY_LENGTH
+                            + " characters");
+                } else if (!TradeService.isValidQuantity(request.getQuantity())) {
+                    results[i] = TradeResultDTO.rejected(key, TradeService.INVALID_QUANTITY_MESSAGE);
+                } else if (key != null && (submission = outcomes.get(cacheKey(user, key))) != null) {
+                    if (submission.matches(request)) {
+                        // Seen before: take its outcome once our own trades are done
+                        outcome = submission.outcome;
+                    } else {
+                        results[i] = TradeResultDTO.rejected(key, KEY_REUSED_MESSAGE);
+                    }
+                } else {
+                    submission = new Submission(request);
+                    if (key != null) {
+                        outcomes.put(cacheKey(user, key), submission);
+                    }
+                    newIndexes.add(i);
+                    newSubmissions.add(submission);
+                }
+                earlier.add(outcome);
+            }
+        }
+
+        List<TradeRequestDTO> newRequests = new ArrayList<>(newIndexes.size());
+        for (int index : newIndexes) {
+            newRequests.add(requests.get(index));
+        }
+        List<TradeResultDTO> executed;
+        try {
+            executed = newRequests.isEmpty() ? List.of() : run(user, newRequests, deadline);
+        } catch (RuntimeException e) {
+            log.error("Error executing a batch of {} trades: ", newRequests.size(), e);
+            executed = new ArrayList<>(newRequests.size());
+            for (TradeRequestDTO request : newRequests) {
+                executed.add(TradeResultDTO.failed(request.getIdempotencyKey(), e.getMessage()));
+            }
+        }
+
+        // Complete our own outcomes before waiting on any, since a key may repeat within this batch
+        for (int j = 0; j < newIndexes.size(); j++) {
+            TradeResultDTO result = executed.get(j);
+            results[newIndexes.get(j)] = result;
+            newSubmissions.get(j).outcome.complete(result);
+            boolean executedNothing = TradeResultDTO.FAILED.equals(result.getStatus())
+                    || TIMEOUT_MESSAGE.equals(result.getError());
+            if (executedNothing && result.getIdempotencyKey() != null) {
+                forget(user, result.getIdempotencyKey(), newSubmissions.get(j));
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (earlier.get(i) != null) {
+                results[i] = awaitEarlier(requests.get(i).getIdempotencyKey(), earlier.get(i), deadline);
+            }
+        }
+        return List.of(results);
+    }
+
+    private static TradeResultDTO awaitEarlier(String key, CompletableFuture<TradeResultDTO> outcome, long deadline) {
+        try {
+            return outcome.get(remaining(deadline), TimeUnit.NANOSECONDS).asDuplicate();
+        } catch (TimeoutException e) {
+            return TradeResultDTO.rejected(key, IN_FLIGHT_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return TradeResultDTO.rejected(key, IN_FLIGHT_MESSAGE);
+        } catch (ExecutionException e) {
+            // Outcomes are only ever completed normally
+            return TradeResultDTO.failed(key, e.getCause().getMessage());
+        }
+    }
+
+    private List<TradeResultDTO> run(User user, List<TradeRequestDTO> requests, long deadline) {
+        if (executionMode != ExecutionMode.SEQUENCED) {
+            return tradeService.executeBatch(user, requests);
+        }
+        // The sequencer stays the only writer in its mode; consecutive submissions share its batch inserts
+        List<CompletableFuture<TradeDTO>> trades = new ArrayList<>(requests.size());
+        for (TradeRequestDTO request : requests) {
+            trades.add(tradeSequencer.submit(user, request.getSymbol(), request.getType(), request.getQuantity()));
+        }
+        List<TradeResultDTO> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(await(requests.get(i).getIdempotencyKey(), trades.get(i), deadline));
+        }
+        return results;
+    }
+
+    private TradeResultDTO await(String key, CompletableFuture<TradeDTO> trade, long deadline) {
+        try {
+            return TradeResultDTO.filled(key, trade.get(remaining(deadline), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (tradeSequencer.expire(trade, TIMEOUT_MESSAGE)) {
+                return TradeResultDTO.rejected(key, TIMEOUT_MESSAGE);
+            }
+            // The sequencer took it just in time; its batch completes the future either way
+            try {
+                return TradeResultDTO.filled(key, trade.join());
+            } catch (CompletionException failure) {
+                return outcome(key, failure.getCause());
+            }
+        } catch (ExecutionException e) {
+            return outcome(key, e.getCause());
+        }
+    }
+
+    private static TradeResultDTO outcome(String key, Throwable failure) {
+        return failure instanceof IllegalArgumentException
+                ? TradeResultDTO.rejected(key, failure.getMessage())
+                : TradeResultDTO.failed(key, failure.getMessage());
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private void forget(User user, String key, Submission submission) {
+        synchronized (outcomes) {
+            outcomes.remove(cacheKey(user, key), submission);
+        }
+    }
+
+    private static String cacheKey(User user, String key) {
+        return user.getId() + ":" + key;
+    }
+
+    /**
+     * The trade first submitted under a key, completed with its outcome by the request that submitted it.
+     */
+    private static final class Submission {
+        final String symbol;
+        final String type;
+        final BigDecimal quantity;
+        final CompletableFuture<TradeResultDTO> outcome = new CompletableFuture<>();
+
+        Submission(TradeRequestDTO request) {
+            this.symbol = request.getSymbol();
+            this.type = request.getType();
+            this.quantity = request.getQuantity();
+        }
+
+        boolean matches(TradeRequestDTO request) {
+            return Objects.equals(symbol, request.getSymbol())
+                    && (type == null ? request.getType() == null : type.equalsIgnoreCase(request.getType()))
+                    && quantity.compareTo(request.getQuantity()) == 0;
+        }
+    }
+}
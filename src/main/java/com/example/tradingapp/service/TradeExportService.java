@@ -0,0 +1,235 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.User;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Full trade history dumps, streamed from a forward-only JDBC cursor straight to the output.
+ *
+ * Rows are written as they are read and never collected, so heap use does not depend on how many
+ * trades the user has; the fetch size bounds how many rows the driver buffers at a time. Against MySQL,
+ * Connector/J only honours it with {@code useCursorFetch=true} on the JDBC URL.
+ */
+@Service
+@Slf4j
+public class TradeExportService {
+
+    static final String SELECT_SQL = "SELECT id, symbol, type, quantity, price, total_amount, timestamp, status "
+            + "FROM trades WHERE user_id = ?";
+    static final String SYMBOL_FILTER = " AND symbol = ?";
+    static final String ORDER_BY = " ORDER BY timestamp, id";
+
+    static final String CSV_HEADER = "id,symbol,type,quantity,price,totalAmount,timestamp,status";
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)
+            .build();
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything but ndjson or csv, in any case
+         */
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+            }
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${trading.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Writes every trade of the user, oldest first, optionally for one symbol only.
+     * The first row is flushed as soon as it is read; after that output is buffered.
+     */
+    public void export(User user, String symbol, Format format, OutputStream out) throws IOException {
+        PreparedStatementCreator query = connection -> {
+            String sql = SELECT_SQL + (symbol == null ? "" : SYMBOL_FILTER) + ORDER_BY;
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, user.getId());
+            if (symbol != null) {
+                ps.setString(2, symbol);
+            }
+            return ps;
+        };
+
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == Format.NDJSON ? new NdjsonWriter(out) : new CsvWriter(out);
+        try {
+            jdbcTemplate.query(query, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    // Usually the client went away; stops the query instead of reading on
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Exported {} trades for user {} as {} in {}ms",
+                writer.rows, user.getId(), format, System.currentTimeMillis() - start);
+    }
+
+    private abstract static class RowWriter {
+        long rows;
+
+        final void write(ResultSet rs) throws SQLException, IOException {
+            writeRow(rs);
+            if (++rows == 1) {
+                flush();
+            }
+        }
+
+        abstract void writeRow(ResultSet rs) throws SQLException, IOException;
+
+        abstract void flush() throws IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    /**
+     * One JSON object per line, with TradeDTO's field names.
+     */
+    private static final class NdjsonWriter extends RowWriter {
+        private final JsonGenerator json;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", rs.getLong(1));
+            json.writeStringField("symbol", rs.getString(2));
+            json.writeStringField("type", rs.getString(3));
+            json.writeNumberField("quantity", rs.getBigDecimal(4));
+            json.writeNumberField("price", rs.getBigDecimal(5));
+            json.writeNumberField("totalAmount", rs.getBigDecimal(6));
+            json.writeStringField("timestamp", rs.getTimestamp(7).toLocalDateTime().toString());
+            json.writeStringField("status", rs.getString(8));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        void finish() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static final class CsvWriter extends RowWriter {
+        private final Writer csv;
+
+        CsvWriter(OutputStream out) throws IOException {
+            csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            csv.write(CSV_HEADER);
+            csv.write('\n');
+        }
+
+        @Override
+        void writeRow(ResultSet rs) throws SQLException, IOException {
+            csv.write(Long.toString(rs.getLong(1)));
+            csv.write(',');
+            writeText(rs.getString(2));
+            csv.write(',');
+            writeText(rs.getString(3));
+            csv.write(',');
+            writeDecimal(rs.getBigDecimal(4));
+            csv.write(',');
+            writeDecimal(rs.getBigDecimal(5));
+            csv.write(',');
+            writeDecimal(rs.getBigDecimal(6));
+            csv.write(',');
+            csv.write(rs.getTimestamp(7).toLocalDateTime().toString());
+            csv.write(',');
+            writeText(rs.getString(8));
+            csv.write('\n');
+        }
+
+        private void writeDecimal(BigDecimal value) throws IOException {
+            csv.write(value.toPlainString());
+        }
+
+        // RFC 4180 quoting, only when the value needs it
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+                csv.write(value);
+                return;
+            }
+            csv.write('"');
+            csv.write(value.replace("\"", "\"\""));
+            csv.write('"');
+        }
+
+        @Override
+        void flush() throws IOException {
+            csv.flush();
+        }
+
+        @Override
+        void finish() throws IOException {
+            csv.flush();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.entity.Trade;
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.TradeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer trade execution for {@code trading.execution.mode=SEQUENCED}.
+ *
+ * Callers claim a slot in a preallocated ring buffer and get a future back. One sequencer thread takes
+ * slots strictly in sequence order, prices and settles each trade against the wallet ledger, then
+ * inserts the whole batch's trade rows in one transaction before completing the futures. Trades are
+ * applied in exactly the order they were sequenced, and the ledger's locks are never contended.
+ *
+ * A full ring rejects the request instead of blocking the caller. If a batch cannot be persisted, its
+ * settlements are reversed and every future in it fails. A caller of {@link #execute} waits at most
+ * {@code trading.sequencer.timeout-ms}; a trade the sequencer has not reached by then is not executed.
+ */
+@Component
+@Slf4j
+public class TradeSequencer {
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TradingMetrics tradingMetrics;
+
+    @Value("${trading.execution.mode:DIRECT}")
+    private ExecutionMode executionMode;
+
+    // Must be a power of two
+    @Value("${trading.sequencer.capacity:1024}")
+    private int capacity;
+
+    @Value("${trading.sequencer.batch-size:64}")
+    private int batchSize;
+
+    @Value("${trading.sequencer.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private Slot[] ring;
+    private int mask;
+
+    // Highest sequence handed to a producer
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // Highest sequence the sequencer is done with; its slot and every earlier one may be reused
+    private final AtomicLong consumed = new AtomicLong(-1);
+
+    private TransactionTemplate transactionTemplate;
+    private Thread sequencer;
+    private volatile boolean running;
+    private volatile boolean idle;
+
+    private Timer batchTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void start() {
+        if (executionMode != ExecutionMode.SEQUENCED) {
+            return;
+        }
+        // Spring Boot only switches to virtual threads on a Java 21 runtime. There, requests waiting on the
+        // sequencer are woken from its platform thread, and on JDK 21.0.1 those wakeups can sit in the
+        // scheduler's queue for tens of seconds while newer work runs: trades complete but their
+        // requests don't
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            throw new IllegalStateException("trading.execution.mode=SEQUENCED does not support "
+                    + "spring.threads.virtual.enabled=true, use DIRECT execution or platform threads");
+        }
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalStateException("trading.sequencer.capacity must be a power of two: " + capacity);
+        }
+        ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+        }
+        mask = capacity - 1;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("trading.sequencer.backlog", this, s -> s.claimed.get() - s.consumed.get())
+                .description("Trades sequenced but not yet settled and persisted")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("trading.sequencer.batch")
+                .description("Latency of settling and persisting one batch of trades")
+                .register(meterRegistry);
+        rejectedCounter = meterRegistry.counter("trading.sequencer.rejected");
+
+        running = true;
+        sequencer = new Thread(this::runSequencer, "trade-sequencer");
+        sequencer.setDaemon(true);
+        sequencer.start();
+        log.info("Trade sequencer started (capacity {}, batch size {})", capacity, batchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (sequencer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(sequencer);
+        sequencer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a trade for the sequencer. The future completes on the sequencer thread, so callers
+     * should not chain blocking work onto it with the non-async stage methods.
+     */
+    public CompletableFuture<TradeDTO> submit(User user, String symbol, String tradeType, BigDecimal quantity) {
+        return enqueue(user, symbol, tradeType, quantity);
+    }
+
+    private PendingTrade enqueue(User user, String symbol, String tradeType, BigDecimal quantity) {
+        PendingTrade future = new PendingTrade();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Trade sequencer is not running"));
+            return future;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get() + 1;
+            if (sequence - capacity > consumed.get()) {
+                rejectedCounter.increment();
+                tradingMetrics.tradeRejected(TradingMetrics.Rejection.QUEUE_FULL);
+                future.completeExceptionally(new IllegalStateException("Trade queue is full, try again"));
+                return future;
+            }
+        } while (!claimed.compareAndSet(sequence - 1, sequence));
+
+        Slot slot = ring[(int) sequence & mask];
+        slot.user = user;
+        slot.symbol = symbol;
+        slot.tradeType = tradeType;
+        slot.quantity = quantity;
+        slot.future = future;
+        slot.submittedNanos = System.nanoTime();
+        // Volatile write: the fields above are visible to the sequencer once it sees this sequence
+        slot.published = sequence;
+        if (idle) {
+            LockSupport.unpark(sequencer);
+        }
+        // stop() may have come after the check above, and the sequencer may already have exited
+        if (!running && future.take()) {
+            future.completeExceptionally(new IllegalStateException("Trade sequencer is not running"));
+        }
+        return future;
+    }
+
+    /**
+     * Submits a trade and waits for it, throwing the same exceptions TradeService.executeTrade would.
+     * If the sequencer has not started on the trade within the timeout, it is dropped and this throws.
+     */
+    public TradeDTO execute(User user, String symbol, String tradeType, BigDecimal quantity) {
+        PendingTrade trade = enqueue(user, symbol, tradeType, quantity);
+        try {
+            return trade.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            String message = "Trade was not executed within " + timeoutMs + "ms, try again";
+            if (expire(trade, message)) {
+                throw new IllegalStateException(message);
+            }
+            // The sequencer took it just in time; its batch completes the future either way
+            return join(trade);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (trade.take()) {
+                IllegalStateException interrupted = new IllegalStateException("Interrupted while waiting for the trade");
+                trade.completeExceptionally(interrupted);
+                throw interrupted;
+            }
+            return join(trade);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Gives up on a trade from {@link #submit} whose caller ran out of time. Returns true if the sequencer
+     * had not started on it: it will not be executed, and its future fails with the message. Returns false
+     * if it is already executing; its future then completes with the real outcome.
+     */
+    boolean expire(CompletableFuture<TradeDTO> submitted, String message) {
+        PendingTrade trade = (PendingTrade) submitted;
+        if (!trade.take()) {
+            return false;
+        }
+        tradingMetrics.tradeRejected(TradingMetrics.Rejection.TIMEOUT);
+        trade.completeExceptionally(new IllegalStateException(message));
+        return true;
+    }
+
+    private static TradeDTO join(PendingTrade trade) {
+        try {
+            return trade.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void runSequencer() {
+        List<Slot> batch = new ArrayList<>(batchSize);
+        long next = 0;
+        while (true) {
+            Slot slot = ring[(int) next & mask];
+            if (batch.size() < batchSize && slot.published == next) {
+                batch.add(slot);
+                next++;
+                continue;
+            }
+            if (!batch.isEmpty()) {
+                process(batch);
+                for (Slot done : batch) {
+                    done.clear();
+                }
+                consumed.set(next - 1);
+                batch.clear();
+                continue;
+            }
+            // Read running before the last look at the ring: a producer whose slot that look misses reads
+            // running after publishing, sees false and fails the trade itself
+            boolean stopping = !running;
+            if (slot.published == next) {
+                continue;
+            }
+            if (stopping) {
+                break;
+            }
+            // Announce before the last check, so a producer publishing now either is seen or unparks us
+            idle = true;
+            if (slot.published != next) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            idle = false;
+        }
+    }
+
+    private void process(List<Slot> batch) {
+        long start = System.nanoTime();
+        List<Settled> settled = new ArrayList<>(batch.size());
+        for (Slot slot : batch) {
+            if (!slot.future.take()) {
+                // Its caller gave up waiting and has already failed it
+                continue;
+            }
+            try {
+                TradeService.PreparedTrade prepared = tradeService.prepare(slot.user, slot.symbol, slot.tradeType,
+                        slot.quantity);
+                tradeService.settle(slot.user, prepared, () -> null);
+                settled.add(new Settled(slot.user, prepared, slot.future, slot.submittedNanos));
+            } catch (RuntimeException e) {
+                // Rejected trades (bad symbol, stale quote, insufficient balance) don't affect the rest
+                recordTrade(TradingMetrics.side(slot.tradeType), slot.submittedNanos, e instanceof IllegalArgumentException
+                        ? TradingMetrics.Outcome.REJECTED : TradingMetrics.Outcome.FAILED);
+                slot.future.completeExceptionally(e);
+            }
+        }
+        if (!settled.isEmpty()) {
+            persist(settled);
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void persist(List<Settled> settled) {
+        List<Trade> trades = new ArrayList<>(settled.size());
+        for (Settled trade : settled) {
+            trades.add(trade.prepared.trade);
+        }
+        tradeService.stamp(trades);
+        try {
+            transactionTemplate.executeWithoutResult(status -> tradeRepository.saveAll(trades));
+        } catch (RuntimeException e) {
+            log.error("Error persisting {} sequenced trades, reversing them: ", trades.size(), e);
+            // Newest first, so each reversal sees the balances its settlement left behind
+            for (int i = settled.size() - 1; i >= 0; i--) {
+                Settled trade = settled.get(i);
+                walletLedger.reverse(trade.user, trade.prepared.debitCurrency, trade.prepared.debitAmount,
+                        trade.prepared.creditCurrency, trade.prepared.creditAmount);
+                recordTrade(trade.side(), trade.submittedNanos, TradingMetrics.Outcome.FAILED);
+                trade.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Settled trade : settled) {
+            tradeService.tradesRecorded(trade.user);
+            recordTrade(trade.side(), trade.submittedNanos, TradingMetrics.Outcome.FILLED);
+            trade.future.complete(tradeService.mapToDto(trade.prepared.trade));
+        }
+    }
+
+    // Measured from submit(), so the latency includes the wait in the ring and for the batch insert
+    private void recordTrade(TradingMetrics.Side side, long submittedNanos, TradingMetrics.Outcome outcome) {
+        tradingMetrics.tradeExecuted(TradingMetrics.Mode.SEQUENCED, side, outcome, System.nanoTime() - submittedNanos);
+    }
+
+    /**
+     * One ring buffer entry. Written by the producer that claimed its sequence, then read and cleared
+     * by the sequencer; {@code published} hands it over between the two.
+     */
+    private static final class Slot {
+        volatile long published = -1;
+        User user;
+        String symbol;
+        String tradeType;
+        BigDecimal quantity;
+        PendingTrade future;
+        long submittedNanos;
+
+        void clear() {
+            user = null;
+            symbol = null;
+            tradeType = null;
+            quantity = null;
+            future = null;
+        }
+    }
+
+    /**
+     * A sequenced trade's future. The sequencer takes it before settling the trade, a caller that stops
+     * waiting takes it to fail it; only the first of the two gets it, so a trade either executes or
+     * its caller is told it did not.
+     */
+    private static final class PendingTrade extends CompletableFuture<TradeDTO> {
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+
+    private static final class Settled {
+        final User user;
+        final TradeService.PreparedTrade prepared;
+        final CompletableFuture<TradeDTO> future;
+        final long submittedNanos;
+
+        Settled(User user, TradeService.PreparedTrade prepared, CompletableFuture<TradeDTO> future,
+                long submittedNanos) {
+            this.user = user;
+            this.prepared = prepared;
+            this.future = future;
+            this.submittedNanos = submittedNanos;
+        }
+
+        TradingMetrics.Side side() {
+            return prepared.trade.getType() == Trade.TradeType.BUY ? TradingMetrics.Side.BUY : TradingMetrics.Side.SELL;
+        }
+    }
+}
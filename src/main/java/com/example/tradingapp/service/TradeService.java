@@ -1,136 +1,329 @@
 package com.example.tradingapp.service;
 
 import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.dto.TradePageDTO;
+import com.example.tradingapp.dto.TradeRequestDTO;
+import com.example.tradingapp.dto.TradeResultDTO;
 import com.example.tradingapp.entity.Trade;
 import com.example.tradingapp.entity.User;
-import com.example.tradingapp.entity.Wallet;
 import com.example.tradingapp.repository.TradeRepository;
-import com.example.tradingapp.repository.WalletRepository;
-import com.example.tradingapp.repository.CryptoPriceRepository;
-import com.example.tradingapp.entity.CryptoPrice;
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.util.FixedPoint;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class TradeService {
 
+    static final String INVALID_QUANTITY_MESSAGE = "quantity must be greater than zero";
+
     @Autowired
     private TradeRepository tradeRepository;
 
     @Autowired
-    private WalletRepository walletRepository;
+    private WalletLedger walletLedger;
+
+    @Autowired
+    private TopOfBookStore topOfBookStore;
+
+    @Autowired
+    private SymbolRegistry symbolRegistry;
 
     @Autowired
-    private CryptoPriceRepository cryptoPriceRepository;
+    private TradingMetrics tradingMetrics;
+
+    @Value("${trading.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${trading.history.max-page-size:200}")
+    private int maxPageSize;
+
+    // User id -> number of times trades were committed for the user since startup
+    private final ConcurrentHashMap<Long, AtomicLong> historyVersions = new ConcurrentHashMap<>();
 
-    @Transactional
+    // Latest trade timestamp handed out, so a clock stepping back cannot reorder trades either
+    private final AtomicReference<LocalDateTime> lastTimestamp = new AtomicReference<>(LocalDateTime.MIN);
+
+    /**
+     * Not @Transactional: balances live in the WalletLedger, and the trade row is committed by its own
+     * save() while the ledger still holds the user's balances, so a failed insert rolls the settlement back.
+     */
     public TradeDTO executeTrade(User user, String symbol, String tradeType, BigDecimal quantity) {
-        // Validate symbol
-        if (!isValidSymbol(symbol)) {
-            throw new IllegalArgumentException("Invalid trading symbol: " + symbol);
+        long start = System.nanoTime();
+        TradingMetrics.Outcome outcome = TradingMetrics.Outcome.FAILED;
+        try {
+            PreparedTrade prepared = prepare(user, symbol, tradeType, quantity);
+            Trade savedTrade = settle(user, prepared, () -> {
+                stamp(List.of(prepared.trade));
+                return tradeRepository.save(prepared.trade);
+            });
+            tradesRecorded(user);
+            outcome = TradingMetrics.Outcome.FILLED;
+            return mapToDto(savedTrade);
+        } catch (IllegalArgumentException e) {
+            outcome = TradingMetrics.Outcome.REJECTED;
+            throw e;
+        } finally {
+            tradingMetrics.tradeExecuted(TradingMetrics.Mode.DIRECT, TradingMetrics.side(tradeType), outcome,
+                    System.nanoTime() - start);
         }
+    }
 
-        // Get latest price
-        CryptoPrice price = cryptoPriceRepository.findLatestBySymbol(symbol)
-                .orElseThrow(() -> new IllegalArgumentException("No price data available for symbol: " + symbol));
+    /**
+     * Executes several trades for one user, in order, as one unit of work. Each symbol is priced once for
+     * the whole batch, the user's balances are held throughout, and every filled trade is inserted by a
+     * single saveAll() transaction. A trade that fails validation or its balance check is rejected on its
+     * own; if the insert fails, all settled trades are reversed and reported as failed.
+     *
+     * @return one result per request, in request order
+     */
+    public List<TradeResultDTO> executeBatch(User user, List<TradeRequestDTO> requests) {
+        long start = System.nanoTime();
+        TradeResultDTO[] results = new TradeResultDTO[requests.size()];
+        Map<String, BookQuote> snapshot = new HashMap<>();
+        walletLedger.hold(user, () -> {
+            List<PreparedTrade> settled = new ArrayList<>(requests.size());
+            List<Integer> settledIndexes = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                TradeRequestDTO request = requests.get(i);
+                try {
+                    PreparedTrade prepared = prepare(user, request.getSymbol(), request.getType(),
+                            request.getQuantity(), symbol -> snapshot.computeIfAbsent(symbol, topOfBookStore::getTradable));
+                    settle(user, prepared, () -> null);
+                    settled.add(prepared);
+                    settledIndexes.add(i);
+                } catch (IllegalArgumentException e) {
+                    results[i] = TradeResultDTO.rejected(request.getIdempotencyKey(), e.getMessage());
+                    recordBatchTrade(request.getType(), start, TradingMetrics.Outcome.REJECTED);
+                } catch (RuntimeException e) {
+                    log.error("Error preparing a batched trade: ", e);
+                    results[i] = TradeResultDTO.failed(request.getIdempotencyKey(), e.getMessage());
+                    recordBatchTrade(request.getType(), start, TradingMetrics.Outcome.FAILED);
+                }
+            }
+            if (settled.isEmpty()) {
+                return null;
+            }
 
-        BigDecimal tradePrice;
-        BigDecimal totalAmount;
+            List<Trade> trades = new ArrayList<>(settled.size());
+            for (PreparedTrade prepared : settled) {
+                trades.add(prepared.trade);
+            }
+            try {
+                stamp(trades);
+                trades = tradeRepository.saveAll(trades);
+            } catch (RuntimeException e) {
+                log.error("Error persisting a batch of {} trades, reversing them: ", trades.size(), e);
+                // Newest first, so each reversal sees the balances its settlement left behind
+                for (int j = settled.size() - 1; j >= 0; j--) {
+                    PreparedTrade prepared = settled.get(j);
+                    walletLedger.reverse(user, prepared.debitCurrency, prepared.debitAmount,
+                            prepared.creditCurrency, prepared.creditAmount);
+                    TradeRequestDTO request = requests.get(settledIndexes.get(j));
+                    results[settledIndexes.get(j)] = TradeResultDTO.failed(request.getIdempotencyKey(), e.getMessage());
+                    recordBatchTrade(request.getType(), start, TradingMetrics.Outcome.FAILED);
+                }
+                return null;
+            }
+            tradesRecorded(user);
+            for (int j = 0; j < trades.size(); j++) {
+                TradeRequestDTO request = requests.get(settledIndexes.get(j));
+                results[settledIndexes.get(j)] = TradeResultDTO.filled(request.getIdempotencyKey(),
+                        mapToDto(trades.get(j)));
+                recordBatchTrade(request.getType(), start, TradingMetrics.Outcome.FILLED);
+            }
+            return null;
+        });
+        return List.of(results);
+    }
 
-        if ("BUY".equalsIgnoreCase(tradeType)) {
-            // For BUY, use ask price
-            tradePrice = price.getAskPrice();
-            totalAmount = quantity.multiply(tradePrice);
+    // Every trade in a batch is measured from the start of the batch
+    private void recordBatchTrade(String tradeType, long batchStartNanos, TradingMetrics.Outcome outcome) {
+        tradingMetrics.tradeExecuted(TradingMetrics.Mode.BATCH, TradingMetrics.side(tradeType), outcome,
+                System.nanoTime() - batchStartNanos);
+    }
 
-            // Check if user has enough USDT
-            Wallet usdtWallet = walletRepository.findByUserAndCurrency(user, "USDT")
-                    .orElseThrow(() -> new IllegalArgumentException("USDT wallet not found"));
+    /**
+     * Applies a prepared trade to the ledger, counting a refused debit as an insufficient-balance rejection.
+     */
+    <T> T settle(User user, PreparedTrade prepared, Supplier<T> recordTrade) {
+        try {
+            return walletLedger.settle(user, prepared.debitCurrency, prepared.debitAmount,
+                    prepared.creditCurrency, prepared.creditAmount, recordTrade);
+        } catch (IllegalArgumentException e) {
+            tradingMetrics.tradeRejected(TradingMetrics.Rejection.INSUFFICIENT_BALANCE);
+            throw e;
+        }
+    }
 
-            if (usdtWallet.getAvailableBalance().compareTo(totalAmount) < 0) {
-                throw new IllegalArgumentException("Insufficient USDT balance");
-            }
+    /**
+     * Timestamps trades right before they are inserted, while nothing else can insert trades for their
+     * users: inside the user's ledger lock, or on the sequencer thread. Timestamps then follow commit
+     * order, so a {@code since} cursor never passes over a trade that commits after it was taken.
+     */
+    void stamp(List<Trade> trades) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime timestamp = lastTimestamp.accumulateAndGet(now, (last, next) -> next.isAfter(last) ? next : last);
+        for (Trade trade : trades) {
+            trade.setTimestamp(timestamp);
+        }
+    }
 
-            // Deduct USDT
-            usdtWallet.setAvailableBalance(usdtWallet.getAvailableBalance().subtract(totalAmount));
-            usdtWallet.setBalance(usdtWallet.getBalance().subtract(totalAmount));
+    static boolean isValidQuantity(BigDecimal quantity) {
+        return quantity != null && quantity.signum() > 0;
+    }
 
-            // Add crypto to wallet
-            Wallet cryptoWallet = walletRepository.findByUserAndCurrency(user, extractCurrencyFromSymbol(symbol))
-                    .orElseGet(() -> createNewWallet(user, extractCurrencyFromSymbol(symbol)));
+    /**
+     * Validates a trade request and prices it against the current quote, without touching balances.
+     */
+    PreparedTrade prepare(User user, String symbol, String tradeType, BigDecimal quantity) {
+        return prepare(user, symbol, tradeType, quantity, topOfBookStore::getTradable);
+    }
 
-            cryptoWallet.setBalance(cryptoWallet.getBalance().add(quantity));
-            cryptoWallet.setAvailableBalance(cryptoWallet.getAvailableBalance().add(quantity));
+    private PreparedTrade prepare(User user, String symbol, String tradeType, BigDecimal quantity,
+                                  Function<String, BookQuote> quotes) {
+        // Validate symbol
+        int symbolId = symbolRegistry.indexOf(symbol);
+        if (symbolId < 0) {
+            tradingMetrics.tradeRejected(TradingMetrics.Rejection.INVALID_SYMBOL);
+            throw new IllegalArgumentException("Invalid trading symbol: " + symbol);
+        }
+        if (!isValidQuantity(quantity)) {
+            tradingMetrics.tradeRejected(TradingMetrics.Rejection.INVALID_QUANTITY);
+            throw new IllegalArgumentException(INVALID_QUANTITY_MESSAGE);
+        }
 
-            walletRepository.save(usdtWallet);
-            walletRepository.save(cryptoWallet);
+        // Get latest price (in-memory, rejects stale quotes)
+        BookQuote price;
+        try {
+            price = quotes.apply(symbol);
+        } catch (IllegalArgumentException e) {
+            tradingMetrics.tradeRejected(TradingMetrics.Rejection.PRICE_UNAVAILABLE);
+            throw e;
+        }
+        tradingMetrics.quoteAgeAtTrade(System.currentTimeMillis() - price.getReceivedAtMillis());
 
-        } else if ("SELL".equalsIgnoreCase(tradeType)) {
-            // For SELL, use bid price
-            tradePrice = price.getBidPrice();
-            totalAmount = quantity.multiply(tradePrice);
+        // Quote comparison, notional and balance checks all run on FixedPoint longs
+        long quantityUnits = FixedPoint.fromBigDecimal(quantity);
+        String cryptoCurrency = symbolRegistry.baseCurrency(symbolId);
+        String quoteCurrency = symbolRegistry.quoteCurrency(symbolId);
 
-            // Check if user has enough crypto
-            String cryptoCurrency = extractCurrencyFromSymbol(symbol);
-            Wallet cryptoWallet = walletRepository.findByUserAndCurrency(user, cryptoCurrency)
-                    .orElseThrow(() -> new IllegalArgumentException("Insufficient " + cryptoCurrency + " balance"));
+        if ("BUY".equalsIgnoreCase(tradeType)) {
+            // For BUY, use ask price
+            long tradePrice = price.getAsk();
+            long totalAmount = FixedPoint.multiply(quantityUnits, tradePrice);
 
-            if (cryptoWallet.getAvailableBalance().compareTo(quantity) < 0) {
-                throw new IllegalArgumentException("Insufficient " + cryptoCurrency + " balance");
+            if (!walletLedger.hasWallet(user, quoteCurrency)) {
+                tradingMetrics.tradeRejected(TradingMetrics.Rejection.NO_WALLET);
+                throw new IllegalArgumentException(quoteCurrency + " wallet not found");
             }
 
-            // Deduct crypto
-            cryptoWallet.setBalance(cryptoWallet.getBalance().subtract(quantity));
-            cryptoWallet.setAvailableBalance(cryptoWallet.getAvailableBalance().subtract(quantity));
+            // Deduct the quote currency and add crypto; the ledger throws e.g. "Insufficient USDT balance"
+            Trade tradeEntity = newTrade(user, symbol, Trade.TradeType.BUY, quantity, tradePrice, totalAmount);
+            return new PreparedTrade(tradeEntity, quoteCurrency, totalAmount, cryptoCurrency, quantityUnits);
 
-            // Add USDT to wallet
-            Wallet usdtWallet = walletRepository.findByUserAndCurrency(user, "USDT")
-                    .orElseGet(() -> createNewWallet(user, "USDT"));
-
-            usdtWallet.setBalance(usdtWallet.getBalance().add(totalAmount));
-            usdtWallet.setAvailableBalance(usdtWallet.getAvailableBalance().add(totalAmount));
+        } else if ("SELL".equalsIgnoreCase(tradeType)) {
+            // For SELL, use bid price
+            long tradePrice = price.getBid();
+            long totalAmount = FixedPoint.multiply(quantityUnits, tradePrice);
 
-            walletRepository.save(cryptoWallet);
-            walletRepository.save(usdtWallet);
+            // Deduct crypto and add the quote currency; the ledger throws "Insufficient <crypto> balance"
+            Trade tradeEntity = newTrade(user, symbol, Trade.TradeType.SELL, quantity, tradePrice, totalAmount);
+            return new PreparedTrade(tradeEntity, cryptoCurrency, quantityUnits, quoteCurrency, totalAmount);
 
         } else {
+            tradingMetrics.tradeRejected(TradingMetrics.Rejection.INVALID_TYPE);
             throw new IllegalArgumentException("Invalid trade type: " + tradeType);
         }
+    }
 
-        // Save trade record
-        Trade tradeEntity = new Trade();
-        tradeEntity.setUser(user);
-        tradeEntity.setSymbol(symbol);
-        tradeEntity.setType(Trade.TradeType.valueOf(tradeType.toUpperCase()));
-        tradeEntity.setQuantity(quantity);
-        tradeEntity.setPrice(tradePrice);
-        tradeEntity.setTotalAmount(totalAmount);
-        tradeEntity.setTimestamp(LocalDateTime.now());
-        tradeEntity.setStatus("COMPLETED");
-
-        Trade savedTrade = tradeRepository.save(tradeEntity);
-
-        return mapToDto(savedTrade);
+    /**
+     * A number that changes whenever new trades of the user become visible to getTradeHistoryPage, for
+     * cheap change detection; trades are never updated, so no page changes without it. Starts at 0 for
+     * every user when the application starts.
+     */
+    public long historyVersion(User user) {
+        AtomicLong version = historyVersions.get(user.getId());
+        return version == null ? 0 : version.get();
     }
 
-    public List<TradeDTO> getUserTradeHistory(User user) {
-        List<Trade> trades = tradeRepository.findByUserOrderByTimestampDesc(user);
-        return trades.stream().map(this::mapToDto).collect(Collectors.toList());
+    // Called once the user's new trades are committed
+    void tradesRecorded(User user) {
+        historyVersions.computeIfAbsent(user.getId(), id -> new AtomicLong()).incrementAndGet();
     }
 
-    public List<TradeDTO> getUserTradeHistoryBySymbol(User user, String symbol) {
-        List<Trade> trades = tradeRepository.findByUserAndSymbolOrderByTimestampDesc(user, symbol);
-        return trades.stream().map(this::mapToDto).collect(Collectors.toList());
+    /**
+     * One page of a user's trade history, newest first, optionally for a single symbol.
+     *
+     * With neither {@code cursor} nor {@code since} this is the latest page. {@code cursor} continues
+     * towards older trades; {@code since} returns only trades newer than that cursor, for incremental
+     * refresh. {@code limit} defaults to trading.history.default-page-size and is capped at
+     * trading.history.max-page-size.
+     */
+    public TradePageDTO getTradeHistoryPage(User user, String symbol, String cursor, String since, Integer limit) {
+        if (cursor != null && since != null) {
+            throw new IllegalArgumentException("Use either cursor or since, not both");
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        int pageSize = limit == null ? defaultPageSize : Math.min(limit, maxPageSize);
+        // One extra row tells whether another page follows, without a count query
+        Pageable page = PageRequest.ofSize(pageSize + 1);
+
+        List<TradeDTO> trades;
+        if (since != null) {
+            TradeCursor after = TradeCursor.decode(since);
+            trades = symbol == null
+                    ? tradeRepository.findAfter(user.getId(), after.timestamp, after.id, page)
+                    : tradeRepository.findAfterBySymbol(user.getId(), symbol, after.timestamp, after.id, page);
+        } else if (cursor != null) {
+            TradeCursor before = TradeCursor.decode(cursor);
+            trades = symbol == null
+                    ? tradeRepository.findBefore(user.getId(), before.timestamp, before.id, page)
+                    : tradeRepository.findBeforeBySymbol(user.getId(), symbol, before.timestamp, before.id, page);
+        } else {
+            trades = symbol == null
+                    ? tradeRepository.findLatest(user.getId(), page)
+                    : tradeRepository.findLatestBySymbol(user.getId(), symbol, page);
+        }
+        boolean hasMore = trades.size() > pageSize;
+        // Copied, since the query result may be read-only and findAfter's is reversed below
+        trades = new ArrayList<>(hasMore ? trades.subList(0, pageSize) : trades);
+
+        if (since != null) {
+            // findAfter reads oldest first
+            String latest = trades.isEmpty() ? since : TradeCursor.encode(trades.get(trades.size() - 1));
+            Collections.reverse(trades);
+            return new TradePageDTO(trades, null, latest, hasMore);
+        }
+        String next = hasMore ? TradeCursor.encode(trades.get(trades.size() - 1)) : null;
+        String latest = trades.isEmpty() ? null : TradeCursor.encode(trades.get(0));
+        return new TradePageDTO(trades, next, latest, hasMore);
     }
 
-    private TradeDTO mapToDto(Trade entity) {
+    TradeDTO mapToDto(Trade entity) {
         TradeDTO dto = new TradeDTO();
         dto.setId(entity.getId());
         dto.setSymbol(entity.getSymbol());
@@ -143,20 +336,35 @@ public class TradeService {
         return dto;
     }
 
-    private boolean isValidSymbol(String symbol) {
-        return "ETHUSDT".equalsIgnoreCase(symbol) || "BTCUSDT".equalsIgnoreCase(symbol);
-    }
-
-    private String extractCurrencyFromSymbol(String symbol) {
-        return symbol.replace("USDT", "").toUpperCase();
+    private Trade newTrade(User user, String symbol, Trade.TradeType type, BigDecimal quantity,
+                           long tradePrice, long totalAmount) {
+        Trade tradeEntity = new Trade();
+        tradeEntity.setUser(user);
+        tradeEntity.setSymbol(symbol);
+        tradeEntity.setType(type);
+        tradeEntity.setQuantity(quantity);
+        tradeEntity.setPrice(FixedPoint.toBigDecimal(tradePrice));
+        tradeEntity.setTotalAmount(FixedPoint.toBigDecimal(totalAmount));
+        tradeEntity.setStatus("COMPLETED");
+        return tradeEntity;
     }
 
-    private Wallet createNewWallet(User user, String currency) {
-        Wallet wallet = new Wallet();
-        wallet.setUser(user);
-        wallet.setCurrency(currency);
-        wallet.setBalance(BigDecimal.ZERO);
-        wallet.setAvailableBalance(BigDecimal.ZERO);
-        return wallet;
+    /**
+     * A priced trade and the two balance legs it settles, in FixedPoint units.
+     */
+    static final class PreparedTrade {
+        final Trade trade;
+        final String debitCurrency;
+        final long debitAmount;
+        final String creditCurrency;
+        final long creditAmount;
+
+        PreparedTrade(Trade trade, String debitCurrency, long debitAmount, String creditCurrency, long creditAmount) {
+            this.trade = trade;
+            this.debitCurrency = debitCurrency;
+            this.debitAmount = debitAmount;
+            this.creditCurrency = creditCurrency;
+            this.creditAmount = creditAmount;
+        }
     }
 }
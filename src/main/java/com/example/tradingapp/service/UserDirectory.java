@@ -0,0 +1,42 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users by id, read from the users table once and then served from memory, so resolving the caller
+ * of a request costs no query.
+ *
+ * Nothing in the app changes a user after creating it, so cached users never go stale. The cached
+ * instances are shared by every request and must be treated as read-only. An unknown id is not
+ * cached and is looked up again on every call.
+ */
+@Service
+public class UserDirectory {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TradingMetrics tradingMetrics;
+
+    private final ConcurrentHashMap<Long, User> users = new ConcurrentHashMap<>();
+
+    public Optional<User> findById(Long id) {
+        User user = users.get(id);
+        tradingMetrics.cacheLookup(TradingMetrics.Cache.USERS, user != null);
+        if (user != null) {
+            return Optional.of(user);
+        }
+        // Load outside the map, as WalletLedger does; a racing load of the same user is harmless
+        Optional<User> loaded = userRepository.findById(id);
+        loaded.ifPresent(found -> users.putIfAbsent(id, found));
+        return loaded;
+    }
+}
@@ -0,0 +1,478 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.entity.Wallet;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.WalletRepository;
+import com.example.tradingapp.util.FixedPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory wallet balances, the source of truth for trading once a user's wallets are loaded.
+ *
+ * Each user's balances are guarded by that user's own lock, so a trade's balance check, debit and
+ * credit happen as one step that concurrent trades for the same user observe in order, while trades
+ * for different users never share a lock. It is a ReentrantLock rather than a monitor because
+ * settle() holds it across the trade insert, and a virtual thread blocked inside synchronized would
+ * pin its carrier thread for the whole JDBC call. Changed balances are written through to the wallets table
+ * by a background writer; the table lags the ledger by at most one flush interval.
+ *
+ * Wallets are loaded lazily from the table on a user's first access, so anything that creates
+ * wallets directly (DataInitializer) must do so before the user trades.
+ *
+ * Balance change listeners are told the user id once the thread that changed the balances lets go of
+ * them: after a settle() or reverse(), or at the end of a hold() for everything done inside it, and
+ * when the writer gives a new wallet its id. They run on that thread, without the lock, so they may
+ * read the ledger again. Each account's version is bumped after its listeners have run.
+ */
+@Component
+@Slf4j
+public class WalletLedger {
+
+    static final String UPDATE_SQL = "UPDATE wallets SET balance = ?, available_balance = ? WHERE id = ?";
+    static final String INSERT_SQL = "INSERT INTO wallets (user_id, currency, balance, available_balance) "
+            + "VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TradingMetrics tradingMetrics;
+
+    @Value("${trading.wallet-ledger.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    private final ConcurrentHashMap<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    // Accounts with unwritten changes; an account is queued at most once until the writer picks it up
+    private final ConcurrentLinkedQueue<Account> dirtyAccounts = new ConcurrentLinkedQueue<>();
+
+    private final List<LongConsumer> balanceListeners = new CopyOnWriteArrayList<>();
+
+    private Thread writer;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("trading.wallet.ledger.dirty", dirtyAccounts, ConcurrentLinkedQueue::size)
+                .description("Accounts with balance changes not yet written to the wallets table")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("trading.wallet.ledger.flush")
+                .description("Latency of writing changed balances to the wallets table")
+                .register(meterRegistry);
+        writtenCounter = meterRegistry.counter("trading.wallet.ledger.written");
+        failedCounter = meterRegistry.counter("trading.wallet.ledger.failed");
+
+        running = true;
+        writer = new Thread(this::runWriter, "wallet-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (!dirtyAccounts.isEmpty()) {
+            log.warn("Wallet ledger stopped with {} accounts not written", dirtyAccounts.size());
+        }
+    }
+
+    /**
+     * Moves {@code debitAmount} out of one wallet and {@code creditAmount} into another as a single step,
+     * then runs {@code recordTrade} while the user's balances are still held. If {@code recordTrade}
+     * throws, both balances are restored and nothing is written.
+     *
+     * Amounts are FixedPoint units. The credited wallet is created if the user does not have one yet.
+     *
+     * @throws IllegalArgumentException if the debited wallet is missing or its available balance is too low
+     */
+    public <T> T settle(User user, String debitCurrency, long debitAmount, String creditCurrency, long creditAmount,
+                        Supplier<T> recordTrade) {
+        Account account = account(user);
+        account.lock.lock();
+        try {
+            Balance from = account.balances.get(debitCurrency);
+            if (from == null || from.available < debitAmount) {
+                throw new IllegalArgumentException("Insufficient " + debitCurrency + " balance");
+            }
+            Balance to = account.balances.get(creditCurrency);
+            boolean created = to == null;
+            if (created) {
+                to = new Balance(creditCurrency, null, FixedPoint.ZERO, FixedPoint.ZERO);
+            }
+
+            // Work out every new value first, so an overflow leaves nothing half-applied
+            long fromBalance = from.balance - debitAmount;
+            long fromAvailable = from.available - debitAmount;
+            long toBalance = Math.addExact(to.balance, creditAmount);
+            long toAvailable = Math.addExact(to.available, creditAmount);
+
+            long previousFromBalance = from.balance;
+            long previousFromAvailable = from.available;
+            long previousToBalance = to.balance;
+            long previousToAvailable = to.available;
+
+            from.balance = fromBalance;
+            from.available = fromAvailable;
+            to.balance = toBalance;
+            to.available = toAvailable;
+            if (created) {
+                account.balances.put(creditCurrency, to);
+            }
+
+            T result;
+            try {
+                result = recordTrade.get();
+            } catch (RuntimeException e) {
+                from.balance = previousFromBalance;
+                from.available = previousFromAvailable;
+                if (created) {
+                    account.balances.remove(creditCurrency);
+                } else {
+                    to.balance = previousToBalance;
+                    to.available = previousToAvailable;
+                }
+                throw e;
+            }
+
+            markDirty(account, from);
+            markDirty(account, to);
+            account.changed = true;
+            return result;
+        } finally {
+            release(account);
+        }
+    }
+
+    /**
+     * Undoes a settle() whose trade could not be recorded afterwards. Only valid while nothing has spent
+     * the credited amount since, as when the TradeSequencer, the only writer in its mode, reverses its
+     * own last batch. A wallet created by the settlement stays, with a zero balance.
+     */
+    void reverse(User user, String debitCurrency, long debitAmount, String creditCurrency, long creditAmount) {
+        Account account = account(user);
+        account.lock.lock();
+        try {
+            Balance from = account.balances.get(debitCurrency);
+            Balance to = account.balances.get(creditCurrency);
+            from.balance += debitAmount;
+            from.available += debitAmount;
+            to.balance -= creditAmount;
+            to.available -= creditAmount;
+            markDirty(account, from);
+            markDirty(account, to);
+            account.changed = true;
+        } finally {
+            release(account);
+        }
+    }
+
+    /**
+     * Runs {@code work} while holding the user's balances. The settle() and reverse() calls it makes for
+     * that user apply as one step: other trades and the background writer only see the final balances.
+     */
+    public <T> T hold(User user, Supplier<T> work) {
+        Account account = account(user);
+        account.lock.lock();
+        try {
+            return work.get();
+        } finally {
+            release(account);
+        }
+    }
+
+    /**
+     * Registers a listener for balance changes, called with the id of the user whose balances changed.
+     */
+    public void onBalanceChange(LongConsumer listener) {
+        balanceListeners.add(listener);
+    }
+
+    /**
+     * A number that changes whenever the user's balances or wallets change, for cheap change detection.
+     * It moves only after the balance change listeners have run, so whoever reads the new version also
+     * sees what the listeners did (WalletService's cache is already invalidated). Starts at 0 when the
+     * user's wallets are loaded.
+     */
+    public long version(User user) {
+        return account(user).version.get();
+    }
+
+    public boolean hasWallet(User user, String currency) {
+        Account account = account(user);
+        account.lock.lock();
+        try {
+            return account.balances.containsKey(currency);
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    /**
+     * Current balances as detached Wallet copies, in the order the wallets were created.
+     */
+    public List<Wallet> getWallets(User user) {
+        Account account = account(user);
+        account.lock.lock();
+        try {
+            List<Wallet> wallets = new ArrayList<>(account.balances.size());
+            for (Balance balance : account.balances.values()) {
+                wallets.add(toWallet(user, balance));
+            }
+            return wallets;
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    public Optional<Wallet> getWallet(User user, String currency) {
+        Account account = account(user);
+        account.lock.lock();
+        try {
+            Balance balance = account.balances.get(currency);
+            return balance == null ? Optional.empty() : Optional.of(toWallet(user, balance));
+        } finally {
+            account.lock.unlock();
+        }
+    }
+
+    private Account account(User user) {
+        Account account = accounts.get(user.getId());
+        tradingMetrics.cacheLookup(TradingMetrics.Cache.WALLET_LEDGER, account != null);
+        if (account != null) {
+            return account;
+        }
+        // Load outside the map so a slow query never blocks other users' lookups
+        Account loaded = new Account(user.getId());
+        for (Wallet wallet : walletRepository.findByUserId(user.getId())) {
+            loaded.balances.put(wallet.getCurrency(), new Balance(wallet.getCurrency(), wallet.getId(),
+                    wallet.getBalanceUnits(), wallet.getAvailableBalanceUnits()));
+        }
+        Account raced = accounts.putIfAbsent(user.getId(), loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    private static Wallet toWallet(User user, Balance balance) {
+        Wallet wallet = new Wallet();
+        wallet.setId(balance.walletId);
+        wallet.setUser(user);
+        wallet.setCurrency(balance.currency);
+        wallet.setBalanceUnits(balance.balance);
+        wallet.setAvailableBalanceUnits(balance.available);
+        return wallet;
+    }
+
+    // Unlocks, and notifies the listeners if this was the outermost hold and balances changed under it
+    private void release(Account account) {
+        boolean notify = account.lock.getHoldCount() == 1 && account.changed;
+        if (notify) {
+            account.changed = false;
+        }
+        account.lock.unlock();
+        if (notify) {
+            for (LongConsumer listener : balanceListeners) {
+                try {
+                    listener.accept(account.userId);
+                } catch (RuntimeException e) {
+                    // The change itself stands; a failing listener must not fail the trade that made it
+                    log.error("Balance change listener failed for user {}: ", account.userId, e);
+                }
+            }
+            account.version.incrementAndGet();
+        }
+    }
+
+    // Caller holds the account's lock
+    private void markDirty(Account account, Balance balance) {
+        balance.dirty = true;
+        if (!account.queued) {
+            account.queued = true;
+            dirtyAccounts.offer(account);
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            flush();
+        }
+        // Final write of whatever changed since the last flush
+        flush();
+    }
+
+    void flush() {
+        List<PendingWrite> updates = new ArrayList<>();
+        List<PendingWrite> inserts = new ArrayList<>();
+        Account account;
+        while ((account = dirtyAccounts.poll()) != null) {
+            account.lock.lock();
+            try {
+                account.queued = false;
+                for (Balance balance : account.balances.values()) {
+                    if (balance.dirty) {
+                        balance.dirty = false;
+                        PendingWrite write = new PendingWrite(account, balance, balance.walletId,
+                                balance.balance, balance.available);
+                        (balance.walletId == null ? inserts : updates).add(write);
+                    }
+                }
+            } finally {
+                account.lock.unlock();
+            }
+        }
+        if (updates.isEmpty() && inserts.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, write) -> {
+                    ps.setBigDecimal(1, BigDecimal.valueOf(write.balance, FixedPoint.SCALE));
+                    ps.setBigDecimal(2, BigDecimal.valueOf(write.available, FixedPoint.SCALE));
+                    ps.setLong(3, write.walletId);
+                });
+            }
+            for (PendingWrite write : inserts) {
+                insert(write);
+            }
+            writtenCounter.increment(updates.size() + inserts.size());
+        } catch (Exception e) {
+            failedCounter.increment(updates.size() + inserts.size());
+            log.error("Error writing {} wallet balances, will retry: ", updates.size() + inserts.size(), e);
+            requeue(updates);
+            requeue(inserts);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void insert(PendingWrite write) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
+            ps.setLong(1, write.account.userId);
+            ps.setString(2, write.target.currency);
+            ps.setBigDecimal(3, BigDecimal.valueOf(write.balance, FixedPoint.SCALE));
+            ps.setBigDecimal(4, BigDecimal.valueOf(write.available, FixedPoint.SCALE));
+            return ps;
+        }, keys);
+        write.account.lock.lock();
+        try {
+            write.target.walletId = keys.getKey().longValue();
+            // Readers see the wallet's id from now on
+            write.account.changed = true;
+        } finally {
+            release(write.account);
+        }
+    }
+
+    private void requeue(List<PendingWrite> writes) {
+        for (PendingWrite write : writes) {
+            write.account.lock.lock();
+            try {
+                markDirty(write.account, write.target);
+            } finally {
+                write.account.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * One user's wallets. Its lock guards every field of the account and of its balances.
+     */
+    private static final class Account {
+        final ReentrantLock lock = new ReentrantLock();
+        final long userId;
+        // Insertion order matches wallet creation order, as findByUserId returns them
+        final Map<String, Balance> balances = new LinkedHashMap<>();
+        boolean queued;
+        // Balances changed since the listeners were last told
+        boolean changed;
+        // Read without the lock, see version()
+        final AtomicLong version = new AtomicLong();
+
+        Account(long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static final class Balance {
+        final String currency;
+        // Null until the writer has inserted the row
+        Long walletId;
+        long balance;
+        long available;
+        boolean dirty;
+
+        Balance(String currency, Long walletId, long balance, long available) {
+            this.currency = currency;
+            this.walletId = walletId;
+            this.balance = balance;
+            this.available = available;
+        }
+    }
+
+    /**
+     * Balance values captured under the account's lock, written without holding it.
+     */
+    private static final class PendingWrite {
+        final Account account;
+        final Balance target;
+        final Long walletId;
+        final long balance;
+        final long available;
+
+        PendingWrite(Account account, Balance target, Long walletId, long balance, long available) {
+            this.account = account;
+            this.target = target;
+            this.walletId = walletId;
+            this.balance = balance;
+            this.available = available;
+        }
+    }
+}
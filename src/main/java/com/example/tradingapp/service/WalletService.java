@@ -3,30 +3,110 @@ package com.example.tradingapp.service;
 import com.example.tradingapp.dto.WalletDTO;
 import com.example.tradingapp.entity.Wallet;
 import com.example.tradingapp.entity.User;
-import com.example.tradingapp.repository.WalletRepository;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Wallet reads for the API, served from a per-user cache of the mapped WalletDTOs.
+ *
+ * An entry is dropped as soon as the WalletLedger reports a change to that user's balances, so a read
+ * never returns balances older than the last settled trade; between trades, polling costs one cache
+ * lookup. The cache holds at most trading.wallet-cache.max-users users, least recently used evicted
+ * first, and entries also expire trading.wallet-cache.ttl-ms after they were loaded. Hits, misses and
+ * evictions are published as the Micrometer cache meters with cache=wallets.
+ */
 @Service
 @Slf4j
 public class WalletService {
 
+    // Balances come from the ledger, which is ahead of the wallets table until its next flush
     @Autowired
-    private WalletRepository walletRepository;
+    private WalletLedger walletLedger;
 
+    @Autowired
+    private TradingMetrics tradingMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trading.wallet-cache.max-users:10000}")
+    private long maxUsers;
+
+    @Value("${trading.wallet-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    // User id -> that user's wallets as of a ledger version, unmodifiable and shared by every reader
+    private Cache<Long, Snapshot> wallets;
+
+    @PostConstruct
+    void init() {
+        wallets = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, wallets, "wallets");
+        // Runs after the ledger has released the user's balances; cached() also checks versions, this just
+        // frees the entry early
+        walletLedger.onBalanceChange(userId -> wallets.invalidate(userId));
+    }
+
+    /**
+     * The user's wallets in creation order. The list and its DTOs are shared, so callers must not modify them.
+     */
     public List<WalletDTO> getUserWallets(User user) {
-        List<Wallet> wallets = walletRepository.findByUser(user);
-        return wallets.stream().map(this::mapToDto).collect(Collectors.toList());
+        long start = System.nanoTime();
+        List<WalletDTO> dtos = cached(user);
+        tradingMetrics.walletRead(System.nanoTime() - start);
+        return dtos;
+    }
+
+    /**
+     * Changes whenever what getUserWallets returns for the user may have changed.
+     */
+    public long getWalletsVersion(User user) {
+        return walletLedger.version(user);
     }
 
     public WalletDTO getWalletByCurrency(User user, String currency) {
-        Wallet wallet = walletRepository.findByUserAndCurrency(user, currency)
+        long start = System.nanoTime();
+        WalletDTO dto = cached(user).stream()
+                .filter(wallet -> wallet.getCurrency().equals(currency))
+                .findFirst()
                 .orElseThrow(() -> new RuntimeException("Wallet not found for currency: " + currency));
-        return mapToDto(wallet);
+        tradingMetrics.walletRead(System.nanoTime() - start);
+        return dto;
+    }
+
+    // Loads outside the cache. Caffeine's get(key, loader) runs the loader inside ConcurrentHashMap.compute,
+    // holding a map bin's monitor while the load waits for the user's ledger lock; on virtual threads that
+    // pins a carrier, an invalidation of the same bin pins another, and once every carrier is pinned the
+    // ledger lock's holder never runs again. The version is read before loading, so a change racing with
+    // the load leaves an entry that is already outdated rather than one that looks current.
+    private List<WalletDTO> cached(User user) {
+        long version = walletLedger.version(user);
+        Snapshot snapshot = wallets.getIfPresent(user.getId());
+        if (snapshot != null && snapshot.version == version) {
+            return snapshot.wallets;
+        }
+        List<WalletDTO> loaded = load(user);
+        wallets.put(user.getId(), new Snapshot(version, loaded));
+        return loaded;
+    }
+
+    private List<WalletDTO> load(User user) {
+        return walletLedger.getWallets(user).stream().map(this::mapToDto).toList();
     }
 
     private WalletDTO mapToDto(Wallet entity) {
@@ -37,4 +117,14 @@ public class WalletService {
         dto.setAvailableBalance(entity.getAvailableBalance());
         return dto;
     }
+
+    private static final class Snapshot {
+        final long version;
+        final List<WalletDTO> wallets;
+
+        Snapshot(long version, List<WalletDTO> wallets) {
+            this.version = version;
+            this.wallets = wallets;
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package com.example.tradingapp.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices, quantities and balances as longs scaled by 10^8, matching the {@code precision = 18, scale = 8}
+ * columns. Comparison is plain {@code <}/{@code >} on the raw values, and nothing here allocates
+ * except the BigDecimal conversions used at the JPA and JSON boundaries.
+ *
+ * Every method treats {@link #NONE} as "no value" and never produces it from valid input.
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 8;
+    public static final long ONE = 100_000_000L;
+    public static final long ZERO = 0L;
+
+    // Sentinel for a missing value, e.g. a field absent from a ticker
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final long HALF = ONE / 2;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Exact conversion; rejects values with more than 8 decimal places or outside the long range.
+     */
+    public static long fromBigDecimal(BigDecimal value) {
+        if (value.scale() > SCALE && value.stripTrailingZeros().scale() > SCALE) {
+            throw new IllegalArgumentException("At most " + SCALE + " decimal places are supported: " + value);
+        }
+        try {
+            return value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Value out of range: " + value);
+        }
+    }
+
+    /**
+     * Converts back with trailing zeros removed, so 3000.00000000 comes out as 3000.
+     */
+    public static BigDecimal toBigDecimal(long units) {
+        if (units % ONE == 0) {
+            return BigDecimal.valueOf(units / ONE);
+        }
+        BigDecimal value = BigDecimal.valueOf(units, SCALE).stripTrailingZeros();
+        return value.scale() < 0 ? value.setScale(0) : value;
+    }
+
+    public static long fromLong(long whole) {
+        return Math.multiplyExact(whole, ONE);
+    }
+
+    public static long parse(String text) {
+        return parse(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Parses a decimal such as {@code 3481.21000000} straight from a character buffer. Digits past the
+     * 8th decimal place are rounded half-up; exponent notation falls back to BigDecimal.
+     */
+    public static long parse(char[] buf, int off, int len) {
+        int end = off + len;
+        int i = off;
+        boolean negative = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Empty number");
+        }
+
+        long whole = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        boolean seenPoint = false;
+        boolean seenDigit = false;
+        for (; i < end; i++) {
+            char c = buf[i];
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                int digit = c - '0';
+                if (!seenPoint) {
+                    whole = Math.addExact(Math.multiplyExact(whole, 10), digit);
+                } else if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + digit;
+                    fractionDigits++;
+                } else if (fractionDigits == SCALE) {
+                    roundUp = digit >= 5;
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (c == 'e' || c == 'E') {
+                return fromBigDecimal(new BigDecimal(buf, off, len).setScale(SCALE, RoundingMode.HALF_UP));
+            } else {
+                throw new NumberFormatException("Invalid character '" + c + "' in number");
+            }
+        }
+        if (!seenDigit) {
+            throw new NumberFormatException("No digits in number");
+        }
+
+        for (int d = Math.min(fractionDigits, SCALE); d < SCALE; d++) {
+            fraction *= 10;
+        }
+        long units = Math.addExact(Math.multiplyExact(whole, ONE), fraction);
+        if (roundUp) {
+            units = Math.addExact(units, 1);
+        }
+        return negative ? -units : units;
+    }
+
+    /**
+     * {@code a * b} rounded half-up to 8 decimal places. Each operand is split into its whole and
+     * fractional parts so no intermediate product exceeds a long; overflow of the result throws.
+     */
+    public static long multiply(long a, long b) {
+        boolean negative = (a < 0) != (b < 0);
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+
+        long xWhole = x / ONE;
+        long xFrac = x % ONE;
+        long yWhole = y / ONE;
+        long yFrac = y % ONE;
+
+        long result = Math.multiplyExact(Math.multiplyExact(xWhole, yWhole), ONE);
+        result = Math.addExact(result, Math.multiplyExact(xWhole, yFrac));
+        result = Math.addExact(result, Math.multiplyExact(xFrac, yWhole));
+        // Both fractions are below 10^8, so their product fits comfortably
+        result = Math.addExact(result, (xFrac * yFrac + HALF) / ONE);
+        return negative ? -result : result;
+    }
+}
@@ -1,14 +1,16 @@
 // Account Controller
-tradingApp.controller('AccountController', ['$scope', '$interval', '$rootScope', 'APIService', function($scope, $interval, $rootScope, APIService) {
+tradingApp.controller('AccountController', ['$scope', '$interval', '$rootScope', 'APIService', 'PriceStreamService', function($scope, $interval, $rootScope, APIService, PriceStreamService) {
     $scope.wallet = {holdings: []};
     $scope.tradeStats = {total: 0, buy: 0, sell: 0};
     $scope.error = null;
     $scope.lastUpdate = new Date();
     $scope.currentUser = $rootScope.currentUser;
+    var walletEtag = null;
 
     // Get price for a symbol
     $scope.getPrice = function(symbol) {
-        return $rootScope.priceMap && $rootScope.priceMap[symbol] ? $rootScope.priceMap[symbol].bid : 0;
+        var price = PriceStreamService.latest(symbol);
+        return price ? price.bid : 0;
     };
 
     // Get color for symbol
@@ -30,8 +32,9 @@ tradingApp.controller('AccountController', ['$scope', '$interval', '$rootScope',
 
     // Load account details
     $scope.loadAccount = function() {
-        APIService.getWalletBalance().then(function(response) {
+        APIService.getWalletBalance(walletEtag).then(function(response) {
             if (response.data.success) {
+                walletEtag = response.headers('ETag');
                 var wallets = response.data.data || [];
                 // Transform wallet data
                 $scope.wallet.holdings = wallets.map(function(w) {
@@ -42,17 +45,20 @@ tradingApp.controller('AccountController', ['$scope', '$interval', '$rootScope',
                     };
                 });
                 calculateTotalValues();
+                $scope.lastUpdate = new Date();
             }
         }, function(error) {
+            if (error.status === 304) return;
             $scope.error = error.data?.message || 'Failed to load wallet';
         });
     };
 
     // Load trade statistics
     $scope.loadTradeStats = function() {
-        APIService.getTradeHistory().then(function(response) {
+        // Stats over the most recent page the server allows
+        APIService.getTradeHistory({ limit: 200 }).then(function(response) {
             if (response.data.success) {
-                var trades = response.data.data || [];
+                var trades = response.data.data.trades || [];
                 $scope.tradeStats.total = trades.length;
                 $scope.tradeStats.buy = trades.filter(function(t) { return t.tradeType === 'BUY'; }).length;
                 $scope.tradeStats.sell = trades.filter(function(t) { return t.tradeType === 'SELL'; }).length;
@@ -104,15 +110,17 @@ tradingApp.controller('AccountController', ['$scope', '$interval', '$rootScope',
         }, 500);
     };
 
-    // Auto-refresh every 10 seconds
-    var autoRefresh = $interval(function() {
-        $scope.loadAccount();
+    // Prices are pushed by the server
+    $scope.$on('price', function() {
+        calculateTotalValues();
         $scope.lastUpdate = new Date();
-    }, 10000);
+    });
+
+    // Balances also move on trades placed from other tabs or API clients; an unchanged wallet costs a bodiless 304
+    var walletRefresh = $interval($scope.loadAccount, 10000);
 
-    // Cleanup on destroy
     $scope.$on('$destroy', function() {
-        if (autoRefresh) $interval.cancel(autoRefresh);
+        $interval.cancel(walletRefresh);
     });
 
     // Initial load
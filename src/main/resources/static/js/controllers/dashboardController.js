@@ -1,11 +1,12 @@
 // Dashboard Controller
-tradingApp.controller('DashboardController', ['$scope', '$interval', '$rootScope', 'APIService', function($scope, $interval, $rootScope, APIService) {
+tradingApp.controller('DashboardController', ['$scope', '$interval', '$rootScope', 'APIService', 'PriceStreamService', function($scope, $interval, $rootScope, APIService, PriceStreamService) {
     $scope.wallet = { holdings: [] };
-    $scope.latestPrices = {};
+    $scope.latestPrices = PriceStreamService.all();
     $scope.error = null;
     $scope.lastUpdate = new Date();
     $scope.refreshing = false;
     $scope.totalWalletValue = 0;
+    var walletEtag = null;
 
     // Get price for a symbol
     $scope.getPrice = function(symbol) {
@@ -24,8 +25,9 @@ tradingApp.controller('DashboardController', ['$scope', '$interval', '$rootScope
 
     // Load wallet data
     $scope.loadWallet = function() {
-        APIService.getWalletBalance().then(function(response) {
+        APIService.getWalletBalance(walletEtag).then(function(response) {
             if (response.data.success) {
+                walletEtag = response.headers('ETag');
                 var wallets = response.data.data || [];
                 // Transform backend wallet format to frontend format
                 $scope.wallet.holdings = wallets.map(function(w) {
@@ -36,36 +38,14 @@ tradingApp.controller('DashboardController', ['$scope', '$interval', '$rootScope
                     };
                 });
                 calculateTotalValue();
+                $scope.lastUpdate = new Date();
             }
         }, function(error) {
+            if (error.status === 304) return;
             $scope.error = error.data?.message || 'Failed to load wallet';
         });
     };
 
-    // Load prices
-    $scope.loadPrices = function() {
-        var symbols = ['ETHUSDT', 'BTCUSDT'];
-        symbols.forEach(function(symbol) {
-            APIService.getLatestPrice(symbol).then(function(response) {
-                if (response.data.success) {
-                    var priceData = response.data.data;
-                    // Store with both field name variants for compatibility
-                    $scope.latestPrices[symbol] = {
-                        symbol: priceData.symbol,
-                        bid: parseFloat(priceData.bidPrice) || 0,
-                        ask: parseFloat(priceData.askPrice) || 0,
-                        bidPrice: parseFloat(priceData.bidPrice) || 0,
-                        askPrice: parseFloat(priceData.askPrice) || 0
-                    };
-                    $rootScope.priceMap = $scope.latestPrices;
-                    calculateTotalValue();
-                }
-            }, function(error) {
-                console.error('Error loading price for ' + symbol + ':', error);
-            });
-        });
-    };
-
     // Calculate total wallet value
     function calculateTotalValue() {
         $scope.totalWalletValue = 0;
@@ -83,7 +63,6 @@ tradingApp.controller('DashboardController', ['$scope', '$interval', '$rootScope
     $scope.refreshWallet = function() {
         $scope.refreshing = true;
         $scope.loadWallet();
-        $scope.loadPrices();
         setTimeout(function() {
             $scope.$apply(function() {
                 $scope.refreshing = false;
@@ -91,19 +70,19 @@ tradingApp.controller('DashboardController', ['$scope', '$interval', '$rootScope
         }, 500);
     };
 
-    // Auto-refresh every 10 seconds
-    var autoRefresh = $interval(function() {
-        $scope.loadWallet();
-        $scope.loadPrices();
+    // Prices are pushed by the server
+    $scope.$on('price', function() {
+        calculateTotalValue();
         $scope.lastUpdate = new Date();
-    }, 10000);
+    });
+
+    // Balances also move on trades placed from other tabs or API clients; an unchanged wallet costs a bodiless 304
+    var walletRefresh = $interval($scope.loadWallet, 10000);
 
-    // Cleanup on destroy
     $scope.$on('$destroy', function() {
-        if (autoRefresh) $interval.cancel(autoRefresh);
+        $interval.cancel(walletRefresh);
     });
 
     // Initial load
     $scope.loadWallet();
-    $scope.loadPrices();
 }]);
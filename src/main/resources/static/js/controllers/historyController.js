@@ -6,6 +6,12 @@ tradingApp.controller('HistoryController', ['$scope', '$interval', 'APIService',
     $scope.selectedSymbol = 'All';
     $scope.loading = true;
     $scope.error = null;
+    $scope.hasMore = false;
+
+    var PAGE_SIZE = 50;
+    // nextCursor pages towards older trades; latestCursor fetches only trades made since the last load
+    var nextCursor = null;
+    var latestCursor = null;
 
     // Use names expected by the view
     $scope.sortColumn = 'timestamp';
@@ -22,10 +28,40 @@ tradingApp.controller('HistoryController', ['$scope', '$interval', 'APIService',
         $scope.loading = true;
         $scope.error = null;
 
-        APIService.getTradeHistory().then(
+        APIService.getTradeHistory({ limit: PAGE_SIZE }).then(
+            function(response) {
+                if (response.data.success) {
+                    var page = response.data.data;
+                    $scope.trades = page.trades;
+                    nextCursor = page.nextCursor;
+                    latestCursor = page.latestCursor;
+                    $scope.hasMore = page.hasMore;
+                    $scope.filterTrades();
+                } else {
+                    $scope.error = response.data.message;
+                }
+                $scope.loading = false;
+            },
+            function(error) {
+                $scope.error = 'Failed to load trade history: ' + (error.data ? error.data.message : error.statusText);
+                $scope.loading = false;
+            }
+        );
+    };
+
+    $scope.loadMoreTrades = function() {
+        if (!nextCursor) {
+            return;
+        }
+        $scope.loading = true;
+
+        APIService.getTradeHistory({ cursor: nextCursor, limit: PAGE_SIZE }).then(
             function(response) {
                 if (response.data.success) {
-                    $scope.trades = response.data.data;
+                    var page = response.data.data;
+                    $scope.trades = $scope.trades.concat(page.trades);
+                    nextCursor = page.nextCursor;
+                    $scope.hasMore = page.hasMore;
                     $scope.filterTrades();
                 } else {
                     $scope.error = response.data.message;
@@ -39,6 +75,33 @@ tradingApp.controller('HistoryController', ['$scope', '$interval', 'APIService',
         );
     };
 
+    // Prepends trades made since the last load instead of re-reading the whole history
+    $scope.refreshTrades = function() {
+        if (!latestCursor) {
+            $scope.loadTradeHistory();
+            return;
+        }
+
+        APIService.getTradeHistory({ since: latestCursor, limit: PAGE_SIZE }).then(
+            function(response) {
+                if (response.data.success) {
+                    var page = response.data.data;
+                    latestCursor = page.latestCursor;
+                    if (page.trades.length > 0) {
+                        $scope.trades = page.trades.concat($scope.trades);
+                        $scope.filterTrades();
+                    }
+                    if (page.hasMore) {
+                        $scope.refreshTrades();
+                    }
+                }
+            },
+            function(error) {
+                $scope.error = 'Failed to refresh trade history: ' + (error.data ? error.data.message : error.statusText);
+            }
+        );
+    };
+
     $scope.filterTrades = function() {
         if ($scope.selectedSymbol === 'All') {
             $scope.filteredTrades = $scope.trades;
@@ -120,9 +183,9 @@ tradingApp.controller('HistoryController', ['$scope', '$interval', 'APIService',
     // Load data on controller init
     $scope.loadTradeHistory();
 
-    // Refresh every 10 seconds
+    // Pick up new trades every 10 seconds
     var refreshInterval = $interval(function() {
-        $scope.loadTradeHistory();
+        $scope.refreshTrades();
     }, 10000);
 
     $scope.$watch('selectedSymbol', function() {
@@ -1,5 +1,5 @@
 // Trade Controller
-tradingApp.controller('TradeController', ['$scope', '$rootScope', 'APIService', function($scope, $rootScope, APIService) {
+tradingApp.controller('TradeController', ['$scope', '$rootScope', 'APIService', 'PriceStreamService', function($scope, $rootScope, APIService, PriceStreamService) {
     $scope.tradeForm = {
         type: 'BUY',
         symbol: 'ETHUSDT',
@@ -15,32 +15,21 @@ tradingApp.controller('TradeController', ['$scope', '$rootScope', 'APIService',
     $scope.loading = false;
     $scope.recentTrades = [];
 
-    // Load price for selected symbol
+    // Price for selected symbol, as last pushed by the server
     $scope.loadPrice = function() {
         if (!$scope.tradeForm.symbol) return;
 
-        APIService.getLatestPrice($scope.tradeForm.symbol).then(function(response) {
-            if (response.data.success) {
-                var priceData = response.data.data;
-                $scope.currentPrice = {
-                    symbol: priceData.symbol,
-                    bid: parseFloat(priceData.bidPrice),
-                    ask: parseFloat(priceData.askPrice),
-                    bidPrice: parseFloat(priceData.bidPrice),
-                    askPrice: parseFloat(priceData.askPrice)
-                };
-                $scope.error = null;
-            } else {
-                $scope.error = 'Price not available';
-            }
-        }, function(error) {
-            $scope.error = 'Failed to load price';
-        });
-
-        // Load available balance
-        loadAvailableBalance();
+        $scope.currentPrice = PriceStreamService.latest($scope.tradeForm.symbol);
+        $scope.calculateTotal();
     };
 
+    $scope.$on('price', function(event, price) {
+        if (price.symbol === $scope.tradeForm.symbol) {
+            $scope.currentPrice = price;
+            $scope.calculateTotal();
+        }
+    });
+
     // Load available USDT balance
     function loadAvailableBalance() {
         APIService.getWalletBalance().then(function(response) {
@@ -108,12 +97,6 @@ tradingApp.controller('TradeController', ['$scope', '$rootScope', 'APIService',
                 // Reload wallets and history
                 loadAvailableBalance();
                 loadRecentTrades();
-                // Reset price
-                setTimeout(function() {
-                    $scope.$apply(function() {
-                        $scope.loadPrice();
-                    });
-                }, 500);
             } else {
                 $scope.error = response.data.message || 'Trade execution failed';
             }
@@ -126,10 +109,9 @@ tradingApp.controller('TradeController', ['$scope', '$rootScope', 'APIService',
 
     // Load recent trades
     function loadRecentTrades() {
-        APIService.getTradeHistory().then(function(response) {
+        APIService.getTradeHistory({ limit: 5 }).then(function(response) {
             if (response.data.success) {
-                var trades = response.data.data || [];
-                $scope.recentTrades = trades.slice(0, 5);
+                $scope.recentTrades = response.data.data.trades || [];
             }
         });
     }
@@ -21,9 +21,9 @@ tradingApp.service('APIService', ['$http', '$q', function($http, $q) {
             return $http.get(apiUrl + '/price/' + symbol);
         },
 
-        // Wallet endpoints
-        getWalletBalance: function() {
-            return $http.get(apiUrl + '/wallet');
+        // Wallet endpoints; with an etag an unchanged wallet is rejected with status 304 and no body
+        getWalletBalance: function(etag) {
+            return $http.get(apiUrl + '/wallet', etag ? { headers: { 'If-None-Match': etag } } : {});
         },
 
         // Trade endpoints
@@ -31,12 +31,13 @@ tradingApp.service('APIService', ['$http', '$q', function($http, $q) {
             return $http.post(apiUrl + '/trade', tradeRequest);
         },
 
-        getTradeHistory: function() {
-            return $http.get(apiUrl + '/trades');
+        // params: {cursor, since, limit}; the response data is one page, newest first
+        getTradeHistory: function(params) {
+            return $http.get(apiUrl + '/trades', { params: params });
         },
 
-        getTradeHistoryBySymbol: function(symbol) {
-            return $http.get(apiUrl + '/trades/' + symbol);
+        getTradeHistoryBySymbol: function(symbol, params) {
+            return $http.get(apiUrl + '/trades/' + symbol, { params: params });
         }
     };
 }]);
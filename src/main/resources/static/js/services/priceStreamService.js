@@ -0,0 +1,43 @@
+// Live prices pushed by the server (Server-Sent Events), shared by every view
+tradingApp.service('PriceStreamService', ['$rootScope', function($rootScope) {
+    var source = null;
+    var prices = {};
+
+    $rootScope.priceMap = prices;
+
+    function connect() {
+        if (source || !window.EventSource) return;
+
+        // The browser reconnects on its own; the server resends current prices on every connect
+        source = new EventSource('/api/prices/stream');
+        source.addEventListener('price', function(event) {
+            var priceData = JSON.parse(event.data);
+            $rootScope.$apply(function() {
+                // Store with both field name variants for compatibility
+                prices[priceData.symbol] = {
+                    symbol: priceData.symbol,
+                    bid: parseFloat(priceData.bidPrice) || 0,
+                    ask: parseFloat(priceData.askPrice) || 0,
+                    bidPrice: parseFloat(priceData.bidPrice) || 0,
+                    askPrice: parseFloat(priceData.askPrice) || 0,
+                    timestamp: priceData.timestamp
+                };
+                $rootScope.$broadcast('price', prices[priceData.symbol]);
+            });
+        });
+    }
+
+    return {
+        connect: connect,
+
+        latest: function(symbol) {
+            connect();
+            return prices[symbol] || null;
+        },
+
+        all: function() {
+            connect();
+            return prices;
+        }
+    };
+}]);
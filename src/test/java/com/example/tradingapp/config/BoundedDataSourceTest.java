@@ -0,0 +1,62 @@
+package com.example.tradingapp.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedDataSourceTest {
+
+    private DataSource pool;
+    private BoundedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new BoundedDataSource(pool, 1, 50);
+    }
+
+    @Test
+    void testCheckoutBeyondTheLimitTimesOut() throws SQLException {
+        // Arrange
+        dataSource.getConnection();
+
+        // Act & Assert - the pool is not even asked
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    void testClosingTheConnectionReturnsItsPermitOnce() throws SQLException {
+        // Arrange
+        Connection connection = dataSource.getConnection();
+        Connection target = ((ConnectionProxy) connection).getTargetConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        verify(target, times(2)).close();
+        assertEquals(1, dataSource.availablePermits());
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void testFailedCheckoutReturnsItsPermit() throws SQLException {
+        // Arrange
+        when(pool.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.availablePermits());
+    }
+}
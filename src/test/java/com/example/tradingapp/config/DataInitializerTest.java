@@ -2,6 +2,7 @@ package com.example.tradingapp.config;
 
 import com.example.tradingapp.entity.User;
 import com.example.tradingapp.entity.Wallet;
+import com.example.tradingapp.market.SymbolRegistry;
 import com.example.tradingapp.repository.UserRepository;
 import com.example.tradingapp.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -28,6 +30,9 @@ class DataInitializerTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Spy
+    private SymbolRegistry symbolRegistry = new SymbolRegistry("ETH/USDT", "BTC/USDT");
+
     @InjectMocks
     private DataInitializer dataInitializer;
 
@@ -0,0 +1,84 @@
+package com.example.tradingapp.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradeSequenceInitializerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TradeSequenceInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        // The sequence as ddl-auto=update creates it for the high-throughput mapping
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:tradeseqtest;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE trades (id BIGINT AUTO_INCREMENT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE SEQUENCE trades_seq START WITH 1 INCREMENT BY 50");
+
+        initializer = new TradeSequenceInitializer();
+        ReflectionTestUtils.setField(initializer, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    private long nextSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR trades_seq", Long.class);
+    }
+
+    @Test
+    void testSequenceRestartsPastExistingIdentityIds() {
+        // Arrange - trades inserted without the profile
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update("INSERT INTO trades () VALUES ()");
+        }
+
+        // Act
+        initializer.skipExistingTradeIds();
+
+        // Assert - even the block of ids below the first value is free
+        assertTrue(nextSequenceValue() - TradeSequenceInitializer.ALLOCATION_SIZE >= 120);
+    }
+
+    @Test
+    void testSequenceLeftAloneWhenNoTradesOrAlreadyAhead() {
+        // Act & Assert - empty table
+        initializer.skipExistingTradeIds();
+        assertEquals(1, nextSequenceValue());
+
+        // Act & Assert - the sequence is already past the stored ids
+        jdbcTemplate.update("INSERT INTO trades (id) VALUES (1)");
+        jdbcTemplate.execute("ALTER SEQUENCE trades_seq RESTART WITH 1001");
+        initializer.skipExistingTradeIds();
+        assertEquals(1001, nextSequenceValue());
+    }
+
+    @Test
+    void testOtherDatabasesAreLeftAlone() {
+        // Arrange
+        JdbcTemplate otherDatabase = mock(JdbcTemplate.class);
+        when(otherDatabase.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        ReflectionTestUtils.setField(initializer, "jdbcTemplate", otherDatabase);
+
+        // Act
+        initializer.skipExistingTradeIds();
+
+        // Assert - none of the H2 statements were sent
+        verify(otherDatabase).execute(ArgumentMatchers.<ConnectionCallback<String>>any());
+        verifyNoMoreInteractions(otherDatabase);
+    }
+}
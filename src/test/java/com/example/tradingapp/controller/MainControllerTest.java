@@ -3,14 +3,18 @@ package com.example.tradingapp.controller;
 import com.example.tradingapp.dto.ApiResponseDTO;
 import com.example.tradingapp.dto.PriceResponseDTO;
 import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.dto.TradePageDTO;
 import com.example.tradingapp.dto.TradeRequestDTO;
+import com.example.tradingapp.dto.TradeResultDTO;
 import com.example.tradingapp.dto.WalletDTO;
-import com.example.tradingapp.entity.CryptoPrice;
 import com.example.tradingapp.entity.User;
-import com.example.tradingapp.repository.UserRepository;
+import com.example.tradingapp.market.BookQuote;
 import com.example.tradingapp.service.PriceAggregationService;
+import com.example.tradingapp.service.TradeBatchService;
 import com.example.tradingapp.service.TradeService;
+import com.example.tradingapp.service.UserDirectory;
 import com.example.tradingapp.service.WalletService;
+import com.example.tradingapp.util.FixedPoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,6 +39,9 @@ class MainControllerTest {
     @Mock
     private TradeService tradeService;
 
+    @Mock
+    private TradeBatchService tradeBatchService;
+
     @Mock
     private WalletService walletService;
 
@@ -42,13 +49,13 @@ class MainControllerTest {
     private PriceAggregationService priceAggregationService;
 
     @Mock
-    private UserRepository userRepository;
+    private UserDirectory userDirectory;
 
     @InjectMocks
     private MainController mainController;
 
     private User testUser;
-    private CryptoPrice ethPrice;
+    private BookQuote ethPrice;
 
     @BeforeEach
     void setUp() {
@@ -56,12 +63,8 @@ class MainControllerTest {
         testUser.setId(1L);
         testUser.setUsername("testuser");
 
-        ethPrice = new CryptoPrice();
-        ethPrice.setId(1L);
-        ethPrice.setSymbol("ETHUSDT");
-        ethPrice.setAskPrice(new BigDecimal("3000"));
-        ethPrice.setBidPrice(new BigDecimal("2999"));
-        ethPrice.setTimestamp(LocalDateTime.now());
+        ethPrice = new BookQuote("ETHUSDT", FixedPoint.parse("2999"), FixedPoint.parse("3000"), "BINANCE", "HUOBI",
+                LocalDateTime.now(), System.currentTimeMillis(), 1L);
     }
 
     @Test
@@ -71,7 +74,7 @@ class MainControllerTest {
                 .thenReturn(ethPrice);
 
         // Act
-        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<com.example.tradingapp.dto.PriceResponseDTO>> response = mainController.getLatestPrice("ETHUSDT");
+        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<com.example.tradingapp.dto.PriceResponseDTO>> response = mainController.getLatestPrice("ETHUSDT", null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -80,6 +83,8 @@ class MainControllerTest {
         assertEquals("ETHUSDT", response.getBody().getData().getSymbol());
         assertEquals(new BigDecimal("3000"), response.getBody().getData().getAskPrice());
         assertEquals(new BigDecimal("2999"), response.getBody().getData().getBidPrice());
+        assertEquals("BINANCE", response.getBody().getData().getBidSource());
+        assertEquals("HUOBI", response.getBody().getData().getAskSource());
 
         verify(priceAggregationService).getLatestPrice("ETHUSDT");
     }
@@ -91,7 +96,7 @@ class MainControllerTest {
                 .thenThrow(new RuntimeException("Price not found"));
 
         // Act
-        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<com.example.tradingapp.dto.PriceResponseDTO>> response = mainController.getLatestPrice("INVALID");
+        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<com.example.tradingapp.dto.PriceResponseDTO>> response = mainController.getLatestPrice("INVALID", null);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -116,7 +121,7 @@ class MainControllerTest {
         tradeDto.setPrice(new BigDecimal("3000"));
         tradeDto.setTotalAmount(new BigDecimal("3000"));
 
-        when(userRepository.findById(1L))
+        when(userDirectory.findById(1L))
                 .thenReturn(Optional.of(testUser));
         when(tradeService.executeTrade(testUser, "ETHUSDT", "BUY", new BigDecimal("1")))
                 .thenReturn(tradeDto);
@@ -131,7 +136,7 @@ class MainControllerTest {
         assertEquals("ETHUSDT", response.getBody().getData().getSymbol());
         assertEquals("BUY", response.getBody().getData().getType());
 
-        verify(userRepository).findById(1L);
+        verify(userDirectory).findById(1L);
         verify(tradeService).executeTrade(testUser, "ETHUSDT", "BUY", new BigDecimal("1"));
     }
 
@@ -143,7 +148,7 @@ class MainControllerTest {
         request.setType("BUY");
         request.setQuantity(new BigDecimal("1"));
 
-        when(userRepository.findById(1L))
+        when(userDirectory.findById(1L))
                 .thenReturn(Optional.empty());
 
         // Act
@@ -156,6 +161,46 @@ class MainControllerTest {
         assertTrue(response.getBody().getMessage().contains("User not found"));
     }
 
+    @Test
+    void testExecuteTradeBatch_ReportsFilledCount() {
+        // Arrange
+        List<TradeRequestDTO> requests = List.of(
+                new TradeRequestDTO("ETHUSDT", "BUY", new BigDecimal("1"), "order-1"),
+                new TradeRequestDTO("ETHUSDT", "BUY", new BigDecimal("100"), "order-2"));
+        when(userDirectory.findById(1L))
+                .thenReturn(Optional.of(testUser));
+        when(tradeBatchService.execute(testUser, requests))
+                .thenReturn(List.of(TradeResultDTO.filled("order-1", new TradeDTO()),
+                        TradeResultDTO.rejected("order-2", "Insufficient USDT balance")));
+
+        // Act
+        ResponseEntity<ApiResponseDTO<List<TradeResultDTO>>> response = mainController.executeTradeBatch(requests);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().isSuccess());
+        assertEquals("1 of 2 trades filled", response.getBody().getMessage());
+        assertEquals("Insufficient USDT balance", response.getBody().getData().get(1).getError());
+    }
+
+    @Test
+    void testExecuteTradeBatch_OverLimit() {
+        // Arrange
+        when(userDirectory.findById(1L))
+                .thenReturn(Optional.of(testUser));
+        when(tradeBatchService.execute(eq(testUser), anyList()))
+                .thenThrow(new IllegalArgumentException("Batch of 101 trades exceeds the limit of 100"));
+
+        // Act
+        ResponseEntity<ApiResponseDTO<List<TradeResultDTO>>> response = mainController.executeTradeBatch(List.of());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isSuccess());
+    }
+
     @Test
     void testGetWalletBalance_Success() {
         // Arrange
@@ -174,13 +219,13 @@ class MainControllerTest {
             new com.example.tradingapp.dto.WalletDTO(2L, "ETH", new BigDecimal("1.5"), new BigDecimal("1.5"))
         );
 
-        when(userRepository.findById(1L))
+        when(userDirectory.findById(1L))
                 .thenReturn(Optional.of(testUser));
         when(walletService.getUserWallets(testUser))
                 .thenReturn(wallets);
 
         // Act
-        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<List<com.example.tradingapp.dto.WalletDTO>>> response = mainController.getWalletBalance();
+        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<List<com.example.tradingapp.dto.WalletDTO>>> response = mainController.getWalletBalance(null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -190,18 +235,18 @@ class MainControllerTest {
         assertEquals("USDT", response.getBody().getData().get(0).getCurrency());
         assertEquals("ETH", response.getBody().getData().get(1).getCurrency());
 
-        verify(userRepository).findById(1L);
+        verify(userDirectory).findById(1L);
         verify(walletService).getUserWallets(testUser);
     }
 
     @Test
     void testGetWalletBalance_UserNotFound() {
         // Arrange
-        when(userRepository.findById(1L))
+        when(userDirectory.findById(1L))
                 .thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<List<com.example.tradingapp.dto.WalletDTO>>> response = mainController.getWalletBalance();
+        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<List<com.example.tradingapp.dto.WalletDTO>>> response = mainController.getWalletBalance(null);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -213,13 +258,13 @@ class MainControllerTest {
     @Test
     void testGetWalletBalance_EmptyWallets() {
         // Arrange
-        when(userRepository.findById(1L))
+        when(userDirectory.findById(1L))
                 .thenReturn(Optional.of(testUser));
         when(walletService.getUserWallets(testUser))
                 .thenReturn(List.of());
 
         // Act
-        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<List<com.example.tradingapp.dto.WalletDTO>>> response = mainController.getWalletBalance();
+        ResponseEntity<com.example.tradingapp.dto.ApiResponseDTO<List<com.example.tradingapp.dto.WalletDTO>>> response = mainController.getWalletBalance(null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -227,4 +272,80 @@ class MainControllerTest {
         assertTrue(response.getBody().isSuccess());
         assertEquals(0, response.getBody().getData().size());
     }
+
+    @Test
+    void testGetLatestPrice_NotModifiedUntilQuoteChanges() {
+        // Arrange
+        when(priceAggregationService.getLatestPrice("ETHUSDT"))
+                .thenReturn(ethPrice);
+        String etag = mainController.getLatestPrice("ETHUSDT", null).getHeaders().getETag();
+
+        // Act
+        ResponseEntity<ApiResponseDTO<PriceResponseDTO>> unchanged = mainController.getLatestPrice("ETHUSDT", etag);
+        when(priceAggregationService.getLatestPrice("ETHUSDT"))
+                .thenReturn(new BookQuote("ETHUSDT", FixedPoint.parse("2998"), FixedPoint.parse("3000"), "BINANCE",
+                        "HUOBI", LocalDateTime.now(), System.currentTimeMillis(), 2L));
+        ResponseEntity<ApiResponseDTO<PriceResponseDTO>> changed = mainController.getLatestPrice("ETHUSDT", etag);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertNull(unchanged.getBody());
+        assertEquals(etag, unchanged.getHeaders().getETag());
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+        assertEquals(new BigDecimal("2998"), changed.getBody().getData().getBidPrice());
+    }
+
+    @Test
+    void testGetWalletBalance_NotModifiedSkipsTheRead() {
+        // Arrange
+        when(userDirectory.findById(1L))
+                .thenReturn(Optional.of(testUser));
+        when(walletService.getWalletsVersion(testUser))
+                .thenReturn(3L);
+        when(walletService.getUserWallets(testUser))
+                .thenReturn(List.of());
+        String etag = mainController.getWalletBalance(null).getHeaders().getETag();
+
+        // Act
+        ResponseEntity<ApiResponseDTO<List<WalletDTO>>> response = mainController.getWalletBalance("W/" + etag);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(walletService, times(1)).getUserWallets(testUser);
+    }
+
+    @Test
+    void testGetTradeHistory_NotModifiedUntilUserTrades() {
+        // Arrange
+        when(userDirectory.findById(1L))
+                .thenReturn(Optional.of(testUser));
+        when(tradeService.historyVersion(testUser))
+                .thenReturn(5L);
+        when(tradeService.getTradeHistoryPage(testUser, null, null, null, null))
+                .thenReturn(new TradePageDTO(List.of(), null, null, false));
+        String etag = mainController.getTradeHistory(null, null, null, null).getHeaders().getETag();
+
+        // Act
+        ResponseEntity<ApiResponseDTO<TradePageDTO>> unchanged = mainController.getTradeHistory(null, null, null,
+                "\"other\", " + etag);
+        when(tradeService.historyVersion(testUser))
+                .thenReturn(6L);
+        ResponseEntity<ApiResponseDTO<TradePageDTO>> changed = mainController.getTradeHistory(null, null, null, etag);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        verify(tradeService, times(2)).getTradeHistoryPage(testUser, null, null, null, null);
+    }
+
+    @Test
+    void testNotModifiedMatching() {
+        // Act & Assert
+        assertFalse(MainController.notModified(null, "\"a\""));
+        assertFalse(MainController.notModified("\"b\"", "\"a\""));
+        assertTrue(MainController.notModified("\"b\", W/\"a\"", "\"a\""));
+        assertTrue(MainController.notModified("*", "\"a\""));
+    }
 }
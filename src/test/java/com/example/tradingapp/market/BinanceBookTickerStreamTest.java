@@ -0,0 +1,120 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinanceBookTickerStreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<VenueQuote> received = new CopyOnWriteArrayList<>();
+    private BinanceBookTickerStream stream;
+    private StubBookTickerServer server;
+
+    @BeforeEach
+    void setUp() {
+        stream = new BinanceBookTickerStream();
+        ReflectionTestUtils.setField(stream, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(stream, "symbolRegistry", new SymbolRegistry("ETH/USDT", "BTC/USDT"));
+        ReflectionTestUtils.setField(stream, "idleTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(stream, "minBackoffMillis", 50L);
+        ReflectionTestUtils.setField(stream, "maxBackoffMillis", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.stop();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private void startAgainst(StubBookTickerServer server) {
+        this.server = server;
+        ReflectionTestUtils.setField(stream, "streamUrl", server.streamUrl());
+        stream.start(received::add);
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean(), "condition not met within 5s");
+    }
+
+    @Test
+    void testSubscribesOnlyToTrackedSymbols() {
+        // Arrange
+        ReflectionTestUtils.setField(stream, "streamUrl", "wss://stream.binance.com:9443/stream");
+
+        // Act & Assert
+        assertEquals("wss://stream.binance.com:9443/stream?streams=ethusdt@bookTicker/btcusdt@bookTicker",
+                stream.subscriptionUri().toString());
+    }
+
+    @Test
+    void testTicksDeliveredAndOutOfOrderFramesDropped() throws InterruptedException {
+        // Arrange - ETH jumps 1 -> 5 (normal), then replays 4 (out of order); BNB is not tracked
+        startAgainst(new StubBookTickerServer(List.of(
+                StubBookTickerServer.frame("ETHUSDT", 1, "3000.10", "3000.20"),
+                StubBookTickerServer.frame("BTCUSDT", 7, "67000.00", "67000.50"),
+                StubBookTickerServer.frame("ETHUSDT", 5, "3000.30", "3000.40"),
+                StubBookTickerServer.frame("ETHUSDT", 4, "2999.00", "2999.10"),
+                StubBookTickerServer.frame("BNBUSDT", 9, "598.6", "598.7"),
+                StubBookTickerServer.frame("BTCUSDT", 8, "67001.00", "67001.50")),
+                Duration.ofMillis(5)));
+
+        // Act
+        await(() -> received.size() >= 4);
+
+        // Assert
+        assertEquals("ETHUSDT", received.get(0).getSymbol());
+        assertEquals(Venue.BINANCE, received.get(0).getVenue());
+        assertEquals(FixedPoint.parse("3000.30"), received.get(2).getBidPrice());
+        assertEquals(FixedPoint.parse("67001.50"), received.get(3).getAskPrice());
+        assertEquals(1.0, meterRegistry.counter("trading.stream.duplicates", "venue", "BINANCE").count());
+    }
+
+    @Test
+    void testReconnectsAfterServerClosesAndDropsReplayedTicks() throws InterruptedException {
+        // Arrange - server sends the same two frames on every connection, then hangs up
+        startAgainst(new StubBookTickerServer(List.of(
+                StubBookTickerServer.frame("ETHUSDT", 1, "3000.10", "3000.20"),
+                StubBookTickerServer.frame("ETHUSDT", 2, "3000.30", "3000.40")),
+                Duration.ofMillis(5)));
+
+        // Act
+        await(() -> server.connections() >= 3);
+
+        // Assert - replayed frames after reconnect are recognised as duplicates
+        assertEquals(2, received.size());
+        assertTrue(meterRegistry.counter("trading.stream.reconnects", "venue", "BINANCE").count() >= 2);
+        assertTrue(meterRegistry.counter("trading.stream.duplicates", "venue", "BINANCE").count() >= 2);
+    }
+
+    @Test
+    void testReconnectsWhenAnOpenConnectionGoesSilent() throws InterruptedException {
+        // Arrange - server sends one frame per connection and then nothing, without closing
+        ReflectionTestUtils.setField(stream, "idleTimeoutMillis", 200L);
+        startAgainst(new StubBookTickerServer(List.of(
+                StubBookTickerServer.frame("ETHUSDT", 1, "3000.10", "3000.20")),
+                Duration.ofMillis(5), true));
+
+        // Act
+        await(() -> server.connections() >= 3);
+
+        // Assert
+        assertEquals(1, received.size());
+        assertTrue(meterRegistry.counter("trading.stream.reconnects", "venue", "BINANCE").count() >= 2);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleAggregatorTest {
+
+    private static final int ETH = 0;
+    private static final int BTC = 1;
+    private static final int BINANCE = Venue.BINANCE.ordinal();
+    private static final int HUOBI = Venue.HUOBI.ordinal();
+
+    // 2024-01-01T00:00:00Z, on a whole hour
+    private static final long T0 = 1_704_067_200_000L;
+
+    private final CandleAggregator aggregator = new CandleAggregator(2, Venue.values().length);
+    private final List<CandleBar> completed = new ArrayList<>();
+
+    private static long units(String price) {
+        return FixedPoint.parse(price);
+    }
+
+    private void quote(int symbolId, int sourceId, String price, long atMillis) {
+        aggregator.update(symbolId, sourceId, units(price), atMillis, completed::add);
+    }
+
+    @Test
+    void testQuotesFoldIntoOpenBucket() {
+        // Act
+        quote(ETH, BINANCE, "3000", T0 + 100);
+        quote(ETH, BINANCE, "3010", T0 + 200);
+        quote(ETH, BINANCE, "2990", T0 + 300);
+        quote(ETH, BINANCE, "3005", T0 + 400);
+
+        // Assert
+        assertTrue(completed.isEmpty());
+        CandleBar bar = aggregator.getOpen(ETH, BINANCE, CandleInterval.SECOND);
+        assertEquals(T0, bar.getOpenTimeMillis());
+        assertEquals(units("3000"), bar.getOpen());
+        assertEquals(units("3010"), bar.getHigh());
+        assertEquals(units("2990"), bar.getLow());
+        assertEquals(units("3005"), bar.getClose());
+        assertEquals(4, bar.getTicks());
+    }
+
+    @Test
+    void testNextBucketCompletesOnlyTheIntervalsItCrosses() {
+        // Arrange
+        quote(ETH, BINANCE, "3000", T0 + 100);
+        quote(ETH, BINANCE, "3010", T0 + 900);
+
+        // Act - next second, same minute
+        quote(ETH, BINANCE, "3020", T0 + 1_500);
+
+        // Assert
+        assertEquals(1, completed.size());
+        CandleBar second = completed.get(0);
+        assertEquals(CandleInterval.SECOND, second.getInterval());
+        assertEquals(T0, second.getOpenTimeMillis());
+        assertEquals(units("3010"), second.getClose());
+        assertEquals(2, second.getTicks());
+
+        CandleBar minute = aggregator.getOpen(ETH, BINANCE, CandleInterval.MINUTE);
+        assertEquals(units("3000"), minute.getOpen());
+        assertEquals(units("3020"), minute.getHigh());
+        assertEquals(3, minute.getTicks());
+    }
+
+    @Test
+    void testSeriesAreIndependent() {
+        // Act
+        quote(ETH, BINANCE, "3000", T0);
+        quote(ETH, HUOBI, "2999", T0);
+        quote(BTC, BINANCE, "50000", T0);
+
+        // Assert
+        assertEquals(units("3000"), aggregator.getOpen(ETH, BINANCE, CandleInterval.HOUR).getClose());
+        assertEquals(units("2999"), aggregator.getOpen(ETH, HUOBI, CandleInterval.HOUR).getClose());
+        assertEquals(units("50000"), aggregator.getOpen(BTC, BINANCE, CandleInterval.HOUR).getClose());
+        assertNull(aggregator.getOpen(BTC, HUOBI, CandleInterval.HOUR));
+    }
+
+    @Test
+    void testCloseExpired_QuietSourceStillCompletes() {
+        // Arrange
+        quote(ETH, HUOBI, "3000", T0 + 59_000);
+
+        // Act - no further quotes, sweep at the start of the next minute
+        aggregator.closeExpired(T0 + 60_000, completed::add);
+
+        // Assert
+        assertEquals(2, completed.size());
+        assertEquals(CandleInterval.SECOND, completed.get(0).getInterval());
+        assertEquals(T0 + 59_000, completed.get(0).getOpenTimeMillis());
+        assertEquals(CandleInterval.MINUTE, completed.get(1).getInterval());
+        assertNull(aggregator.getOpen(ETH, HUOBI, CandleInterval.MINUTE));
+        assertNotNull(aggregator.getOpen(ETH, HUOBI, CandleInterval.FIVE_MINUTES));
+    }
+
+    @Test
+    void testClockStepBackKeepsOpenBucket() {
+        // Act
+        quote(ETH, BINANCE, "3000", T0 + 5_000);
+        quote(ETH, BINANCE, "3001", T0 + 3_000);
+
+        // Assert
+        assertTrue(completed.isEmpty());
+        CandleBar bar = aggregator.getOpen(ETH, BINANCE, CandleInterval.SECOND);
+        assertEquals(T0 + 5_000, bar.getOpenTimeMillis());
+        assertEquals(2, bar.getTicks());
+    }
+
+    @Test
+    void testFromCode() {
+        assertEquals(CandleInterval.FIVE_MINUTES, CandleInterval.fromCode("5m"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CandleInterval.fromCode("2m"));
+        assertEquals("Unsupported candle interval: 2m", e.getMessage());
+    }
+}
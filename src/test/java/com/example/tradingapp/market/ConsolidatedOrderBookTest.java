@@ -0,0 +1,84 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsolidatedOrderBookTest {
+
+    private static final int ETH = 0;
+    private static final int BINANCE = Venue.BINANCE.ordinal();
+    private static final int HUOBI = Venue.HUOBI.ordinal();
+
+    private final ConsolidatedOrderBook book = new ConsolidatedOrderBook(2, Venue.values().length, 1000);
+
+    private static long units(String price) {
+        return FixedPoint.parse(price);
+    }
+
+    @Test
+    void testBestBidAndAskChosenPerSide() {
+        // Act - Binance has the better bid, Huobi the better ask
+        book.update(ETH, BINANCE, units("2999"), units("3002"), 100);
+        boolean changed = book.update(ETH, HUOBI, units("2998"), units("3000"), 100);
+
+        // Assert
+        assertTrue(changed);
+        assertEquals(units("2999"), book.getBestBid(ETH));
+        assertEquals(BINANCE, book.getBestBidVenue(ETH));
+        assertEquals(units("3000"), book.getBestAsk(ETH));
+        assertEquals(HUOBI, book.getBestAskVenue(ETH));
+    }
+
+    @Test
+    void testWorseQuoteFromBestVenueReplacesIt() {
+        // Arrange
+        book.update(ETH, BINANCE, units("2999"), units("3000"), 100);
+        book.update(ETH, HUOBI, units("2990"), units("3010"), 100);
+
+        // Act - Binance backs off; the old better price must not linger
+        book.update(ETH, BINANCE, units("2980"), units("3020"), 200);
+
+        // Assert
+        assertEquals(units("2990"), book.getBestBid(ETH));
+        assertEquals(HUOBI, book.getBestBidVenue(ETH));
+        assertEquals(units("3010"), book.getBestAsk(ETH));
+        assertEquals(HUOBI, book.getBestAskVenue(ETH));
+    }
+
+    @Test
+    void testSameQuoteReportsNoChange() {
+        // Arrange
+        book.update(ETH, BINANCE, units("2999"), units("3000"), 100);
+
+        // Act
+        boolean changed = book.update(ETH, BINANCE, units("2999"), units("3000"), 200);
+
+        // Assert
+        assertFalse(changed);
+        assertEquals(200, book.getBestQuotedAtMillis(ETH));
+    }
+
+    @Test
+    void testStaleVenueDropsOut() {
+        // Arrange
+        book.update(ETH, BINANCE, units("2999"), units("3000"), 100);
+        book.update(ETH, HUOBI, units("2990"), units("3010"), 900);
+
+        // Act - Binance is past its 1000ms TTL, Huobi is not
+        boolean changed = book.recompute(ETH, 1500);
+
+        // Assert
+        assertTrue(changed);
+        assertEquals(HUOBI, book.getBestBidVenue(ETH));
+        assertEquals(HUOBI, book.getBestAskVenue(ETH));
+
+        // Act - everything expired
+        book.recompute(ETH, 3000);
+
+        // Assert
+        assertFalse(book.hasQuote(ETH));
+        assertEquals(ConsolidatedOrderBook.NO_VENUE, book.getBestAskVenue(ETH));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplaySourceTest {
+
+    private static final SymbolRegistry SYMBOLS = new SymbolRegistry("ETH/USDT", "BTC/USDT");
+
+    @TempDir
+    Path dir;
+
+    private static List<VenueQuote> drain(ReplaySource source) throws IOException {
+        List<VenueQuote> quotes = new ArrayList<>();
+        while (source.next()) {
+            quotes.add(source.quote());
+        }
+        return quotes;
+    }
+
+    @Test
+    void testSyntheticSource_SameSeedSameQuotes() throws IOException {
+        // Arrange
+        long[] mids = {FixedPoint.fromLong(2500), FixedPoint.fromLong(50000)};
+
+        // Act
+        List<VenueQuote> first = drain(new SyntheticReplaySource(SYMBOLS, mids, 7, 5_000, 1_000_000));
+        List<VenueQuote> second = drain(new SyntheticReplaySource(SYMBOLS, mids, 7, 5_000, 1_000_000));
+        List<VenueQuote> otherSeed = drain(new SyntheticReplaySource(SYMBOLS, mids, 8, 5_000, 1_000_000));
+
+        // Assert
+        assertEquals(5_000, first.size());
+        assertEquals(first, second);
+        assertNotEquals(first, otherSeed);
+        for (VenueQuote quote : first) {
+            assertTrue(quote.getBidPrice() > 0 && quote.getBidPrice() < quote.getAskPrice(), quote.toString());
+            assertTrue(quote.getBidQty() > 0 && quote.getAskQty() > 0);
+        }
+    }
+
+    @Test
+    void testSyntheticSource_SymbolWithoutStartPriceNeverQuoted() throws IOException {
+        // Arrange
+        SyntheticReplaySource source = new SyntheticReplaySource(SYMBOLS,
+                new long[]{0, FixedPoint.fromLong(50000)}, 1, 1_000, 10_000_000);
+
+        // Act
+        List<VenueQuote> quotes = drain(source);
+
+        // Assert - only BTC, timestamps spaced by the tick interval
+        assertTrue(quotes.stream().allMatch(quote -> quote.getSymbol().equals("BTCUSDT")));
+        assertEquals(1_000 * 10_000_000L, source.timestampNanos());
+        assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticReplaySource(SYMBOLS, new long[2], 1, 1, 1));
+    }
+
+    private TickLog openTickLog(SymbolRegistry symbols) throws IOException {
+        TickLog tickLog = new TickLog();
+        ReflectionTestUtils.setField(tickLog, "symbolRegistry", symbols);
+        ReflectionTestUtils.setField(tickLog, "enabled", true);
+        ReflectionTestUtils.setField(tickLog, "directory", dir.toString());
+        ReflectionTestUtils.setField(tickLog, "segmentSizeMb", 1);
+        tickLog.open();
+        return tickLog;
+    }
+
+    @Test
+    void testTickLogSource_ReplaysCapturedQuotes() throws IOException {
+        // Arrange - one record of a symbol id this build no longer tracks
+        TickLog tickLog = openTickLog(SYMBOLS);
+        tickLog.append(0, Venue.BINANCE.ordinal(), 2_999L, 3_000L, 5L, 6L, 1_000L);
+        tickLog.append(5, Venue.BINANCE.ordinal(), 1L, 2L, 0L, 0L, 2_000L);
+        tickLog.append(1, Venue.HUOBI.ordinal(), 49_999L, 50_001L, 7L, 8L, 3_000L);
+        tickLog.close();
+
+        // Act
+        List<VenueQuote> quotes = new ArrayList<>();
+        List<Long> timestamps = new ArrayList<>();
+        try (TickLogReplaySource source = new TickLogReplaySource(dir, SYMBOLS)) {
+            while (source.next()) {
+                quotes.add(source.quote());
+                timestamps.add(source.timestampNanos());
+            }
+        }
+
+        // Assert
+        assertEquals(List.of(
+                new VenueQuote(Venue.BINANCE, "ETHUSDT", 2_999L, 3_000L, 5L, 6L),
+                new VenueQuote(Venue.HUOBI, "BTCUSDT", 49_999L, 50_001L, 7L, 8L)), quotes);
+        assertEquals(List.of(1_000L, 3_000L), timestamps);
+    }
+
+    @Test
+    void testTickLogSource_MatchesSymbolsByNameAfterReorder() throws IOException {
+        // Arrange - captured with a different symbol order, and a symbol this build does not trade
+        TickLog tickLog = openTickLog(new SymbolRegistry("BTC/USDT", "SOL/USDT", "ETH/USDT"));
+        tickLog.append(0, Venue.BINANCE.ordinal(), 49_999L, 50_001L, 0L, 0L, 1_000L);
+        tickLog.append(1, Venue.BINANCE.ordinal(), 149L, 151L, 0L, 0L, 2_000L);
+        tickLog.append(2, Venue.BINANCE.ordinal(), 2_999L, 3_000L, 0L, 0L, 3_000L);
+        tickLog.close();
+
+        // Act
+        List<VenueQuote> quotes;
+        try (TickLogReplaySource source = new TickLogReplaySource(dir, SYMBOLS)) {
+            quotes = drain(source);
+        }
+
+        // Assert
+        assertEquals(List.of(
+                new VenueQuote(Venue.BINANCE, "BTCUSDT", 49_999L, 50_001L, 0L, 0L),
+                new VenueQuote(Venue.BINANCE, "ETHUSDT", 2_999L, 3_000L, 0L, 0L)), quotes);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tradingapp.market;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Binance combined stream endpoint. Each connection receives the scripted
+ * frames and is then closed by the server, which exercises the client's reconnect path, or, if the
+ * server is silent, left open without sending anything more.
+ */
+class StubBookTickerServer implements AutoCloseable {
+
+    private final DisposableServer server;
+    private final AtomicInteger connections = new AtomicInteger();
+
+    StubBookTickerServer(List<String> frames, Duration frameInterval) {
+        this(frames, frameInterval, false);
+    }
+
+    StubBookTickerServer(List<String> frames, Duration frameInterval, boolean silent) {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.ws("/stream", (in, out) -> {
+                    connections.incrementAndGet();
+                    Mono<Void> sent = out.sendString(Flux.fromIterable(frames).delayElements(frameInterval)).then();
+                    return silent ? sent.then(Mono.never()) : sent;
+                }))
+                .bindNow();
+    }
+
+    static String frame(String symbol, long updateId, String bid, String ask) {
+        return "{\"stream\":\"" + symbol.toLowerCase() + "@bookTicker\",\"data\":{\"u\":" + updateId
+                + ",\"s\":\"" + symbol + "\",\"b\":\"" + bid + "\",\"B\":\"1.00000000\",\"a\":\"" + ask
+                + "\",\"A\":\"2.00000000\"}}";
+    }
+
+    String streamUrl() {
+        return "ws://127.0.0.1:" + server.port() + "/stream";
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.tradingapp.market;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolRegistryTest {
+
+    @Test
+    void testParse_IdsCurrenciesAndVenueSpellings() {
+        // Act
+        SymbolRegistry registry = SymbolRegistry.parse(" eth/usdt, BTC/USDT ,SOL/BTC");
+
+        // Assert
+        assertEquals(3, registry.size());
+        assertEquals(0, registry.indexOf("ETHUSDT"));
+        assertEquals(2, registry.indexOf("SOLBTC"));
+        assertEquals(-1, registry.indexOf("ethusdt"));
+        assertEquals(-1, registry.indexOf(null));
+        assertEquals("BTC", registry.baseCurrency(1));
+        assertEquals("USDT", registry.quoteCurrency(1));
+        assertEquals(List.of("USDT", "ETH", "BTC", "SOL"), registry.getCurrencies());
+
+        char[] row = "{\"symbol\":\"solbtc\"}".toCharArray();
+        assertEquals(2, registry.venueSymbols(Venue.HUOBI).indexOf(row, 11, 6));
+        assertEquals(-1, registry.venueSymbols(Venue.BINANCE).indexOf(row, 11, 6));
+        assertEquals("SOLBTC", registry.venueSymbols(Venue.BINANCE).symbol(2));
+    }
+
+    @Test
+    void testHundredsOfPairs_EveryIdFoundAndOthersMissed() {
+        // Arrange
+        String[] pairs = new String[800];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = String.format(Locale.ROOT, "C%03d/USDT", i);
+        }
+
+        // Act
+        SymbolRegistry registry = new SymbolRegistry(pairs);
+
+        // Assert
+        SymbolIndex huobi = registry.venueSymbols(Venue.HUOBI);
+        for (int id = 0; id < pairs.length; id++) {
+            char[] lower = String.format(Locale.ROOT, "c%03dusdt", id).toCharArray();
+            assertEquals(id, registry.indexOf(registry.symbol(id)));
+            assertEquals(id, huobi.indexOf(lower, 0, lower.length));
+            char[] untracked = String.format(Locale.ROOT, "d%03dusdt", id).toCharArray();
+            assertEquals(-1, huobi.indexOf(untracked, 0, untracked.length));
+        }
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> SymbolRegistry.parse(" , "));
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class,
+                () -> SymbolRegistry.parse("ETH/USDT,BTCUSDT"));
+        assertEquals("Invalid symbol pair: BTCUSDT (expected BASE/QUOTE)", invalid.getMessage());
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class,
+                () -> SymbolRegistry.parse("ETH/USDT,eth/usdt"));
+        assertEquals("Duplicate symbol: ETHUSDT", duplicate.getMessage());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.tradingapp.market;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickLogTest {
+
+    @TempDir
+    Path dir;
+
+    private TickLog tickLog;
+
+    private TickLog newTickLog(boolean enabled) throws IOException {
+        TickLog log = new TickLog();
+        ReflectionTestUtils.setField(log, "symbolRegistry", new SymbolRegistry("ETH/USDT", "BTC/USDT"));
+        ReflectionTestUtils.setField(log, "enabled", enabled);
+        ReflectionTestUtils.setField(log, "directory", dir.toString());
+        // Smallest segment: 1 MB holds 21844 records after the header
+        ReflectionTestUtils.setField(log, "segmentSizeMb", 1);
+        log.open();
+        return log;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (tickLog != null) {
+            tickLog.close();
+        }
+    }
+
+    @Test
+    void testAppendedTicksReadBackInOrderAcrossSegments() throws IOException {
+        // Arrange
+        tickLog = newTickLog(true);
+        int count = 50_000;
+
+        // Act
+        for (int i = 0; i < count; i++) {
+            tickLog.append(i % 2, i % 3, 1_000L + i, 2_000L + i, 3L * i, 4L * i, 1_700_000_000_000_000_000L + i);
+        }
+
+        // Assert - three 1 MB segments, every record back with every field
+        assertEquals(3, TickLogReader.segments(dir).size());
+        int read = 0;
+        try (TickLogReader reader = TickLogReader.open(dir)) {
+            while (reader.next()) {
+                assertEquals(read % 2, reader.symbolId());
+                assertEquals(read % 3, reader.venueId());
+                assertEquals(1_000L + read, reader.bid());
+                assertEquals(2_000L + read, reader.ask());
+                assertEquals(3L * read, reader.bidQty());
+                assertEquals(4L * read, reader.askQty());
+                assertEquals(1_700_000_000_000_000_000L + read, reader.timestampNanos());
+                read++;
+            }
+        }
+        assertEquals(count, read);
+    }
+
+    @Test
+    void testReaderSeesRecordsOfSegmentStillBeingWritten() throws IOException {
+        // Arrange
+        tickLog = newTickLog(true);
+        tickLog.append(0, 0, 10, 11, 0, 0);
+        tickLog.append(1, 1, 20, 21, 0, 0);
+
+        // Act
+        int read = 0;
+        long previous = 0;
+        try (TickLogReader reader = TickLogReader.open(dir)) {
+            while (reader.next()) {
+                assertTrue(reader.timestampNanos() > previous);
+                previous = reader.timestampNanos();
+                read++;
+            }
+        }
+
+        // Assert - stops at the unwritten tail of the pre-sized segment
+        assertEquals(2, read);
+    }
+
+    @Test
+    void testRestartStartsNewSegment() throws IOException {
+        // Arrange
+        tickLog = newTickLog(true);
+        tickLog.append(0, 0, 10, 11, 0, 0);
+        tickLog.close();
+
+        // Act
+        tickLog = newTickLog(true);
+        tickLog.append(0, 1, 12, 13, 0, 0);
+
+        // Assert
+        List<Path> segments = TickLogReader.segments(dir);
+        assertEquals(List.of("ticks-000000000000.log", "ticks-000000000001.log"),
+                segments.stream().map(path -> path.getFileName().toString()).toList());
+        try (TickLogReader reader = TickLogReader.open(dir)) {
+            assertTrue(reader.next());
+            assertEquals(10, reader.bid());
+            assertTrue(reader.next());
+            assertEquals(12, reader.bid());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testDisabledLogWritesNothing() throws IOException {
+        // Arrange
+        tickLog = newTickLog(false);
+
+        // Act
+        tickLog.append(0, 0, 10, 11, 0, 0);
+
+        // Assert
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testSegmentsCarryTheirSymbolTable() throws IOException {
+        // Arrange
+        tickLog = newTickLog(true);
+        tickLog.append(1, 0, 10, 11, 0, 0);
+        tickLog.append(7, 0, 12, 13, 0, 0);
+
+        // Act & Assert - an id outside the table has no name
+        try (TickLogReader reader = TickLogReader.open(dir)) {
+            assertTrue(reader.next());
+            assertTrue(reader.hasSymbolTable());
+            assertEquals("BTCUSDT", reader.symbol());
+            assertTrue(reader.next());
+            assertNull(reader.symbol());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testReadsVersion1SegmentWithoutSymbolTable() throws IOException {
+        // Arrange - a header slot, then one record
+        ByteBuffer segment = ByteBuffer.allocate(TickLog.RECORD_SIZE * 3).order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(0, TickLog.MAGIC).putInt(4, 1).putInt(8, TickLog.RECORD_SIZE);
+        segment.putInt(TickLog.RECORD_SIZE + TickLog.SYMBOL_OFFSET, 1);
+        segment.putLong(TickLog.RECORD_SIZE + TickLog.BID_OFFSET, 10);
+        segment.putLong(TickLog.RECORD_SIZE + TickLog.TIMESTAMP_OFFSET, 1_000);
+        Files.write(dir.resolve("ticks-000000000000.log"), segment.array());
+
+        // Act & Assert
+        try (TickLogReader reader = TickLogReader.open(dir)) {
+            assertTrue(reader.next());
+            assertFalse(reader.hasSymbolTable());
+            assertEquals(1, reader.symbolId());
+            assertNull(reader.symbol());
+            assertEquals(10, reader.bid());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        // Arrange
+        Files.write(dir.resolve("ticks-000000000000.log"), new byte[TickLog.RECORD_SIZE * 2]);
+
+        // Act & Assert
+        try (TickLogReader reader = TickLogReader.open(dir)) {
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+}
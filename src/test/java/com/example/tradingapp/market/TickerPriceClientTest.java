@@ -0,0 +1,95 @@
+package com.example.tradingapp.market;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickerPriceClientTest {
+
+    private static WebClient serving(String payload) throws IOException {
+        String body;
+        try (InputStream in = TickerPriceClientTest.class.getResourceAsStream("/payloads/" + payload)) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        return WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body)
+                        .build()))
+                .build();
+    }
+
+    private static <T extends TickerPriceClient> T wire(T client, WebClient webClient) {
+        ReflectionTestUtils.setField(client, "marketDataWebClient", webClient);
+        ReflectionTestUtils.setField(client, "symbolRegistry", new SymbolRegistry("ETH/USDT", "BTC/USDT"));
+        ReflectionTestUtils.setField(client, "url", "http://venue.test/tickers");
+        client.init();
+        return client;
+    }
+
+    @Test
+    void testVenueClientsParseTheirPayloads() throws IOException {
+        // Arrange
+        BinancePriceClient binance = wire(new BinancePriceClient(), serving("binance-bookTicker.json"));
+        HuobiPriceClient huobi = wire(new HuobiPriceClient(), serving("huobi-tickers.json"));
+
+        // Act
+        List<VenueQuote> binanceQuotes = binance.fetchQuotes().block(Duration.ofSeconds(5));
+        List<VenueQuote> huobiQuotes = huobi.fetchQuotes().block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(2, binanceQuotes.size());
+        assertEquals(Venue.BINANCE, binanceQuotes.get(0).getVenue());
+        assertEquals(2, huobiQuotes.size());
+        assertEquals(Venue.HUOBI, huobiQuotes.get(0).getVenue());
+    }
+
+    @Test
+    void testPayloadIsParsedOffTheThreadThatReceivedIt() throws IOException {
+        // Arrange - an in-memory exchange delivers the body on the subscribing thread
+        AtomicReference<String> parsedOn = new AtomicReference<>();
+        BinancePriceClient client = wire(new BinancePriceClient() {
+            @Override
+            protected List<VenueQuote> parse(TickerStreamParser parser, InputStream in) throws IOException {
+                parsedOn.set(Thread.currentThread().getName());
+                return super.parse(parser, in);
+            }
+        }, serving("binance-bookTicker.json"));
+
+        // Act
+        client.fetchQuotes().block(Duration.ofSeconds(5));
+
+        // Assert
+        assertTrue(parsedOn.get().startsWith("boundedElastic-"), parsedOn.get());
+    }
+
+    @Test
+    void testMalformedPayloadIsSignalledOnTheMono() {
+        // Arrange
+        BinancePriceClient client = wire(new BinancePriceClient(), WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("[{\"symbol\":")
+                        .build()))
+                .build());
+
+        // Act & Assert
+        Exception exception = assertThrows(IllegalStateException.class,
+                () -> client.fetchQuotes().block(Duration.ofSeconds(5)));
+        assertEquals("Malformed BINANCE ticker payload", exception.getMessage());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickerStreamParserTest {
+
+    private final TickerStreamParser parser = new TickerStreamParser(new SymbolRegistry("ETH/USDT", "BTC/USDT"));
+
+    private InputStream payload(String name) {
+        return getClass().getResourceAsStream("/payloads/" + name);
+    }
+
+    private InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testParseBinance_KeepsOnlyTrackedSymbols() throws IOException {
+        // Act
+        List<VenueQuote> quotes = parser.parseBinance(payload("binance-bookTicker.json"));
+
+        // Assert
+        assertEquals(2, quotes.size());
+        assertEquals("BTCUSDT", quotes.get(0).getSymbol());
+        assertEquals(Venue.BINANCE, quotes.get(0).getVenue());
+        assertEquals(FixedPoint.parse("67012.34000000"), quotes.get(0).getBidPrice());
+        assertEquals(FixedPoint.parse("67012.35000000"), quotes.get(0).getAskPrice());
+        assertEquals(FixedPoint.parse("1.20511"), quotes.get(0).getBidQty());
+        assertEquals(FixedPoint.parse("3.0438"), quotes.get(0).getAskQty());
+        assertEquals("ETHUSDT", quotes.get(1).getSymbol());
+        assertEquals(FixedPoint.parse("3481.21000000"), quotes.get(1).getBidPrice());
+    }
+
+    @Test
+    void testParseHuobi_MatchesLowercaseSymbolsAndNumericPrices() throws IOException {
+        // Act
+        List<VenueQuote> quotes = parser.parseHuobi(payload("huobi-tickers.json"));
+
+        // Assert
+        assertEquals(2, quotes.size());
+        assertEquals("ETHUSDT", quotes.get(0).getSymbol());
+        assertEquals(Venue.HUOBI, quotes.get(0).getVenue());
+        assertEquals(FixedPoint.parse("3481.17"), quotes.get(0).getBidPrice());
+        assertEquals(FixedPoint.parse("3481.38"), quotes.get(0).getAskPrice());
+        assertEquals(FixedPoint.parse("0.6"), quotes.get(0).getBidQty());
+        assertEquals(FixedPoint.parse("5.09"), quotes.get(0).getAskQty());
+        assertEquals("BTCUSDT", quotes.get(1).getSymbol());
+        assertEquals(FixedPoint.parse("67010.0"), quotes.get(1).getAskPrice());
+    }
+
+    @Test
+    void testParseBinance_FieldOrderIndependent() throws IOException {
+        // Act
+        List<VenueQuote> quotes = parser.parseBinance(json(
+                "[{\"askPrice\":\"2.5\",\"bidPrice\":\"2.4\",\"symbol\":\"ETHUSDT\"}]"));
+
+        // Assert
+        assertEquals(1, quotes.size());
+        assertEquals(FixedPoint.parse("2.4"), quotes.get(0).getBidPrice());
+        assertEquals(FixedPoint.parse("2.5"), quotes.get(0).getAskPrice());
+    }
+
+    @Test
+    void testParseHuobi_NullPriceSkipsTicker() throws IOException {
+        // Act
+        List<VenueQuote> quotes = parser.parseHuobi(json(
+                "{\"status\":\"ok\",\"data\":[{\"symbol\":\"ethusdt\",\"bid\":null,\"ask\":3.1}]}"));
+
+        // Assert
+        assertTrue(quotes.isEmpty());
+    }
+
+    @Test
+    void testParseBinance_RejectsNonArrayPayload() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> parser.parseBinance(json("{\"code\":-1003,\"msg\":\"Too many requests\"}")));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.tradingapp.market;
+
+import com.example.tradingapp.entity.CryptoPrice;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.CryptoPriceRepository;
+import com.example.tradingapp.util.FixedPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopOfBookStoreTest {
+
+    @Mock
+    private CryptoPriceRepository cryptoPriceRepository;
+
+    @Mock
+    private TradingMetrics tradingMetrics;
+
+    @InjectMocks
+    private TopOfBookStore topOfBookStore;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(topOfBookStore, "maxQuoteAgeMillis", 30000L);
+    }
+
+    private CryptoPrice price(String symbol, String bid, String ask, LocalDateTime timestamp) {
+        CryptoPrice price = new CryptoPrice();
+        price.setSymbol(symbol);
+        price.setBidPrice(new BigDecimal(bid));
+        price.setAskPrice(new BigDecimal(ask));
+        price.setSource("BINANCE");
+        price.setTimestamp(timestamp);
+        return price;
+    }
+
+    @Test
+    void testPublishAndGet() {
+        // Act
+        topOfBookStore.publish("ETHUSDT", FixedPoint.parse("2999"), FixedPoint.parse("3000"),
+                "BINANCE", "BINANCE", System.currentTimeMillis());
+
+        // Assert
+        BookQuote quote = topOfBookStore.get("ETHUSDT");
+        assertNotNull(quote);
+        assertEquals(new BigDecimal("2999"), quote.getBidPrice());
+        assertEquals(new BigDecimal("3000"), quote.getAskPrice());
+        assertNull(topOfBookStore.get("BTCUSDT"));
+    }
+
+    @Test
+    void testPublishBumpsSequence() {
+        // Act
+        BookQuote first = topOfBookStore.publish("ETHUSDT", FixedPoint.parse("2999"), FixedPoint.parse("3000"),
+                "BINANCE", "BINANCE", System.currentTimeMillis());
+        BookQuote second = topOfBookStore.publish("ETHUSDT", FixedPoint.parse("3001"), FixedPoint.parse("3002"),
+                "BINANCE", "BINANCE", System.currentTimeMillis());
+
+        // Assert
+        assertTrue(second.getSequence() > first.getSequence());
+        assertSame(second, topOfBookStore.get("ETHUSDT"));
+    }
+
+    @Test
+    void testGetTradable_NoPriceData() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> topOfBookStore.getTradable("ETHUSDT"));
+        assertEquals("No price data available for symbol: ETHUSDT", exception.getMessage());
+    }
+
+    @Test
+    void testGetTradable_StaleQuoteRejected() {
+        // Arrange - quote loaded from the database long ago
+        when(cryptoPriceRepository.findLatestForAllSymbols())
+                .thenReturn(List.of(price("ETHUSDT", "2999", "3000", LocalDateTime.now().minusMinutes(5))));
+        topOfBookStore.loadFromDatabase();
+
+        // Act & Assert - still readable, but not tradable
+        assertNotNull(topOfBookStore.get("ETHUSDT"));
+        assertTrue(topOfBookStore.isStale(topOfBookStore.get("ETHUSDT")));
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> topOfBookStore.getTradable("ETHUSDT"));
+        assertEquals("Price data for ETHUSDT is stale", exception.getMessage());
+    }
+
+    @Test
+    void testLoadFromDatabase_FreshQuoteTradable() {
+        // Arrange
+        when(cryptoPriceRepository.findLatestForAllSymbols())
+                .thenReturn(List.of(price("BTCUSDT", "50000", "50100", LocalDateTime.now())));
+
+        // Act
+        topOfBookStore.loadFromDatabase();
+
+        // Assert
+        BookQuote quote = topOfBookStore.getTradable("BTCUSDT");
+        assertEquals(new BigDecimal("50100"), quote.getAskPrice());
+    }
+
+    @Test
+    void testLoadFromDatabase_SplitsConsolidatedSource() {
+        // Arrange - best bid from Binance, best ask from Huobi
+        CryptoPrice consolidated = price("ETHUSDT", "2999", "3000", LocalDateTime.now());
+        consolidated.setSource("BINANCE/HUOBI");
+        when(cryptoPriceRepository.findLatestForAllSymbols()).thenReturn(List.of(consolidated));
+
+        // Act
+        topOfBookStore.loadFromDatabase();
+
+        // Assert
+        BookQuote quote = topOfBookStore.get("ETHUSDT");
+        assertEquals("BINANCE", quote.getBidSource());
+        assertEquals("HUOBI", quote.getAskSource());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.tradingapp.metrics;
+
+import com.example.tradingapp.market.Venue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradingMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TradingMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new TradingMetrics(meterRegistry);
+    }
+
+    @Test
+    void testEveryTagCombinationIsRegisteredUpFront() {
+        // Assert - nothing recorded yet, but every meter can already be scraped
+        assertEquals(Venue.values().length * TradingMetrics.FetchOutcome.values().length,
+                meterRegistry.find("trading.venue.fetch").timers().size());
+        assertEquals(TradingMetrics.Mode.values().length * TradingMetrics.Side.values().length
+                * TradingMetrics.Outcome.values().length, meterRegistry.find("trading.trade.execute").timers().size());
+        assertEquals(TradingMetrics.Rejection.values().length,
+                meterRegistry.find("trading.trade.rejected").counters().size());
+        assertEquals(0.0, meterRegistry.get("trading.trade.rejected").tag("reason", "queue-full").counter().count());
+    }
+
+    @Test
+    void testRecordingsLandOnTheirOwnTags() {
+        // Act
+        metrics.venueFetched(Venue.HUOBI, TradingMetrics.FetchOutcome.TIMEOUT, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.tradeExecuted(TradingMetrics.Mode.SEQUENCED, TradingMetrics.Side.SELL, TradingMetrics.Outcome.FILLED, 1000);
+        metrics.tradeRejected(TradingMetrics.Rejection.INSUFFICIENT_BALANCE);
+        metrics.cacheLookup(TradingMetrics.Cache.WALLET_LEDGER, false);
+        metrics.cacheLookup(TradingMetrics.Cache.WALLET_LEDGER, true);
+        metrics.cacheLookup(TradingMetrics.Cache.WALLET_LEDGER, true);
+
+        // Assert
+        assertEquals(5.0, meterRegistry.get("trading.venue.fetch").tags("venue", "HUOBI", "outcome", "timeout")
+                .timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(0, meterRegistry.get("trading.venue.fetch").tags("venue", "BINANCE", "outcome", "timeout")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("trading.trade.execute")
+                .tags("mode", "sequenced", "type", "SELL", "outcome", "filled").timer().count());
+        assertEquals(1.0, meterRegistry.get("trading.trade.rejected").tag("reason", "insufficient-balance")
+                .counter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tags("cache", "wallet-ledger", "result", "hit")
+                .counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "wallet-ledger", "result", "miss")
+                .counter().count());
+    }
+
+    @Test
+    void testSideIgnoresCase() {
+        assertEquals(TradingMetrics.Side.BUY, TradingMetrics.side("buy"));
+        assertEquals(TradingMetrics.Side.SELL, TradingMetrics.side("SELL"));
+        assertEquals(TradingMetrics.Side.OTHER, TradingMetrics.side("HOLD"));
+        assertEquals(TradingMetrics.Side.OTHER, TradingMetrics.side(null));
+    }
+}
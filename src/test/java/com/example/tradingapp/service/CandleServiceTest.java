@@ -0,0 +1,159 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.dto.CandleDTO;
+import com.example.tradingapp.market.CandleInterval;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.Venue;
+import com.example.tradingapp.repository.CandleRepository;
+import com.example.tradingapp.util.FixedPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CandleServiceTest {
+
+    private static final int ETH = 0;
+
+    // 2024-01-01T00:00:00Z, on a whole hour
+    private static final long T0 = 1_704_067_200_000L;
+
+    private CandleService candleService;
+    private CandleRepository candleRepository;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        // Same column layout Hibernate generates for Candle
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:candletest;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE candles (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symbol VARCHAR(255) NOT NULL, source VARCHAR(16) NOT NULL, bar_interval VARCHAR(4) NOT NULL, "
+                + "open_time TIMESTAMP NOT NULL, open_price DECIMAL(18,8) NOT NULL, high_price DECIMAL(18,8) NOT NULL, "
+                + "low_price DECIMAL(18,8) NOT NULL, close_price DECIMAL(18,8) NOT NULL, tick_count INT NOT NULL)");
+
+        candleRepository = mock(CandleRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        candleService = new CandleService();
+        ReflectionTestUtils.setField(candleService, "candleRepository", candleRepository);
+        ReflectionTestUtils.setField(candleService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(candleService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(candleService, "symbolRegistry", new SymbolRegistry("ETH/USDT", "BTC/USDT"));
+        // Flushed by hand
+        ReflectionTestUtils.setField(candleService, "flushIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(candleService, "maxBars", 1000);
+        ReflectionTestUtils.setField(candleService, "maxWriteAttempts", 2);
+        candleService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        candleService.stop();
+        jdbcTemplate.execute("DROP TABLE candles");
+    }
+
+    private void record(int sourceId, String bid, String ask, long atMillis) {
+        candleService.record(ETH, sourceId, FixedPoint.parse(bid), FixedPoint.parse(ask), atMillis);
+    }
+
+    @Test
+    void testFlush_WritesCompletedBucketsAtMidPrice() {
+        // Arrange - two seconds of Binance quotes, long past
+        record(Venue.BINANCE.ordinal(), "2999", "3001", T0 + 100);
+        record(Venue.BINANCE.ordinal(), "3009", "3011", T0 + 900);
+        record(Venue.BINANCE.ordinal(), "2989", "2991", T0 + 1_500);
+
+        // Act
+        candleService.flush();
+
+        // Assert - 2 one-second buckets plus one each for 1m, 5m and 1h
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM candles", Integer.class));
+        Map<String, Object> minute = jdbcTemplate.queryForMap(
+                "SELECT * FROM candles WHERE bar_interval = '1m'");
+        assertEquals("ETHUSDT", minute.get("SYMBOL"));
+        assertEquals("BINANCE", minute.get("SOURCE"));
+        assertEquals(0, new BigDecimal("3000").compareTo((BigDecimal) minute.get("OPEN_PRICE")));
+        assertEquals(0, new BigDecimal("3010").compareTo((BigDecimal) minute.get("HIGH_PRICE")));
+        assertEquals(0, new BigDecimal("2990").compareTo((BigDecimal) minute.get("LOW_PRICE")));
+        assertEquals(0, new BigDecimal("2990").compareTo((BigDecimal) minute.get("CLOSE_PRICE")));
+        assertEquals(3, minute.get("TICK_COUNT"));
+        assertEquals(5.0, meterRegistry.counter("trading.candles.written").count());
+    }
+
+    @Test
+    void testFlush_RetriesFailedWritesThenDropsThem() {
+        // Arrange - the table is unavailable for the first flush
+        record(Venue.BINANCE.ordinal(), "2999", "3001", T0 + 100);
+        record(Venue.BINANCE.ordinal(), "3009", "3011", T0 + 1_500);
+        jdbcTemplate.execute("ALTER TABLE candles RENAME TO candles_offline");
+
+        // Act & Assert - kept for the next flush, which succeeds
+        candleService.flush();
+        assertEquals(5.0, meterRegistry.counter("trading.candles.failed").count());
+        jdbcTemplate.execute("ALTER TABLE candles_offline RENAME TO candles");
+        candleService.flush();
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM candles", Integer.class));
+        assertEquals(5.0, meterRegistry.counter("trading.candles.written").count());
+
+        // Act & Assert - two failed flushes in a row drop the next hour's buckets
+        record(Venue.BINANCE.ordinal(), "3019", "3021", T0 + 3_600_000);
+        jdbcTemplate.execute("ALTER TABLE candles RENAME TO candles_offline");
+        candleService.flush();
+        candleService.flush();
+        jdbcTemplate.execute("ALTER TABLE candles_offline RENAME TO candles");
+        candleService.flush();
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM candles", Integer.class));
+        assertEquals(4.0, meterRegistry.counter("trading.candles.dropped").count());
+    }
+
+    @Test
+    void testGetCandles_IncludesUnwrittenAndOpenBuckets() {
+        // Arrange - the last three seconds, nothing flushed yet
+        long now = System.currentTimeMillis();
+        long second = CandleInterval.SECOND.bucketStart(now);
+        record(CandleService.BEST_SOURCE, "2999", "3001", second - 2_000);
+        record(CandleService.BEST_SOURCE, "3009", "3011", second - 1_000);
+        record(CandleService.BEST_SOURCE, "3019", "3021", second);
+        when(candleRepository.findRange(eq("ETHUSDT"), eq("BEST"), eq("1s"), any(), any(), any()))
+                .thenReturn(List.of());
+
+        // Act
+        List<CandleDTO> candles = candleService.getCandles("ETHUSDT", "1s", null, null, null);
+
+        // Assert
+        assertEquals(3, candles.size());
+        assertTrue(candles.get(0).isComplete());
+        assertEquals(0, new BigDecimal("3000").compareTo(candles.get(0).getClose()));
+        assertTrue(candles.get(1).isComplete());
+        assertFalse(candles.get(2).isComplete());
+        assertEquals(0, new BigDecimal("3020").compareTo(candles.get(2).getClose()));
+        assertEquals("BEST", candles.get(2).getSource());
+    }
+
+    @Test
+    void testGetCandles_RejectsBadRequests() {
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        assertEquals("Invalid trading symbol: DOGEUSDT", assertThrows(IllegalArgumentException.class,
+                () -> candleService.getCandles("DOGEUSDT", "1m", null, null, to)).getMessage());
+        assertEquals("Unknown candle source: KRAKEN", assertThrows(IllegalArgumentException.class,
+                () -> candleService.getCandles("ETHUSDT", "1m", "KRAKEN", null, to)).getMessage());
+        assertEquals("Range too large: at most 1000 1s candles per request", assertThrows(IllegalArgumentException.class,
+                () -> candleService.getCandles("ETHUSDT", "1s", null, to.minusHours(1), to)).getMessage());
+        verifyNoInteractions(candleRepository);
+    }
+}
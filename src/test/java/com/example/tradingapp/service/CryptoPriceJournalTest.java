@@ -0,0 +1,181 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.CryptoPrice;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CryptoPriceJournalTest {
+
+    private CryptoPriceJournal journal;
+    private SimpleMeterRegistry meterRegistry;
+
+    private CryptoPriceJournal newJournal(JdbcTemplate jdbcTemplate, int capacity, int batchSize,
+                                          CryptoPriceJournal.OverflowPolicy policy) {
+        meterRegistry = new SimpleMeterRegistry();
+        CryptoPriceJournal journal = new CryptoPriceJournal();
+        ReflectionTestUtils.setField(journal, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(journal, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(journal, "capacity", capacity);
+        ReflectionTestUtils.setField(journal, "batchSize", batchSize);
+        ReflectionTestUtils.setField(journal, "flushIntervalMillis", 20L);
+        ReflectionTestUtils.setField(journal, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(journal, "maxWriteAttempts", 3);
+        journal.start();
+        return journal;
+    }
+
+    private CryptoPrice price(String bid) {
+        CryptoPrice price = new CryptoPrice();
+        price.setSymbol("ETHUSDT");
+        price.setBidPrice(new BigDecimal(bid));
+        price.setAskPrice(new BigDecimal(bid).add(BigDecimal.ONE));
+        price.setTimestamp(LocalDateTime.now());
+        price.setSource("BINANCE");
+        return price;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void testAppendedPricesAreWrittenInBatches() throws InterruptedException {
+        // Arrange - same column layout Hibernate generates for CryptoPrice
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:journaltest;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE crypto_prices (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symbol VARCHAR(255) NOT NULL, bid_price DECIMAL(18,8) NOT NULL, ask_price DECIMAL(18,8) NOT NULL, "
+                + "timestamp TIMESTAMP NOT NULL, source VARCHAR(255) NOT NULL, "
+                + "bid_qty DECIMAL(18,8), ask_qty DECIMAL(18,8))");
+        journal = newJournal(jdbcTemplate, 1000, 10, CryptoPriceJournal.OverflowPolicy.BLOCK);
+
+        // Act
+        for (int i = 0; i < 25; i++) {
+            assertTrue(journal.append(price(String.valueOf(2000 + i))));
+        }
+        journal.stop();
+        journal = null;
+
+        // Assert
+        assertEquals(25, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM crypto_prices", Integer.class));
+        assertEquals(25.0, meterRegistry.counter("trading.price.journal.written").count());
+        assertTrue(meterRegistry.timer("trading.price.journal.flush").count() >= 3);
+        jdbcTemplate.execute("DROP TABLE crypto_prices");
+    }
+
+    @Test
+    void testDropNewestWhenQueueFull() throws InterruptedException {
+        // Arrange - writer stuck inside the first flush
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch flushing = new CountDownLatch(1);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[0][];
+        });
+        journal = newJournal(jdbcTemplate, 2, 1, CryptoPriceJournal.OverflowPolicy.DROP_NEWEST);
+        journal.append(price("1"));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+
+        // Act
+        assertTrue(journal.append(price("2")));
+        assertTrue(journal.append(price("3")));
+        boolean accepted = journal.append(price("4"));
+
+        // Assert
+        assertFalse(accepted);
+        assertEquals(2, journal.getQueueDepth());
+        assertEquals(1.0, meterRegistry.counter("trading.price.journal.dropped").count());
+        release.countDown();
+    }
+
+    @Test
+    void testDropOldestWhenQueueFull() throws InterruptedException {
+        // Arrange - writer stuck inside the first flush
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch flushing = new CountDownLatch(1);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[0][];
+        });
+        journal = newJournal(jdbcTemplate, 2, 1, CryptoPriceJournal.OverflowPolicy.DROP_OLDEST);
+        journal.append(price("1"));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+
+        // Act
+        journal.append(price("2"));
+        journal.append(price("3"));
+        boolean accepted = journal.append(price("4"));
+
+        // Assert
+        assertTrue(accepted);
+        assertEquals(2, journal.getQueueDepth());
+        assertEquals(1.0, meterRegistry.counter("trading.price.journal.dropped").count());
+        assertEquals(2.0, meterRegistry.get("trading.price.journal.queue.depth").gauge().value());
+        release.countDown();
+    }
+
+    @Test
+    void testFailedBatchIsRetried() throws InterruptedException {
+        // Arrange - the first two inserts fail
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(new int[0][]);
+        journal = newJournal(jdbcTemplate, 100, 10, CryptoPriceJournal.OverflowPolicy.BLOCK);
+
+        // Act
+        journal.append(price("1"));
+        journal.append(price("2"));
+        journal.stop();
+        journal = null;
+
+        // Assert - written on the third attempt, nothing lost
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        assertEquals(2.0, meterRegistry.counter("trading.price.journal.written").count());
+        assertEquals(0.0, meterRegistry.counter("trading.price.journal.dropped").count());
+    }
+
+    @Test
+    void testBatchDroppedAfterMaxWriteAttempts() throws InterruptedException {
+        // Arrange - the database stays down
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        journal = newJournal(jdbcTemplate, 100, 10, CryptoPriceJournal.OverflowPolicy.BLOCK);
+
+        // Act
+        journal.append(price("1"));
+        journal.append(price("2"));
+        journal.stop();
+        journal = null;
+
+        // Assert - each attempt counts as failed; the batch is counted as dropped once
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        assertEquals(6.0, meterRegistry.counter("trading.price.journal.failed").count());
+        assertEquals(2.0, meterRegistry.counter("trading.price.journal.dropped").count());
+        assertEquals(0.0, meterRegistry.counter("trading.price.journal.written").count());
+    }
+}
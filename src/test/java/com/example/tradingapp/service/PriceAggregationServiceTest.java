@@ -0,0 +1,186 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.CryptoPrice;
+import com.example.tradingapp.market.PriceVenueClient;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.TickLog;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.market.Venue;
+import com.example.tradingapp.market.VenueQuote;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.util.FixedPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PriceAggregationServiceTest {
+
+    @Mock
+    private TopOfBookStore topOfBookStore;
+
+    @Mock
+    private CryptoPriceJournal cryptoPriceJournal;
+
+    @Mock
+    private PriceStreamService priceStreamService;
+
+    @Mock
+    private CandleService candleService;
+
+    @Mock
+    private TickLog tickLog;
+
+    @Mock
+    private TradingMetrics tradingMetrics;
+
+    @Spy
+    private SymbolRegistry symbolRegistry = new SymbolRegistry("ETH/USDT", "BTC/USDT");
+
+    @InjectMocks
+    private PriceAggregationService priceAggregationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(priceAggregationService, "venueTtlMillis", 20000L);
+        priceAggregationService.init();
+    }
+
+    private static PriceVenueClient stubVenue(Venue venue, Duration timeout, Mono<List<VenueQuote>> response) {
+        return new PriceVenueClient() {
+            @Override
+            public Venue getVenue() {
+                return venue;
+            }
+
+            @Override
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            @Override
+            public Mono<List<VenueQuote>> fetchQuotes() {
+                return response;
+            }
+        };
+    }
+
+    private static VenueQuote quote(Venue venue, String symbol, String bid, String ask) {
+        return new VenueQuote(venue, symbol, FixedPoint.parse(bid), FixedPoint.parse(ask));
+    }
+
+    @Test
+    void testAggregatePrices_VenuesFetchedConcurrently() {
+        // Arrange - two venues that each take 400ms
+        ReflectionTestUtils.setField(priceAggregationService, "venueClients", List.of(
+                stubVenue(Venue.BINANCE, Duration.ofSeconds(2),
+                        Mono.just(List.of(quote(Venue.BINANCE, "ETHUSDT", "2999", "3000")))
+                                .delayElement(Duration.ofMillis(400))),
+                stubVenue(Venue.HUOBI, Duration.ofSeconds(2),
+                        Mono.just(List.of(quote(Venue.HUOBI, "BTCUSDT", "50000", "50100")))
+                                .delayElement(Duration.ofMillis(400)))));
+
+        // Act
+        long start = System.nanoTime();
+        priceAggregationService.aggregatePrices();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - cycle time tracks the slowest venue, not the sum
+        assertTrue(elapsedMillis < 750, "cycle took " + elapsedMillis + "ms");
+        verify(topOfBookStore, times(2)).publish(anyString(), anyLong(), anyLong(), anyString(), anyString(), anyLong());
+        verify(cryptoPriceJournal, times(2)).append(any(CryptoPrice.class));
+        verify(priceStreamService, times(2)).publish(any());
+        verify(candleService).record(anyInt(), eq(Venue.BINANCE.ordinal()), anyLong(), anyLong(), anyLong());
+        verify(candleService).record(anyInt(), eq(Venue.HUOBI.ordinal()), anyLong(), anyLong(), anyLong());
+        verify(tickLog, times(2)).append(anyInt(), anyInt(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(candleService, times(2)).record(anyInt(), eq(CandleService.BEST_SOURCE), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testAggregatePrices_FailingVenueDoesNotBlockOthers() {
+        // Arrange - one venue errors, one never answers within its timeout
+        ReflectionTestUtils.setField(priceAggregationService, "venueClients", List.of(
+                stubVenue(Venue.BINANCE, Duration.ofSeconds(2),
+                        Mono.error(new IllegalStateException("Malformed Binance ticker payload"))),
+                stubVenue(Venue.HUOBI, Duration.ofMillis(200), Mono.never()),
+                stubVenue(Venue.HUOBI, Duration.ofSeconds(2),
+                        Mono.just(List.of(quote(Venue.HUOBI, "ETHUSDT", "2998", "3001"))))));
+
+        // Act
+        priceAggregationService.aggregatePrices();
+
+        // Assert
+        verify(topOfBookStore).publish(eq("ETHUSDT"), anyLong(), anyLong(), eq("HUOBI"), eq("HUOBI"), anyLong());
+        ArgumentCaptor<CryptoPrice> captor = ArgumentCaptor.forClass(CryptoPrice.class);
+        verify(cryptoPriceJournal).append(captor.capture());
+        assertEquals("ETHUSDT", captor.getValue().getSymbol());
+        assertEquals("HUOBI", captor.getValue().getSource());
+        verify(tradingMetrics).venueFetched(eq(Venue.BINANCE), eq(TradingMetrics.FetchOutcome.ERROR), anyLong());
+        verify(tradingMetrics).venueFetched(eq(Venue.HUOBI), eq(TradingMetrics.FetchOutcome.TIMEOUT), anyLong());
+        verify(tradingMetrics).venueFetched(eq(Venue.HUOBI), eq(TradingMetrics.FetchOutcome.SUCCESS), anyLong());
+        verify(tradingMetrics).quoteReceived(Venue.HUOBI);
+    }
+
+    @Test
+    void testBestBidAndAskTakenFromDifferentVenues() {
+        // Arrange - Binance bids higher, Huobi asks lower
+        ReflectionTestUtils.setField(priceAggregationService, "venueClients", List.of(
+                stubVenue(Venue.BINANCE, Duration.ofSeconds(2),
+                        Mono.just(List.of(quote(Venue.BINANCE, "ETHUSDT", "2999", "3002")))),
+                stubVenue(Venue.HUOBI, Duration.ofSeconds(2),
+                        Mono.just(List.of(quote(Venue.HUOBI, "ETHUSDT", "2998", "3000"))))));
+
+        // Act
+        priceAggregationService.aggregatePrices();
+
+        // Assert - the last publish is the consolidated book, not one venue's quote
+        verify(topOfBookStore).publish(eq("ETHUSDT"), eq(FixedPoint.parse("2999")), eq(FixedPoint.parse("3000")),
+                eq("BINANCE"), eq("HUOBI"), anyLong());
+        ArgumentCaptor<CryptoPrice> captor = ArgumentCaptor.forClass(CryptoPrice.class);
+        verify(cryptoPriceJournal, times(2)).append(captor.capture());
+        CryptoPrice best = captor.getValue();
+        assertEquals(0, new BigDecimal("2999").compareTo(best.getBidPrice()));
+        assertEquals(0, new BigDecimal("3000").compareTo(best.getAskPrice()));
+        assertEquals("BINANCE/HUOBI", best.getSource());
+    }
+
+    @Test
+    void testExpireStaleVenues_QuietVenueDropsOut() {
+        // Arrange - Binance quoted the better prices long ago, Huobi is current
+        ReflectionTestUtils.setField(priceAggregationService, "venueTtlMillis", 50L);
+        priceAggregationService.init();
+        priceAggregationService.onVenueQuote(quote(Venue.BINANCE, "ETHUSDT", "2999", "3000"));
+        await(100);
+        priceAggregationService.onVenueQuote(quote(Venue.HUOBI, "ETHUSDT", "2990", "3010"));
+
+        // Act
+        priceAggregationService.expireStaleVenues();
+
+        // Assert - Huobi alone from its own tick; the sweep has nothing left to change
+        verify(topOfBookStore, times(2)).publish(anyString(), anyLong(), anyLong(), anyString(), anyString(), anyLong());
+        verify(topOfBookStore).publish(anyString(), anyLong(), anyLong(), eq("HUOBI"), eq("HUOBI"), anyLong());
+    }
+
+    private static void await(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.util.FixedPoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PriceStreamServiceTest {
+
+    private PriceStreamService priceStreamService;
+    private TopOfBookStore topOfBookStore;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        topOfBookStore = mock(TopOfBookStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+        priceStreamService = new PriceStreamService();
+        ReflectionTestUtils.setField(priceStreamService, "topOfBookStore", topOfBookStore);
+        ReflectionTestUtils.setField(priceStreamService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(priceStreamService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(priceStreamService, "timeoutMillis", 60000L);
+        ReflectionTestUtils.setField(priceStreamService, "dispatchThreads", 2);
+        ReflectionTestUtils.setField(priceStreamService, "sendTimeoutMillis", 10000L);
+        priceStreamService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceStreamService.stop();
+    }
+
+    private static BookQuote quote(String symbol, String bid, long sequence) {
+        long bidPrice = FixedPoint.parse(bid);
+        return new BookQuote(symbol, bidPrice, bidPrice + FixedPoint.parse("1"), "BINANCE", "HUOBI",
+                LocalDateTime.now(), System.currentTimeMillis(), sequence);
+    }
+
+    /**
+     * Records every event set it is handed; optionally holds the first send until released.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<Set<DataWithMediaType>> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release;
+
+        RecordingEmitter(boolean blockFirstSend) {
+            release = new CountDownLatch(blockFirstSend ? 1 : 0);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sent.add(items);
+        }
+
+        String payloads() {
+            StringBuilder text = new StringBuilder();
+            for (Set<DataWithMediaType> items : sent) {
+                items.forEach(item -> text.append(item.getData()));
+            }
+            return text.toString();
+        }
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitter.sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, emitter.sent.size());
+    }
+
+    private static void awaitPayload(RecordingEmitter emitter, String text) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!emitter.payloads().contains(text) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(emitter.payloads().contains(text), text);
+    }
+
+    @Test
+    void testSubscribe_SendsSnapshotOfCurrentPrices() throws InterruptedException {
+        // Arrange
+        when(topOfBookStore.getAll()).thenReturn(List.of(quote("ETHUSDT", "3000", 1), quote("BTCUSDT", "50000", 2)));
+        RecordingEmitter emitter = new RecordingEmitter(false);
+
+        // Act
+        priceStreamService.subscribe(emitter);
+
+        // Assert - both prices plus the opening keep-alive
+        awaitSent(emitter, 3);
+        assertTrue(emitter.payloads().contains("\"symbol\":\"ETHUSDT\""));
+        assertTrue(emitter.payloads().contains("\"symbol\":\"BTCUSDT\""));
+        assertTrue(emitter.payloads().contains("event:price"));
+        assertEquals(1, priceStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void testPublish_SameEventSharedByAllSubscribers() throws InterruptedException {
+        // Arrange
+        when(topOfBookStore.getAll()).thenReturn(List.of());
+        RecordingEmitter first = new RecordingEmitter(false);
+        RecordingEmitter second = new RecordingEmitter(false);
+        priceStreamService.subscribe(first);
+        priceStreamService.subscribe(second);
+
+        // Act
+        priceStreamService.publish(quote("ETHUSDT", "3000", 7));
+
+        // Assert - serialized once, handed to both after their opening keep-alive
+        awaitSent(first, 2);
+        awaitSent(second, 2);
+        assertSame(first.sent.get(1), second.sent.get(1));
+        assertTrue(first.payloads().contains("id:7"));
+        assertEquals(4.0, meterRegistry.counter("trading.price.stream.sent").count());
+    }
+
+    @Test
+    void testPublish_SlowSubscriberOnlyGetsLatestPricePerSymbol() throws InterruptedException {
+        // Arrange - slow client stuck in its first send
+        when(topOfBookStore.getAll()).thenReturn(List.of());
+        RecordingEmitter slow = new RecordingEmitter(true);
+        RecordingEmitter fast = new RecordingEmitter(false);
+        priceStreamService.subscribe(slow);
+        priceStreamService.subscribe(fast);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+
+        // Act
+        priceStreamService.publish(quote("ETHUSDT", "3000", 1));
+        priceStreamService.publish(quote("ETHUSDT", "3001", 2));
+        priceStreamService.publish(quote("ETHUSDT", "3002", 3));
+        priceStreamService.publish(quote("BTCUSDT", "50000", 4));
+        awaitPayload(fast, "id:3");
+        awaitPayload(fast, "id:4");
+        slow.release.countDown();
+
+        // Assert - the fast client was not held up; the slow one skipped the ETH prices it never had time for
+        awaitSent(slow, 3);
+        String payloads = slow.payloads();
+        assertFalse(payloads.contains("id:1"));
+        assertFalse(payloads.contains("id:2"));
+        assertTrue(payloads.contains("id:3"));
+        assertTrue(payloads.contains("id:4"));
+        assertTrue(meterRegistry.counter("trading.price.stream.coalesced").count() >= 2.0);
+    }
+
+    @Test
+    void testStalledSubscribersAreDroppedWithoutFreezingOthers() throws InterruptedException {
+        // Arrange - as many stalled clients as dispatch threads
+        ReflectionTestUtils.setField(priceStreamService, "sendTimeoutMillis", 200L);
+        when(topOfBookStore.getAll()).thenReturn(List.of());
+        RecordingEmitter stalled1 = new RecordingEmitter(true);
+        RecordingEmitter stalled2 = new RecordingEmitter(true);
+        priceStreamService.subscribe(stalled1);
+        priceStreamService.subscribe(stalled2);
+        assertTrue(stalled1.sending.await(5, TimeUnit.SECONDS));
+        assertTrue(stalled2.sending.await(5, TimeUnit.SECONDS));
+        RecordingEmitter healthy = new RecordingEmitter(false);
+        priceStreamService.subscribe(healthy);
+
+        // Act
+        priceStreamService.publish(quote("ETHUSDT", "3000", 1));
+
+        // Assert
+        awaitPayload(healthy, "id:1");
+        assertEquals(1, priceStreamService.getSubscriberCount());
+        assertEquals(2.0, meterRegistry.counter("trading.price.stream.evicted").count());
+    }
+
+    @Test
+    void testFailedSend_DropsSubscriber() throws InterruptedException {
+        // Arrange
+        when(topOfBookStore.getAll()).thenReturn(List.of());
+        CountDownLatch failed = new CountDownLatch(1);
+        priceStreamService.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                failed.countDown();
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        // Act
+        priceStreamService.publish(quote("ETHUSDT", "3000", 1));
+
+        // Assert
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (priceStreamService.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, priceStreamService.getSubscriberCount());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.market.ReplaySource;
+import com.example.tradingapp.market.Venue;
+import com.example.tradingapp.market.VenueQuote;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplayServiceTest {
+
+    @Mock
+    private PriceAggregationService priceAggregationService;
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private TradeSequencer tradeSequencer;
+
+    @InjectMocks
+    private ReplayService replayService;
+
+    // count quotes, spacingNanos apart
+    private static ReplaySource fixedSource(int count, long spacingNanos) {
+        return new ReplaySource() {
+            private int position = -1;
+
+            @Override
+            public boolean next() {
+                return ++position < count;
+            }
+
+            @Override
+            public VenueQuote quote() {
+                return new VenueQuote(Venue.BINANCE, "ETHUSDT", 2_999L + position, 3_000L + position);
+            }
+
+            @Override
+            public long timestampNanos() {
+                return 5_000_000_000L + position * spacingNanos;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    void testReplay_ScriptedTradesRunBetweenTicks() throws Exception {
+        // Arrange - the second SELL finds no ETH left
+        ReflectionTestUtils.setField(replayService, "executionMode", ExecutionMode.DIRECT);
+        User user = new User();
+        List<ReplayService.TradeStep> steps = ReplayService.TradeStep.parse("2:buy:ethusdt:0.5, 5:SELL:ETHUSDT:0.5");
+        lenient().when(tradeService.executeTrade(eq(user), eq("ETHUSDT"), eq("SELL"), any()))
+                .thenReturn(null)
+                .thenThrow(new IllegalArgumentException("Insufficient ETH balance"));
+
+        // Act
+        ReplayReport report = replayService.replay(fixedSource(10, 1_000_000), "TEST", 0, steps, user);
+
+        // Assert - BUY on ticks 2,4,6,8,10 and SELL on 5,10
+        verify(priceAggregationService, times(10)).onVenueQuote(any());
+        verify(tradeService, times(5)).executeTrade(user, "ETHUSDT", "BUY", new BigDecimal("0.5"));
+        verify(tradeService, times(2)).executeTrade(eq(user), eq("ETHUSDT"), eq("SELL"), any());
+        verifyNoInteractions(tradeSequencer);
+        assertEquals(10, report.getTicks());
+        assertEquals(6, report.getTrades());
+        assertEquals(1, report.getRejectedTrades());
+        assertEquals(10, report.getTickLatency().getCount());
+        assertEquals(7, report.getTradeLatency().getCount());
+        assertSame(report, replayService.getLastReport());
+    }
+
+    @Test
+    void testReplay_SequencedModeGoesThroughSequencer() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(replayService, "executionMode", ExecutionMode.SEQUENCED);
+        User user = new User();
+
+        // Act
+        ReplayReport report = replayService.replay(fixedSource(3, 1_000_000), "TEST", 0,
+                ReplayService.TradeStep.parse("1:BUY:BTCUSDT:0.001"), user);
+
+        // Assert
+        verify(tradeSequencer, times(3)).execute(user, "BTCUSDT", "BUY", new BigDecimal("0.001"));
+        verifyNoInteractions(tradeService);
+        assertEquals(3, report.getTrades());
+    }
+
+    @Test
+    void testReplay_SpeedScalesRecordedSpacing() throws Exception {
+        // Arrange - 6 ticks 40ms apart span 200ms at recorded pace
+        long spacing = TimeUnit.MILLISECONDS.toNanos(40);
+
+        // Act
+        ReplayReport realTime = replayService.replay(fixedSource(6, spacing), "TEST", 1, List.of(), null);
+        ReplayReport accelerated = replayService.replay(fixedSource(6, spacing), "TEST", 4, List.of(), null);
+
+        // Assert
+        long realTimeMillis = TimeUnit.NANOSECONDS.toMillis(realTime.getElapsedNanos());
+        long acceleratedMillis = TimeUnit.NANOSECONDS.toMillis(accelerated.getElapsedNanos());
+        assertTrue(realTimeMillis >= 200, "1x took " + realTimeMillis + "ms");
+        assertTrue(acceleratedMillis >= 50 && acceleratedMillis < 150, "4x took " + acceleratedMillis + "ms");
+        assertThrows(IllegalArgumentException.class,
+                () -> replayService.replay(fixedSource(1, spacing), "TEST", -1, List.of(), null));
+    }
+
+    @Test
+    void testTradeStepParse_RejectsMalformedSteps() {
+        // Act & Assert
+        assertTrue(ReplayService.TradeStep.parse(" ").isEmpty());
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> ReplayService.TradeStep.parse("10:BUY:ETHUSDT:0.1,0:SELL:ETHUSDT:0.1"));
+        assertTrue(exception.getMessage().startsWith("Invalid replay step: 0:SELL:ETHUSDT:0.1"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayService.TradeStep.parse("10:BUY:ETHUSDT"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayService.TradeStep.parse("x:BUY:ETHUSDT:1"));
+    }
+
+    @Test
+    void testLatencyPercentiles() {
+        // Arrange - 1..1000 in reverse order
+        long[] samples = new long[1024];
+        for (int i = 0; i < 1000; i++) {
+            samples[i] = 1000 - i;
+        }
+
+        // Act
+        ReplayReport.Latency latency = ReplayReport.Latency.of(samples, 1000);
+
+        // Assert
+        assertEquals(1000, latency.getCount());
+        assertEquals(500, latency.getP50Nanos());
+        assertEquals(900, latency.getP90Nanos());
+        assertEquals(990, latency.getP99Nanos());
+        assertEquals(999, latency.getP999Nanos());
+        assertEquals(1000, latency.getMaxNanos());
+        assertEquals(0, ReplayReport.Latency.of(new long[0], 0).getCount());
+    }
+}
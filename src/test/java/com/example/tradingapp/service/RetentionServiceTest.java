@@ -0,0 +1,189 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.market.CandleInterval;
+import com.example.tradingapp.market.SymbolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentionServiceTest {
+
+    private RetentionService retentionService;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    private long now;
+    // A whole hour two days back, well past the 24h raw window
+    private long oldHour;
+
+    @BeforeEach
+    void setUp() {
+        // Same column layout Hibernate generates for CryptoPrice and Candle
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:retentiontest;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE crypto_prices (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symbol VARCHAR(255) NOT NULL, bid_price DECIMAL(18,8) NOT NULL, ask_price DECIMAL(18,8) NOT NULL, "
+                + "timestamp TIMESTAMP NOT NULL, source VARCHAR(255) NOT NULL, "
+                + "bid_qty DECIMAL(18,8), ask_qty DECIMAL(18,8))");
+        jdbcTemplate.execute("CREATE TABLE candles (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symbol VARCHAR(255) NOT NULL, source VARCHAR(16) NOT NULL, bar_interval VARCHAR(4) NOT NULL, "
+                + "open_time TIMESTAMP NOT NULL, open_price DECIMAL(18,8) NOT NULL, high_price DECIMAL(18,8) NOT NULL, "
+                + "low_price DECIMAL(18,8) NOT NULL, close_price DECIMAL(18,8) NOT NULL, tick_count INT NOT NULL)");
+
+        SymbolRegistry symbolRegistry = new SymbolRegistry("ETH/USDT", "BTC/USDT");
+        CandleService candleService = new CandleService();
+        ReflectionTestUtils.setField(candleService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(candleService, "symbolRegistry", symbolRegistry);
+
+        meterRegistry = new SimpleMeterRegistry();
+        retentionService = new RetentionService();
+        ReflectionTestUtils.setField(retentionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(retentionService, "candleService", candleService);
+        ReflectionTestUtils.setField(retentionService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(retentionService, "symbolRegistry", symbolRegistry);
+        // Passes are run by hand
+        ReflectionTestUtils.setField(retentionService, "enabled", false);
+        ReflectionTestUtils.setField(retentionService, "rawTicksHours", 24L);
+        ReflectionTestUtils.setField(retentionService, "secondCandleHours", 24L);
+        ReflectionTestUtils.setField(retentionService, "minuteCandleHours", 720L);
+        ReflectionTestUtils.setField(retentionService, "fiveMinuteCandleHours", 4320L);
+        ReflectionTestUtils.setField(retentionService, "hourCandleHours", 0L);
+        ReflectionTestUtils.setField(retentionService, "batchSize", 2);
+        ReflectionTestUtils.setField(retentionService, "batchPauseMillis", 0L);
+        ReflectionTestUtils.setField(retentionService, "maxRowsPerPass", 100_000L);
+        retentionService.start();
+
+        now = System.currentTimeMillis();
+        oldHour = CandleInterval.HOUR.bucketStart(now) - TimeUnit.HOURS.toMillis(48);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE crypto_prices");
+        jdbcTemplate.execute("DROP TABLE candles");
+    }
+
+    private void tick(String symbol, String bid, String ask, long atMillis) {
+        jdbcTemplate.update("INSERT INTO crypto_prices (symbol, bid_price, ask_price, timestamp, source) "
+                + "VALUES (?, ?, ?, ?, 'BINANCE/HUOBI')", symbol, new BigDecimal(bid), new BigDecimal(ask),
+                new Timestamp(atMillis));
+    }
+
+    private void candle(String interval, long openTime) {
+        jdbcTemplate.update("INSERT INTO candles (symbol, source, bar_interval, open_time, open_price, high_price, "
+                + "low_price, close_price, tick_count) VALUES ('ETHUSDT', 'BEST', ?, ?, 1, 1, 1, 1, 1)",
+                interval, new Timestamp(openTime));
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+
+    @Test
+    void testOldTicksRolledUpThenPruned() throws InterruptedException {
+        // Arrange - three ticks over two minutes of an old hour, one recent tick
+        tick("ETHUSDT", "2999", "3001", oldHour + 1_000);
+        tick("ETHUSDT", "3009", "3011", oldHour + 30_000);
+        tick("ETHUSDT", "2989", "2991", oldHour + 61_000);
+        tick("ETHUSDT", "3100", "3102", now - 1_000);
+
+        // Act
+        long pruned = retentionService.runPass(now);
+
+        // Assert - only the recent tick is left
+        assertEquals(3, pruned);
+        assertEquals(1, count("SELECT COUNT(*) FROM crypto_prices"));
+
+        // Two 1m candles, one 5m and one 1h, all BEST, none per second
+        assertEquals(2, count("SELECT COUNT(*) FROM candles WHERE bar_interval = '1m'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM candles WHERE bar_interval = '1s'"));
+        Map<String, Object> hour = jdbcTemplate.queryForMap("SELECT * FROM candles WHERE bar_interval = '1h'");
+        assertEquals("BEST", hour.get("SOURCE"));
+        assertEquals(new Timestamp(oldHour), hour.get("OPEN_TIME"));
+        assertEquals(0, new BigDecimal("3000").compareTo((BigDecimal) hour.get("OPEN_PRICE")));
+        assertEquals(0, new BigDecimal("3010").compareTo((BigDecimal) hour.get("HIGH_PRICE")));
+        assertEquals(0, new BigDecimal("2990").compareTo((BigDecimal) hour.get("LOW_PRICE")));
+        assertEquals(3, hour.get("TICK_COUNT"));
+
+        assertEquals(3.0, meterRegistry.counter("trading.retention.pruned", "table", "crypto_prices").count());
+        assertEquals(4.0, meterRegistry.counter("trading.retention.rolled.up").count());
+        assertEquals(1, meterRegistry.timer("trading.retention.pass").count());
+    }
+
+    @Test
+    void testHourWithLiveCandlesIsNotRolledUpAgain() throws InterruptedException {
+        // Arrange - the live engine already wrote this hour
+        candle("1h", oldHour);
+        tick("ETHUSDT", "2999", "3001", oldHour + 1_000);
+
+        // Act
+        retentionService.runPass(now);
+
+        // Assert
+        assertEquals(0, count("SELECT COUNT(*) FROM crypto_prices"));
+        assertEquals(1, count("SELECT COUNT(*) FROM candles"));
+    }
+
+    @Test
+    void testPassStopsAtRowBudget() throws InterruptedException {
+        // Arrange - 7 old ticks, 2 per delete, 5 per pass
+        ReflectionTestUtils.setField(retentionService, "maxRowsPerPass", 5L);
+        for (int i = 0; i < 7; i++) {
+            tick("BTCUSDT", "50000", "50002", oldHour + i * 1_000L);
+        }
+
+        // Act
+        long first = retentionService.runPass(now);
+        long second = retentionService.runPass(now);
+
+        // Assert - the rest is picked up next time, without rolling the hour up twice
+        assertEquals(5, first);
+        assertEquals(2, second);
+        assertEquals(0, count("SELECT COUNT(*) FROM crypto_prices"));
+        assertEquals(1, count("SELECT COUNT(*) FROM candles WHERE bar_interval = '1h'"));
+    }
+
+    @Test
+    void testCandleTiersPrunedOnTheirOwnWindows() throws InterruptedException {
+        // Arrange - two days old: past the 1s window, inside the 1m window; 1h is kept forever
+        candle("1s", oldHour);
+        candle("1m", oldHour);
+        candle("1h", oldHour - TimeUnit.DAYS.toMillis(400));
+
+        // Act
+        long pruned = retentionService.runPass(now);
+
+        // Assert
+        assertEquals(1, pruned);
+        assertEquals(0, count("SELECT COUNT(*) FROM candles WHERE bar_interval = '1s'"));
+        assertEquals(2, count("SELECT COUNT(*) FROM candles"));
+        assertEquals(1.0, meterRegistry.counter("trading.retention.pruned", "table", "candles").count());
+    }
+
+    @Test
+    void testRecentTicksWithinWindowAreKept() throws InterruptedException {
+        // Arrange - inside the current hour and inside the last 24h
+        tick("ETHUSDT", "2999", "3001", now - TimeUnit.HOURS.toMillis(23));
+        tick("ETHUSDT", "2999", "3001", now);
+
+        // Act
+        long pruned = retentionService.runPass(now);
+
+        // Assert
+        assertEquals(0, pruned);
+        assertEquals(2, count("SELECT COUNT(*) FROM crypto_prices"));
+        assertEquals(0, count("SELECT COUNT(*) FROM candles"));
+    }
+}
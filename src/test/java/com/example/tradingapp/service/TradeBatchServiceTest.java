@@ -0,0 +1,304 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.dto.TradeRequestDTO;
+import com.example.tradingapp.dto.TradeResultDTO;
+import com.example.tradingapp.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TradeBatchServiceTest {
+
+    @Mock
+    private TradeService tradeService;
+
+    @Mock
+    private TradeSequencer tradeSequencer;
+
+    @InjectMocks
+    private TradeBatchService tradeBatchService;
+
+    private User testUser;
+    private final AtomicLong tradeIds = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        ReflectionTestUtils.setField(tradeBatchService, "executionMode", ExecutionMode.DIRECT);
+        ReflectionTestUtils.setField(tradeBatchService, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(tradeBatchService, "maxKeys", 3);
+        ReflectionTestUtils.setField(tradeBatchService, "timeoutMs", 5000L);
+        tradeBatchService.init();
+
+        // Every trade fills, except a quantity of 99 (rejected) and 13 (insert failed)
+        lenient().when(tradeService.executeBatch(eq(testUser), anyList())).thenAnswer(invocation -> {
+            List<TradeRequestDTO> requests = invocation.getArgument(1);
+            List<TradeResultDTO> results = new ArrayList<>();
+            for (TradeRequestDTO request : requests) {
+                results.add(result(request));
+            }
+            return results;
+        });
+    }
+
+    private TradeResultDTO result(TradeRequestDTO request) {
+        if (request.getQuantity().intValue() == 99) {
+            return TradeResultDTO.rejected(request.getIdempotencyKey(), "Insufficient USDT balance");
+        }
+        if (request.getQuantity().intValue() == 13) {
+            return TradeResultDTO.failed(request.getIdempotencyKey(), "insert failed");
+        }
+        TradeDTO trade = new TradeDTO();
+        trade.setId(tradeIds.incrementAndGet());
+        return TradeResultDTO.filled(request.getIdempotencyKey(), trade);
+    }
+
+    private static TradeRequestDTO buy(String quantity, String key) {
+        return new TradeRequestDTO("ETHUSDT", "BUY", new BigDecimal(quantity), key);
+    }
+
+    private static List<Long> tradeIds(List<TradeResultDTO> results) {
+        return results.stream().map(result -> result.getTrade() == null ? null : result.getTrade().getId()).toList();
+    }
+
+    @Test
+    void testRetriedBatchReturnsFirstOutcomes() {
+        // Arrange
+        List<TradeRequestDTO> batch = List.of(buy("1", "a"), buy("99", "b"));
+        List<TradeResultDTO> first = tradeBatchService.execute(testUser, batch);
+
+        // Act
+        List<TradeResultDTO> retry = tradeBatchService.execute(testUser, batch);
+
+        // Assert - the retry trades nothing and gets the same trade and the same rejection
+        verify(tradeService, times(1)).executeBatch(eq(testUser), anyList());
+        assertEquals(tradeIds(first), tradeIds(retry));
+        assertEquals("REJECTED", retry.get(1).getStatus());
+        assertTrue(retry.get(0).isDuplicate());
+        assertFalse(first.get(0).isDuplicate());
+    }
+
+    @Test
+    void testKeyRepeatedWithinBatchExecutesOnce() {
+        // Act
+        List<TradeResultDTO> results = tradeBatchService.execute(testUser,
+                List.of(buy("1", "a"), buy("2", "b"), buy("1", "a"), buy("1", null), buy("1", null)));
+
+        // Assert - unkeyed trades are never deduplicated
+        verify(tradeService).executeBatch(eq(testUser), argThat(requests -> requests.size() == 4));
+        assertEquals(List.of(1L, 2L, 1L, 3L, 4L), tradeIds(results));
+        assertTrue(results.get(2).isDuplicate());
+    }
+
+    @Test
+    void testKeyReusedWithDifferentRequestIsRejected() {
+        // Arrange
+        tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+
+        // Act - same trade spelled differently, then a different quantity and side under the same key
+        List<TradeResultDTO> results = tradeBatchService.execute(testUser, List.of(
+                new TradeRequestDTO("ETHUSDT", "buy", new BigDecimal("1.00"), "a"),
+                buy("2", "a"),
+                new TradeRequestDTO("ETHUSDT", "SELL", new BigDecimal("1"), "a")));
+
+        // Assert
+        verify(tradeService, times(1)).executeBatch(eq(testUser), anyList());
+        assertTrue(results.get(0).isDuplicate());
+        assertEquals(List.of(1L), tradeIds(results.subList(0, 1)));
+        for (TradeResultDTO result : results.subList(1, 3)) {
+            assertEquals("REJECTED", result.getStatus());
+            assertEquals(TradeBatchService.KEY_REUSED_MESSAGE, result.getError());
+            assertFalse(result.isDuplicate());
+        }
+    }
+
+    @Test
+    void testInvalidQuantityRejectedBeforeItsKeyIsTaken() {
+        // Act
+        List<TradeResultDTO> invalid = tradeBatchService.execute(testUser, List.of(
+                new TradeRequestDTO("ETHUSDT", "BUY", null, "a"), buy("0", "b"), buy("-1", "c")));
+        List<TradeResultDTO> corrected = tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+
+        // Assert - nothing reached execution, and the corrected retry trades
+        for (TradeResultDTO result : invalid) {
+            assertEquals("REJECTED", result.getStatus());
+            assertEquals(TradeService.INVALID_QUANTITY_MESSAGE, result.getError());
+        }
+        verify(tradeService, times(1)).executeBatch(eq(testUser), anyList());
+        assertEquals("FILLED", corrected.get(0).getStatus());
+        assertFalse(corrected.get(0).isDuplicate());
+    }
+
+    @Test
+    void testFailedTradeIsRetried() {
+        // Arrange
+        tradeBatchService.execute(testUser, List.of(buy("13", "a")));
+
+        // Act
+        List<TradeResultDTO> retry = tradeBatchService.execute(testUser, List.of(buy("13", "a")));
+
+        // Assert
+        verify(tradeService, times(2)).executeBatch(eq(testUser), anyList());
+        assertEquals("FAILED", retry.get(0).getStatus());
+        assertFalse(retry.get(0).isDuplicate());
+    }
+
+    @Test
+    void testKeysAreScopedPerUserAndBounded() {
+        // Arrange
+        User otherUser = new User();
+        otherUser.setId(2L);
+        when(tradeService.executeBatch(eq(otherUser), anyList())).thenAnswer(invocation ->
+                List.of(result(invocation.<List<TradeRequestDTO>>getArgument(1).get(0))));
+        tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+
+        // Act - the same key for another user, then enough keys to push "a" out
+        List<TradeResultDTO> other = tradeBatchService.execute(otherUser, List.of(buy("1", "a")));
+        tradeBatchService.execute(testUser, List.of(buy("1", "b"), buy("1", "c"), buy("1", "d")));
+        List<TradeResultDTO> evicted = tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+
+        // Assert
+        assertFalse(other.get(0).isDuplicate());
+        assertFalse(evicted.get(0).isDuplicate());
+        assertEquals(List.of(6L), tradeIds(evicted));
+    }
+
+    @Test
+    void testKeyStillRunningIsNotEvicted() throws Exception {
+        // Arrange - "a" blocks inside execution while enough newer keys arrive to push it out
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(tradeService.executeBatch(eq(testUser), anyList())).thenAnswer(invocation -> {
+            List<TradeRequestDTO> requests = invocation.getArgument(1);
+            if ("a".equals(requests.get(0).getIdempotencyKey())) {
+                executing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            List<TradeResultDTO> results = new ArrayList<>();
+            for (TradeRequestDTO request : requests) {
+                results.add(result(request));
+            }
+            return results;
+        });
+        CompletableFuture<List<TradeResultDTO>> first = CompletableFuture.supplyAsync(
+                () -> tradeBatchService.execute(testUser, List.of(buy("1", "a"))));
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+        tradeBatchService.execute(testUser, List.of(buy("1", "b"), buy("1", "c"), buy("1", "d")));
+        tradeBatchService.execute(testUser, List.of(buy("1", "e")));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        // Act
+        List<TradeResultDTO> retry = tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+
+        // Assert - "a" outlived older finished keys and its retry trades nothing
+        assertTrue(retry.get(0).isDuplicate());
+        assertEquals(tradeIds(first.get()), tradeIds(retry));
+        verify(tradeService, times(3)).executeBatch(eq(testUser), anyList());
+    }
+
+    @Test
+    void testSequencedModeSubmitsEachTrade() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeBatchService, "executionMode", ExecutionMode.SEQUENCED);
+        TradeDTO trade = new TradeDTO();
+        trade.setId(7L);
+        when(tradeSequencer.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("1")))
+                .thenReturn(CompletableFuture.completedFuture(trade));
+        when(tradeSequencer.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("100")))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("Insufficient USDT balance")));
+
+        // Act
+        List<TradeResultDTO> results = tradeBatchService.execute(testUser, List.of(buy("1", "a"), buy("100", "b")));
+
+        // Assert
+        assertEquals(7L, results.get(0).getTrade().getId());
+        assertEquals("REJECTED", results.get(1).getStatus());
+        assertEquals("Insufficient USDT balance", results.get(1).getError());
+        verify(tradeService, never()).executeBatch(any(), anyList());
+    }
+
+    @Test
+    void testSequencedTradeNotStartedInTimeIsDroppedAndForgotten() {
+        // Arrange - the sequencer never gets to the first submission
+        ReflectionTestUtils.setField(tradeBatchService, "executionMode", ExecutionMode.SEQUENCED);
+        ReflectionTestUtils.setField(tradeBatchService, "timeoutMs", 50L);
+        CompletableFuture<TradeDTO> stuck = new CompletableFuture<>();
+        TradeDTO trade = new TradeDTO();
+        trade.setId(7L);
+        when(tradeSequencer.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("1")))
+                .thenReturn(stuck)
+                .thenReturn(CompletableFuture.completedFuture(trade));
+        when(tradeSequencer.expire(stuck, TradeBatchService.TIMEOUT_MESSAGE)).thenReturn(true);
+
+        // Act
+        List<TradeResultDTO> timedOut = tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+        List<TradeResultDTO> retry = tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+
+        // Assert - the dropped trade's key is not kept, so the retry executes
+        assertEquals("REJECTED", timedOut.get(0).getStatus());
+        assertEquals(TradeBatchService.TIMEOUT_MESSAGE, timedOut.get(0).getError());
+        assertEquals(7L, retry.get(0).getTrade().getId());
+        assertFalse(retry.get(0).isDuplicate());
+    }
+
+    @Test
+    void testRetryWaitsForKeyStillRunningElsewhereOnlyUntilTimeout() throws Exception {
+        // Arrange - the first submission of "a" blocks inside execution
+        ReflectionTestUtils.setField(tradeBatchService, "timeoutMs", 50L);
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(tradeService.executeBatch(eq(testUser), anyList())).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(result(invocation.<List<TradeRequestDTO>>getArgument(1).get(0)));
+        });
+        CompletableFuture<List<TradeResultDTO>> first = CompletableFuture.supplyAsync(
+                () -> tradeBatchService.execute(testUser, List.of(buy("1", "a"))));
+        assertTrue(executing.await(5, TimeUnit.SECONDS));
+
+        // Act
+        List<TradeResultDTO> retry = tradeBatchService.execute(testUser, List.of(buy("1", "a")));
+        release.countDown();
+
+        // Assert - the retry gives up instead of blocking, and the first submission still fills
+        assertEquals("REJECTED", retry.get(0).getStatus());
+        assertEquals(TradeBatchService.IN_FLIGHT_MESSAGE, retry.get(0).getError());
+        assertEquals("FILLED", first.get(5, TimeUnit.SECONDS).get(0).getStatus());
+        verify(tradeService, times(1)).executeBatch(eq(testUser), anyList());
+    }
+
+    @Test
+    void testBatchLimits() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tradeBatchService.execute(testUser, List.of()));
+        List<TradeRequestDTO> tooMany = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            tooMany.add(buy("1", "k" + i));
+        }
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> tradeBatchService.execute(testUser, tooMany));
+        assertEquals("Batch of 11 trades exceeds the limit of 10", exception.getMessage());
+        String longKey = "x".repeat(TradeBatchService.MAX_KEY_LENGTH + 1);
+        assertEquals("REJECTED", tradeBatchService.execute(testUser, List.of(buy("1", longKey))).get(0).getStatus());
+    }
+}
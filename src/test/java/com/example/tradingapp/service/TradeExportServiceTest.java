@@ -0,0 +1,94 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeExportServiceTest {
+
+    private TradeExportService exportService;
+    private JdbcTemplate jdbcTemplate;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Same column layout Hibernate generates for Trade
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:exporttest;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE trades (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                + "symbol VARCHAR(255) NOT NULL, type VARCHAR(255) NOT NULL, quantity DECIMAL(18,8) NOT NULL, "
+                + "price DECIMAL(18,8) NOT NULL, total_amount DECIMAL(18,2) NOT NULL, "
+                + "timestamp TIMESTAMP NOT NULL, status VARCHAR(255))");
+        insert(1, "ETHUSDT", "BUY", "0.5", "3000", "1500", "2024-01-01 10:00:00");
+        insert(1, "BTCUSDT", "SELL", "0.01", "50000.5", "500.01", "2024-01-01 11:00:00");
+        insert(2, "ETHUSDT", "BUY", "1", "3000", "3000", "2024-01-01 10:30:00");
+        insert(1, "ETHUSDT", "SELL", "0.5", "3100", "1550", "2024-01-01 09:00:00");
+
+        user = new User();
+        user.setId(1L);
+        exportService = new TradeExportService();
+        ReflectionTestUtils.setField(exportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(exportService, "fetchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE trades");
+    }
+
+    private void insert(long userId, String symbol, String type, String quantity, String price, String total,
+                        String timestamp) {
+        jdbcTemplate.update("INSERT INTO trades (user_id, symbol, type, quantity, price, total_amount, timestamp, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, 'COMPLETED')", userId, symbol, type, quantity, price, total, timestamp);
+    }
+
+    private String export(String symbol, TradeExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(user, symbol, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testNdjsonExport_OneTradePerLineOldestFirst() throws IOException {
+        // Act
+        String[] lines = export(null, TradeExportService.Format.NDJSON).split("\n");
+
+        // Assert - only this user's trades, across more than one fetch
+        assertEquals(3, lines.length);
+        assertEquals("{\"id\":4,\"symbol\":\"ETHUSDT\",\"type\":\"SELL\",\"quantity\":0.50000000,"
+                + "\"price\":3100.00000000,\"totalAmount\":1550.00,\"timestamp\":\"2024-01-01T09:00\","
+                + "\"status\":\"COMPLETED\"}", lines[0]);
+        assertTrue(lines[2].startsWith("{\"id\":2,\"symbol\":\"BTCUSDT\""));
+    }
+
+    @Test
+    void testCsvExport_HeaderAndSymbolFilter() throws IOException {
+        // Act
+        String[] lines = export("BTCUSDT", TradeExportService.Format.CSV).split("\n");
+
+        // Assert
+        assertEquals(2, lines.length);
+        assertEquals(TradeExportService.CSV_HEADER, lines[0]);
+        assertEquals("2,BTCUSDT,SELL,0.01000000,50000.50000000,500.01,2024-01-01T11:00,COMPLETED", lines[1]);
+    }
+
+    @Test
+    void testUnsupportedFormat() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> TradeExportService.Format.parse("xml"));
+        assertEquals("Unsupported export format: xml", exception.getMessage());
+        assertEquals(TradeExportService.Format.CSV, TradeExportService.Format.parse("CSV"));
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.entity.Trade;
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.entity.Wallet;
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.TradeRepository;
+import com.example.tradingapp.repository.WalletRepository;
+import com.example.tradingapp.util.FixedPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TradeSequencerTest {
+
+    private TradeSequencer sequencer;
+    private TradeService tradeService;
+    private TradingMetrics tradingMetrics;
+    private TradeRepository tradeRepository;
+    private WalletLedger walletLedger;
+    private SimpleMeterRegistry meterRegistry;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+
+        Wallet usdtWallet = new Wallet();
+        usdtWallet.setId(1L);
+        usdtWallet.setUser(testUser);
+        usdtWallet.setCurrency("USDT");
+        usdtWallet.setBalance(new BigDecimal("50000"));
+        usdtWallet.setAvailableBalance(new BigDecimal("50000"));
+        WalletRepository walletRepository = mock(WalletRepository.class);
+        when(walletRepository.findByUserId(testUser.getId())).thenReturn(List.of(usdtWallet));
+
+        TopOfBookStore topOfBookStore = mock(TopOfBookStore.class);
+        when(topOfBookStore.getTradable("ETHUSDT")).thenReturn(new BookQuote("ETHUSDT", FixedPoint.parse("2999"),
+                FixedPoint.parse("3000"), "BINANCE", "BINANCE", LocalDateTime.now(), System.currentTimeMillis(), 1L));
+
+        // Real ledger and trade service; the ledger's writer is not started
+        meterRegistry = new SimpleMeterRegistry();
+        tradingMetrics = new TradingMetrics(meterRegistry);
+        walletLedger = new WalletLedger();
+        ReflectionTestUtils.setField(walletLedger, "walletRepository", walletRepository);
+        ReflectionTestUtils.setField(walletLedger, "tradingMetrics", tradingMetrics);
+        tradeRepository = mock(TradeRepository.class);
+        tradeService = new TradeService();
+        ReflectionTestUtils.setField(tradeService, "tradeRepository", tradeRepository);
+        ReflectionTestUtils.setField(tradeService, "walletLedger", walletLedger);
+        ReflectionTestUtils.setField(tradeService, "topOfBookStore", topOfBookStore);
+        ReflectionTestUtils.setField(tradeService, "symbolRegistry", new SymbolRegistry("ETH/USDT", "BTC/USDT"));
+        ReflectionTestUtils.setField(tradeService, "tradingMetrics", tradingMetrics);
+
+        sequencer = newSequencer();
+        sequencer.start();
+    }
+
+    private TradeSequencer newSequencer() {
+        TradeSequencer sequencer = new TradeSequencer();
+        ReflectionTestUtils.setField(sequencer, "tradeService", tradeService);
+        ReflectionTestUtils.setField(sequencer, "walletLedger", walletLedger);
+        ReflectionTestUtils.setField(sequencer, "tradeRepository", tradeRepository);
+        ReflectionTestUtils.setField(sequencer, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(sequencer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(sequencer, "tradingMetrics", tradingMetrics);
+        ReflectionTestUtils.setField(sequencer, "executionMode", ExecutionMode.SEQUENCED);
+        ReflectionTestUtils.setField(sequencer, "capacity", 64);
+        ReflectionTestUtils.setField(sequencer, "batchSize", 8);
+        ReflectionTestUtils.setField(sequencer, "timeoutMs", 5000L);
+        return sequencer;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sequencer.stop();
+    }
+
+    private BigDecimal availableBalance(String currency) {
+        return walletLedger.getWallet(testUser, currency).orElseThrow().getAvailableBalance();
+    }
+
+    @Test
+    void testTradesApplyInSequenceOrder() throws Exception {
+        // Arrange - 50000 USDT covers exactly 16 buys at 3000
+        when(tradeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<CompletableFuture<TradeDTO>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            futures.add(sequencer.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("1")));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .get(5, TimeUnit.SECONDS);
+
+        // Assert - the first 16 in submission order fill, the rest are rejected
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i >= 16, futures.get(i).isCompletedExceptionally(), "trade " + i);
+        }
+        assertEquals(new BigDecimal("2000"), availableBalance("USDT"));
+        assertEquals(new BigDecimal("16"), availableBalance("ETH"));
+        assertEquals(new BigDecimal("3000"), futures.get(0).get().getPrice());
+        verify(tradeRepository, never()).save(any(Trade.class));
+        assertEquals(16, meterRegistry.get("trading.trade.execute")
+                .tags("mode", "sequenced", "type", "BUY", "outcome", "filled").timer().count());
+        assertEquals(4.0, meterRegistry.get("trading.trade.rejected").tag("reason", "insufficient-balance").counter().count());
+    }
+
+    @Test
+    void testFailedBatchInsertReversesBalances() {
+        // Arrange
+        when(tradeRepository.saveAll(anyList())).thenThrow(new IllegalStateException("insert failed"));
+
+        // Act
+        CompletableFuture<TradeDTO> future = sequencer.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("1"));
+
+        // Assert
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertEquals("insert failed", exception.getCause().getMessage());
+        assertEquals(new BigDecimal("50000"), availableBalance("USDT"));
+        assertEquals(BigDecimal.ZERO, availableBalance("ETH"));
+    }
+
+    @Test
+    void testExecuteGivesUpOnATradeTheSequencerHasNotReached() throws Exception {
+        // Arrange - the first batch's insert blocks, holding up everything queued behind it
+        ReflectionTestUtils.setField(sequencer, "timeoutMs", 100L);
+        CountDownLatch insertStarted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        when(tradeRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            insertStarted.countDown();
+            releaseInsert.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        CompletableFuture<TradeDTO> first = sequencer.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("1"));
+        assertTrue(insertStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Exception exception = assertThrows(IllegalStateException.class,
+                () -> sequencer.execute(testUser, "ETHUSDT", "BUY", new BigDecimal("2")));
+        releaseInsert.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        // A trade submitted after it is only settled once the sequencer has moved past the dropped one
+        sequencer.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("1")).get(5, TimeUnit.SECONDS);
+
+        // Assert - the timed-out trade was never settled
+        assertEquals("Trade was not executed within 100ms, try again", exception.getMessage());
+        assertEquals(new BigDecimal("44000"), availableBalance("USDT"));
+        assertEquals(new BigDecimal("2"), availableBalance("ETH"));
+        assertEquals(1.0, meterRegistry.get("trading.trade.rejected").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void testStopLeavesNoTradeUnanswered() throws Exception {
+        // Arrange
+        when(tradeRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 20; round++) {
+                TradeSequencer stopping = newSequencer();
+                stopping.start();
+                Queue<CompletableFuture<TradeDTO>> futures = new ConcurrentLinkedQueue<>();
+                AtomicBoolean stopped = new AtomicBoolean();
+                CountDownLatch submitting = new CountDownLatch(4);
+                CountDownLatch done = new CountDownLatch(4);
+                for (int i = 0; i < 4; i++) {
+                    producers.execute(() -> {
+                        submitting.countDown();
+                        while (!stopped.get()) {
+                            futures.add(stopping.submit(testUser, "ETHUSDT", "BUY", new BigDecimal("0.001")));
+                        }
+                        done.countDown();
+                    });
+                }
+                submitting.await();
+
+                // Act - stop while the producers are still submitting
+                stopping.stop();
+                stopped.set(true);
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+
+                // Assert - every trade, claimed before or after the stop, got an outcome
+                for (CompletableFuture<TradeDTO> future : futures) {
+                    future.exceptionally(e -> null).get(5, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            producers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRefusesToStartOnVirtualThreads() {
+        // Arrange
+        TradeSequencer virtual = new TradeSequencer();
+        ReflectionTestUtils.setField(virtual, "executionMode", ExecutionMode.SEQUENCED);
+        ReflectionTestUtils.setField(virtual, "virtualThreads", true);
+
+        // Act & Assert - Spring Boot ignores the setting before Java 21
+        if (Runtime.version().feature() >= 21) {
+            assertThrows(IllegalStateException.class, virtual::start);
+        } else {
+            ReflectionTestUtils.setField(virtual, "capacity", 3);
+            Exception exception = assertThrows(IllegalStateException.class, virtual::start);
+            assertEquals("trading.sequencer.capacity must be a power of two: 3", exception.getMessage());
+        }
+    }
+
+    @Test
+    void testExecuteThrowsTheTradesOwnException() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> sequencer.execute(testUser, "INVALID", "BUY", new BigDecimal("1")));
+        assertEquals("Invalid trading symbol: INVALID", exception.getMessage());
+    }
+}
@@ -1,23 +1,41 @@
 package com.example.tradingapp.service;
 
 import com.example.tradingapp.dto.TradeDTO;
+import com.example.tradingapp.dto.TradePageDTO;
+import com.example.tradingapp.dto.TradeRequestDTO;
+import com.example.tradingapp.dto.TradeResultDTO;
 import com.example.tradingapp.dto.WalletDTO;
-import com.example.tradingapp.entity.CryptoPrice;
 import com.example.tradingapp.entity.User;
 import com.example.tradingapp.entity.Wallet;
-import com.example.tradingapp.repository.CryptoPriceRepository;
+import com.example.tradingapp.market.BookQuote;
+import com.example.tradingapp.market.SymbolRegistry;
+import com.example.tradingapp.market.TopOfBookStore;
+import com.example.tradingapp.metrics.TradingMetrics;
 import com.example.tradingapp.repository.TradeRepository;
 import com.example.tradingapp.repository.WalletRepository;
+import com.example.tradingapp.util.FixedPoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,15 +51,25 @@ class TradeServiceTest {
     private WalletRepository walletRepository;
 
     @Mock
-    private CryptoPriceRepository cryptoPriceRepository;
+    private TopOfBookStore topOfBookStore;
+
+    @Spy
+    private SymbolRegistry symbolRegistry = new SymbolRegistry("ETH/USDT", "BTC/USDT");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private TradingMetrics tradingMetrics = new TradingMetrics(meterRegistry);
 
     @InjectMocks
     private TradeService tradeService;
 
+        private WalletLedger walletLedger;
+
         private User testUser;
         private Wallet usdtWallet;
         private Wallet ethWallet;
-        private CryptoPrice ethPrice;
+        private BookQuote ethPrice;
 
     @BeforeEach
         void setUp() {
@@ -68,23 +96,27 @@ class TradeServiceTest {
                 ethWallet.setAvailableBalance(BigDecimal.ZERO);
 
                 // Create ETH price data
-                ethPrice = new CryptoPrice();
-                ethPrice.setId(1L);
-                ethPrice.setSymbol("ETHUSDT");
-                ethPrice.setAskPrice(new BigDecimal("3000"));
-                ethPrice.setBidPrice(new BigDecimal("2999"));
-                ethPrice.setTimestamp(LocalDateTime.now());
+                ethPrice = new BookQuote("ETHUSDT", FixedPoint.parse("2999"), FixedPoint.parse("3000"), "BINANCE", "BINANCE",
+                        LocalDateTime.now(), System.currentTimeMillis(), 1L);
+
+                // Real ledger over the mocked repository; its writer is not started
+                walletLedger = new WalletLedger();
+                ReflectionTestUtils.setField(walletLedger, "walletRepository", walletRepository);
+                ReflectionTestUtils.setField(walletLedger, "tradingMetrics", tradingMetrics);
+                ReflectionTestUtils.setField(tradeService, "walletLedger", walletLedger);
+        }
+
+        private BigDecimal availableBalance(String currency) {
+                return walletLedger.getWallet(testUser, currency).orElseThrow().getAvailableBalance();
         }
 
     @Test
     void testExecuteBuyTrade_Success() {
         // Arrange
-        when(cryptoPriceRepository.findLatestBySymbol("ETHUSDT"))
-                .thenReturn(Optional.of(ethPrice));
-        when(walletRepository.findByUserAndCurrency(testUser, "USDT"))
-                .thenReturn(Optional.of(usdtWallet));
-        when(walletRepository.findByUserAndCurrency(testUser, "ETH"))
-                .thenReturn(Optional.of(ethWallet));
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, ethWallet));
         when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
                 .thenAnswer(invocation -> {
                     com.example.tradingapp.entity.Trade trade = invocation.getArgument(0);
@@ -102,9 +134,15 @@ class TradeServiceTest {
         assertEquals(new BigDecimal("1"), trade.getQuantity());
         assertEquals(new BigDecimal("3000"), trade.getPrice());
 
-        // Verify repository calls
-        verify(walletRepository, times(2)).save(any(Wallet.class));
+        // Balances move in the ledger; the wallets table is left to its writer
+        assertEquals(new BigDecimal("47000"), availableBalance("USDT"));
+        assertEquals(new BigDecimal("1"), availableBalance("ETH"));
+        verify(walletRepository, never()).save(any(Wallet.class));
         verify(tradeRepository).save(any(com.example.tradingapp.entity.Trade.class));
+        assertEquals(1, meterRegistry.get("trading.trade.execute")
+                .tags("mode", "direct", "type", "BUY", "outcome", "filled").timer().count());
+        assertEquals(1, meterRegistry.get("trading.trade.quote.age").timer().count());
+        assertEquals(1, tradeService.historyVersion(testUser));
     }
 
     @Test
@@ -117,16 +155,20 @@ class TradeServiceTest {
         lowUSDT.setBalance(new BigDecimal("500"));
         lowUSDT.setAvailableBalance(new BigDecimal("500"));
 
-        when(cryptoPriceRepository.findLatestBySymbol("ETHUSDT"))
-                .thenReturn(Optional.of(ethPrice));
-        when(walletRepository.findByUserAndCurrency(testUser, "USDT"))
-                .thenReturn(Optional.of(lowUSDT));
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(lowUSDT));
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
             tradeService.executeTrade(testUser, "ETHUSDT", "BUY", new BigDecimal("1"));
         });
         assertEquals("Insufficient USDT balance", exception.getMessage());
+        assertEquals(1.0, meterRegistry.get("trading.trade.rejected").tag("reason", "insufficient-balance").counter().count());
+        assertEquals(0, tradeService.historyVersion(testUser));
+        assertEquals(1, meterRegistry.get("trading.trade.execute")
+                .tags("mode", "direct", "type", "BUY", "outcome", "rejected").timer().count());
     }
 
     @Test
@@ -136,13 +178,26 @@ class TradeServiceTest {
             tradeService.executeTrade(testUser, "INVALID", "BUY", new BigDecimal("1"));
         });
         assertEquals("Invalid trading symbol: INVALID", exception.getMessage());
+        assertEquals(1.0, meterRegistry.get("trading.trade.rejected").tag("reason", "invalid-symbol").counter().count());
+    }
+
+    @Test
+    void testExecuteTrade_InvalidQuantity() {
+        // Act & Assert - missing, zero and negative quantities never reach pricing
+        for (BigDecimal quantity : new BigDecimal[] {null, BigDecimal.ZERO, new BigDecimal("-1")}) {
+            Exception exception = assertThrows(IllegalArgumentException.class,
+                    () -> tradeService.executeTrade(testUser, "ETHUSDT", "BUY", quantity));
+            assertEquals(TradeService.INVALID_QUANTITY_MESSAGE, exception.getMessage());
+        }
+        assertEquals(3.0, meterRegistry.get("trading.trade.rejected").tag("reason", "invalid-quantity").counter().count());
+        verifyNoInteractions(topOfBookStore, tradeRepository);
     }
 
     @Test
     void testExecuteBuyTrade_NoPriceData() {
         // Arrange
-        when(cryptoPriceRepository.findLatestBySymbol("ETHUSDT"))
-                .thenReturn(Optional.empty());
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenThrow(new IllegalArgumentException("No price data available for symbol: ETHUSDT"));
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -161,12 +216,10 @@ class TradeServiceTest {
         ethWithBalance.setBalance(new BigDecimal("2"));
         ethWithBalance.setAvailableBalance(new BigDecimal("2"));
 
-        when(cryptoPriceRepository.findLatestBySymbol("ETHUSDT"))
-                .thenReturn(Optional.of(ethPrice));
-        when(walletRepository.findByUserAndCurrency(testUser, "ETH"))
-                .thenReturn(Optional.of(ethWithBalance));
-        when(walletRepository.findByUserAndCurrency(testUser, "USDT"))
-                .thenReturn(Optional.of(usdtWallet));
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, ethWithBalance));
         when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
                 .thenAnswer(invocation -> {
                     com.example.tradingapp.entity.Trade trade = invocation.getArgument(0);
@@ -184,7 +237,8 @@ class TradeServiceTest {
         assertEquals(new BigDecimal("1"), trade.getQuantity());
         assertEquals(new BigDecimal("2999"), trade.getPrice()); // Bid price
 
-        verify(walletRepository, times(2)).save(any(Wallet.class));
+        assertEquals(new BigDecimal("52999"), availableBalance("USDT"));
+        assertEquals(new BigDecimal("1"), availableBalance("ETH"));
         verify(tradeRepository).save(any(com.example.tradingapp.entity.Trade.class));
     }
 
@@ -198,10 +252,10 @@ class TradeServiceTest {
         lowEth.setBalance(new BigDecimal("0.5"));
         lowEth.setAvailableBalance(new BigDecimal("0.5"));
 
-        when(cryptoPriceRepository.findLatestBySymbol("ETHUSDT"))
-                .thenReturn(Optional.of(ethPrice));
-        when(walletRepository.findByUserAndCurrency(testUser, "ETH"))
-                .thenReturn(Optional.of(lowEth));
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, lowEth));
 
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -214,12 +268,10 @@ class TradeServiceTest {
     void testBuyTradeUpdatesUSDTBalance() {
         // Arrange
         BigDecimal quantity = new BigDecimal("2");
-        when(cryptoPriceRepository.findLatestBySymbol("ETHUSDT"))
-                .thenReturn(Optional.of(ethPrice));
-        when(walletRepository.findByUserAndCurrency(testUser, "USDT"))
-                .thenReturn(Optional.of(usdtWallet));
-        when(walletRepository.findByUserAndCurrency(testUser, "ETH"))
-                .thenReturn(Optional.of(ethWallet));
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, ethWallet));
         when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -229,19 +281,17 @@ class TradeServiceTest {
         tradeService.executeTrade(testUser, "ETHUSDT", "BUY", quantity);
 
         // Assert
-        assertEquals(expectedUSDTBalance, usdtWallet.getAvailableBalance());
+        assertEquals(expectedUSDTBalance, availableBalance("USDT"));
     }
 
     @Test
     void testBuyTradeUpdatesETHBalance() {
         // Arrange
         BigDecimal quantity = new BigDecimal("2");
-        when(cryptoPriceRepository.findLatestBySymbol("ETHUSDT"))
-                .thenReturn(Optional.of(ethPrice));
-        when(walletRepository.findByUserAndCurrency(testUser, "USDT"))
-                .thenReturn(Optional.of(usdtWallet));
-        when(walletRepository.findByUserAndCurrency(testUser, "ETH"))
-                .thenReturn(Optional.of(ethWallet));
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, ethWallet));
         when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -249,6 +299,277 @@ class TradeServiceTest {
         tradeService.executeTrade(testUser, "ETHUSDT", "BUY", quantity);
 
         // Assert
-        assertEquals(quantity, ethWallet.getAvailableBalance());
+        assertEquals(quantity, availableBalance("ETH"));
+    }
+
+    @Test
+    void testBuyTrade_CreatesMissingCryptoWallet() {
+        // Arrange - user only holds USDT
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet));
+        when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        tradeService.executeTrade(testUser, "ETHUSDT", "BUY", new BigDecimal("0.5"));
+
+        // Assert
+        assertEquals(new BigDecimal("0.5"), availableBalance("ETH"));
+        assertNull(walletLedger.getWallet(testUser, "ETH").orElseThrow().getId());
+    }
+
+    @Test
+    void testFailedTradeInsertRestoresBalances() {
+        // Arrange
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet));
+        when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
+                .thenThrow(new IllegalStateException("insert failed"));
+
+        // Act
+        assertThrows(IllegalStateException.class,
+                () -> tradeService.executeTrade(testUser, "ETHUSDT", "BUY", new BigDecimal("1")));
+
+        // Assert - neither leg of the settlement survives
+        assertEquals(new BigDecimal("50000"), availableBalance("USDT"));
+        assertFalse(walletLedger.hasWallet(testUser, "ETH"));
+    }
+
+    @Test
+    void testConcurrentBuysNeverOverdraw() throws InterruptedException {
+        // Arrange - 50000 USDT covers exactly 16 buys at 3000
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, ethWallet));
+        when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        AtomicInteger filled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 40; i++) {
+            executor.execute(() -> {
+                try {
+                    tradeService.executeTrade(testUser, "ETHUSDT", "BUY", new BigDecimal("1"));
+                    filled.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(16, filled.get());
+        assertEquals(24, rejected.get());
+        assertEquals(new BigDecimal("2000"), availableBalance("USDT"));
+        assertEquals(new BigDecimal("16"), availableBalance("ETH"));
+    }
+
+    @Test
+    void testConcurrentTradesCommitInTimestampOrder() throws InterruptedException {
+        // Arrange - ids are assigned at insert, and the list holds rows in commit order
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, ethWallet));
+        AtomicLong ids = new AtomicLong();
+        List<com.example.tradingapp.entity.Trade> committed = Collections.synchronizedList(new ArrayList<>());
+        when(tradeRepository.save(any(com.example.tradingapp.entity.Trade.class)))
+                .thenAnswer(invocation -> {
+                    com.example.tradingapp.entity.Trade trade = invocation.getArgument(0);
+                    trade.setId(ids.incrementAndGet());
+                    committed.add(trade);
+                    return trade;
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 400; i++) {
+            executor.execute(() -> tradeService.executeTrade(testUser, "ETHUSDT", "BUY", new BigDecimal("0.01")));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert - a since cursor taken after any commit never passes over a trade committed later
+        assertEquals(400, committed.size());
+        for (int i = 1; i < committed.size(); i++) {
+            com.example.tradingapp.entity.Trade previous = committed.get(i - 1);
+            com.example.tradingapp.entity.Trade trade = committed.get(i);
+            assertFalse(trade.getTimestamp().isBefore(previous.getTimestamp()),
+                    "trade " + trade.getId() + " committed after " + previous.getId() + " with an older timestamp");
+        }
+    }
+
+    private static TradeRequestDTO request(String type, String quantity, String key) {
+        return new TradeRequestDTO("ETHUSDT", type, new BigDecimal(quantity), key);
+    }
+
+    @Test
+    void testExecuteBatch_OneQuoteAndOneInsertForTheBatch() {
+        // Arrange - 50000 USDT covers the first two buys but not the third
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet, ethWallet));
+        when(tradeRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<TradeResultDTO> results = tradeService.executeBatch(testUser, List.of(
+                request("BUY", "10", "a"), request("BUY", "6", "b"), request("BUY", "1", "c"),
+                request("SELL", "2", "d"), new TradeRequestDTO("INVALID", "BUY", BigDecimal.ONE, "e")));
+
+        // Assert - per-trade results in request order; later trades see earlier fills
+        assertEquals(List.of("FILLED", "FILLED", "REJECTED", "FILLED", "REJECTED"),
+                results.stream().map(TradeResultDTO::getStatus).toList());
+        assertEquals(List.of("a", "b", "c", "d", "e"),
+                results.stream().map(TradeResultDTO::getIdempotencyKey).toList());
+        assertEquals("Insufficient USDT balance", results.get(2).getError());
+        assertEquals("Invalid trading symbol: INVALID", results.get(4).getError());
+        assertEquals(new BigDecimal("2999"), results.get(3).getTrade().getPrice());
+        assertEquals(new BigDecimal("7998"), availableBalance("USDT"));
+        assertEquals(new BigDecimal("14"), availableBalance("ETH"));
+        verify(topOfBookStore, times(1)).getTradable("ETHUSDT");
+        verify(tradeRepository, times(1)).saveAll(argThat(trades -> ((List<?>) trades).size() == 3));
+        verify(tradeRepository, never()).save(any(com.example.tradingapp.entity.Trade.class));
+        assertEquals(2, meterRegistry.get("trading.trade.execute")
+                .tags("mode", "batch", "type", "BUY", "outcome", "filled").timer().count());
+    }
+
+    @Test
+    void testExecuteBatch_FailedInsertReversesTheWholeBatch() {
+        // Arrange
+        when(topOfBookStore.getTradable("ETHUSDT"))
+                .thenReturn(ethPrice);
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet));
+        when(tradeRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("insert failed"));
+
+        // Act
+        List<TradeResultDTO> results = tradeService.executeBatch(testUser, List.of(
+                request("BUY", "1", "a"), request("SELL", "0.5", "b"), request("BUY", "100", "c")));
+
+        // Assert - rejected trades keep their own reason, settled ones are undone
+        assertEquals(List.of("FAILED", "FAILED", "REJECTED"),
+                results.stream().map(TradeResultDTO::getStatus).toList());
+        assertEquals("insert failed", results.get(0).getError());
+        assertEquals(new BigDecimal("50000"), availableBalance("USDT"));
+        assertEquals(BigDecimal.ZERO, availableBalance("ETH"));
+    }
+
+    // History rows as the repository's projection returns them
+    private TradeDTO storedTrade(long id, LocalDateTime timestamp) {
+        return new TradeDTO(id, "ETHUSDT", "BUY", BigDecimal.ONE, new BigDecimal("3000"), new BigDecimal("3000"),
+                timestamp, "COMPLETED");
+    }
+
+    @Test
+    void testTradeHistoryPage_CursorContinuesFromLastTrade() {
+        // Arrange - three rows back for a page of two means there is another page
+        ReflectionTestUtils.setField(tradeService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(tradeService, "maxPageSize", 200);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000);
+        when(tradeRepository.findLatest(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(storedTrade(3L, now), storedTrade(2L, now), storedTrade(1L, now.minusSeconds(1))));
+        when(tradeRepository.findBefore(eq(1L), eq(now), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(storedTrade(1L, now.minusSeconds(1))));
+
+        // Act
+        TradePageDTO first = tradeService.getTradeHistoryPage(testUser, null, null, null, null);
+        TradePageDTO second = tradeService.getTradeHistoryPage(testUser, null, first.getNextCursor(), null, null);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), first.getTrades().stream().map(TradeDTO::getId).toList());
+        assertTrue(first.isHasMore());
+        assertEquals(List.of(1L), second.getTrades().stream().map(TradeDTO::getId).toList());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(tradeRepository).findLatest(eq(1L), page.capture());
+        assertEquals(3, page.getValue().getPageSize());
+    }
+
+    @Test
+    void testTradeHistoryPage_SinceReturnsNewerTradesNewestFirst() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeService, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(tradeService, "maxPageSize", 200);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(tradeRepository.findLatest(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(storedTrade(1L, now)));
+        when(tradeRepository.findAfter(eq(1L), eq(now), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(storedTrade(2L, now.plusSeconds(1)), storedTrade(3L, now.plusSeconds(2))));
+        String since = tradeService.getTradeHistoryPage(testUser, null, null, null, null).getLatestCursor();
+
+        // Act
+        TradePageDTO newer = tradeService.getTradeHistoryPage(testUser, null, null, since, null);
+
+        // Assert - the next poll starts after the newest trade returned
+        assertEquals(List.of(3L, 2L), newer.getTrades().stream().map(TradeDTO::getId).toList());
+        assertNull(newer.getNextCursor());
+        when(tradeRepository.findAfter(eq(1L), eq(now.plusSeconds(2)), eq(3L), any(Pageable.class)))
+                .thenReturn(List.of());
+        TradePageDTO nothingNew = tradeService.getTradeHistoryPage(testUser, null, null, newer.getLatestCursor(), null);
+        assertTrue(nothingNew.getTrades().isEmpty());
+        assertEquals(newer.getLatestCursor(), nothingNew.getLatestCursor());
+    }
+
+    @Test
+    void testTradeHistoryPage_SymbolPagesUseTheSymbolQueries() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeService, "defaultPageSize", 1);
+        ReflectionTestUtils.setField(tradeService, "maxPageSize", 200);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(tradeRepository.findLatestBySymbol(eq(1L), eq("ETHUSDT"), any(Pageable.class)))
+                .thenReturn(List.of(storedTrade(5L, now), storedTrade(2L, now.minusSeconds(1))));
+        when(tradeRepository.findBeforeBySymbol(eq(1L), eq("ETHUSDT"), eq(now), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(storedTrade(2L, now.minusSeconds(1))));
+        when(tradeRepository.findAfterBySymbol(eq(1L), eq("ETHUSDT"), eq(now), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        TradePageDTO first = tradeService.getTradeHistoryPage(testUser, "ETHUSDT", null, null, null);
+        TradePageDTO older = tradeService.getTradeHistoryPage(testUser, "ETHUSDT", first.getNextCursor(), null, null);
+        TradePageDTO newer = tradeService.getTradeHistoryPage(testUser, "ETHUSDT", null, first.getLatestCursor(), null);
+
+        // Assert - the all-symbol queries are never used for a symbol page
+        assertEquals(List.of(2L), older.getTrades().stream().map(TradeDTO::getId).toList());
+        assertTrue(newer.getTrades().isEmpty());
+        verify(tradeRepository, never()).findLatest(any(), any());
+        verify(tradeRepository, never()).findBefore(any(), any(), any(), any());
+        verify(tradeRepository, never()).findAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    void testTradeHistoryPage_LimitIsCapped() {
+        // Arrange
+        ReflectionTestUtils.setField(tradeService, "maxPageSize", 200);
+        when(tradeRepository.findLatestBySymbol(eq(1L), eq("BTCUSDT"), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        tradeService.getTradeHistoryPage(testUser, "BTCUSDT", null, null, 10_000);
+
+        // Assert
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(tradeRepository).findLatestBySymbol(eq(1L), eq("BTCUSDT"), page.capture());
+        assertEquals(201, page.getValue().getPageSize());
+    }
+
+    @Test
+    void testTradeHistoryPage_InvalidCursor() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> tradeService.getTradeHistoryPage(testUser, null, "not-a-cursor", null, null));
+        assertEquals("Invalid cursor: not-a-cursor", exception.getMessage());
     }
 }
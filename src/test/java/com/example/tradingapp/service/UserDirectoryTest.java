@@ -0,0 +1,63 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private TradingMetrics tradingMetrics = new TradingMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private UserDirectory userDirectory;
+
+    @Test
+    void testUserIsLoadedOnce() {
+        // Arrange
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        Optional<User> first = userDirectory.findById(1L);
+        Optional<User> second = userDirectory.findById(1L);
+
+        // Assert
+        assertSame(user, first.orElseThrow());
+        assertSame(user, second.orElseThrow());
+        verify(userRepository, times(1)).findById(1L);
+        verify(tradingMetrics).cacheLookup(TradingMetrics.Cache.USERS, false);
+        verify(tradingMetrics).cacheLookup(TradingMetrics.Cache.USERS, true);
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        // Arrange
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // Act
+        userDirectory.findById(2L);
+        Optional<User> again = userDirectory.findById(2L);
+
+        // Assert
+        assertTrue(again.isEmpty());
+        verify(userRepository, times(2)).findById(2L);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.tradingapp.service;
+
+import com.example.tradingapp.entity.User;
+import com.example.tradingapp.entity.Wallet;
+import com.example.tradingapp.metrics.TradingMetrics;
+import com.example.tradingapp.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalletLedgerTest {
+
+    private WalletLedger ledger;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Same column layout Hibernate generates for Wallet
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ledgertest;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE wallets (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                + "currency VARCHAR(255) NOT NULL, balance DECIMAL(18,8) NOT NULL, "
+                + "available_balance DECIMAL(18,8) NOT NULL, UNIQUE (user_id, currency))");
+        jdbcTemplate.update("INSERT INTO wallets (id, user_id, currency, balance, available_balance) "
+                + "VALUES (1, 1, 'USDT', 50000, 50000)");
+
+        user = new User();
+        user.setId(1L);
+        Wallet usdt = new Wallet();
+        usdt.setId(1L);
+        usdt.setUser(user);
+        usdt.setCurrency("USDT");
+        usdt.setBalance(new BigDecimal("50000"));
+        usdt.setAvailableBalance(new BigDecimal("50000"));
+        WalletRepository walletRepository = mock(WalletRepository.class);
+        when(walletRepository.findByUserId(user.getId())).thenReturn(List.of(usdt));
+
+        meterRegistry = new SimpleMeterRegistry();
+        ledger = new WalletLedger();
+        ReflectionTestUtils.setField(ledger, "walletRepository", walletRepository);
+        ReflectionTestUtils.setField(ledger, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(ledger, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(ledger, "tradingMetrics", new TradingMetrics(meterRegistry));
+        ReflectionTestUtils.setField(ledger, "flushIntervalMillis", 20L);
+        ledger.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ledger != null) {
+            ledger.stop();
+        }
+        jdbcTemplate.execute("DROP TABLE wallets");
+    }
+
+    private BigDecimal storedBalance(String currency) {
+        return jdbcTemplate.queryForObject("SELECT available_balance FROM wallets WHERE user_id = 1 AND currency = ?",
+                BigDecimal.class, currency);
+    }
+
+    @Test
+    void testSettlementsAreWrittenThrough() throws InterruptedException {
+        // Act - the first settlement creates the ETH wallet, the second updates it
+        ledger.settle(user, "USDT", 300_000_000_000L, "ETH", 100_000_000L, () -> null);
+        ledger.settle(user, "USDT", 300_000_000_000L, "ETH", 100_000_000L, () -> null);
+        ledger.stop();
+        ledger = null;
+
+        // Assert
+        assertEquals(0, new BigDecimal("44000").compareTo(storedBalance("USDT")));
+        assertEquals(0, new BigDecimal("2").compareTo(storedBalance("ETH")));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallets", Integer.class));
+        assertTrue(meterRegistry.counter("trading.wallet.ledger.written").count() >= 2);
+    }
+
+    @Test
+    void testCreatedWalletGetsItsId() throws InterruptedException {
+        // Arrange
+        ledger.settle(user, "USDT", 300_000_000_000L, "ETH", 100_000_000L, () -> null);
+
+        // Act
+        ledger.flush();
+
+        // Assert - the ledger copy now points at the inserted row
+        Long id = ledger.getWallet(user, "ETH").orElseThrow().getId();
+        assertNotNull(id);
+        assertEquals(id, jdbcTemplate.queryForObject("SELECT id FROM wallets WHERE currency = 'ETH'", Long.class));
+    }
+
+    @Test
+    void testRejectedSettlementChangesNothing() {
+        // Act
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> ledger.settle(user, "ETH", 100_000_000L, "USDT", 300_000_000_000L, () -> null));
+
+        // Assert
+        assertEquals("Insufficient ETH balance", exception.getMessage());
+        assertEquals(new BigDecimal("50000"), ledger.getWallet(user, "USDT").orElseThrow().getAvailableBalance());
+        assertEquals(0.0, meterRegistry.get("trading.wallet.ledger.dirty").gauge().value());
+    }
+
+    @Test
+    void testListenersHearOfChangesOnceBalancesAreReleased() {
+        // Arrange
+        List<Long> notified = new ArrayList<>();
+        ledger.onBalanceChange(notified::add);
+
+        // Act - two settlements inside one hold, then one that is rejected
+        ledger.hold(user, () -> {
+            ledger.settle(user, "USDT", 300_000_000_000L, "ETH", 100_000_000L, () -> null);
+            ledger.settle(user, "ETH", 50_000_000L, "USDT", 150_000_000_000L, () -> null);
+            assertTrue(notified.isEmpty());
+            return null;
+        });
+        assertThrows(IllegalArgumentException.class,
+                () -> ledger.settle(user, "BTC", 1L, "USDT", 1L, () -> null));
+
+        // Assert
+        assertEquals(List.of(1L), notified);
+        assertEquals(1, ledger.version(user));
+    }
+}
@@ -3,17 +3,24 @@ package com.example.tradingapp.service;
 import com.example.tradingapp.dto.WalletDTO;
 import com.example.tradingapp.entity.User;
 import com.example.tradingapp.entity.Wallet;
+import com.example.tradingapp.metrics.TradingMetrics;
 import com.example.tradingapp.repository.WalletRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,6 +35,10 @@ class WalletServiceTest {
     @InjectMocks
     private WalletService walletService;
 
+    private WalletLedger walletLedger;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private User testUser;
     private List<com.example.tradingapp.entity.Wallet> mockWallets;
 
@@ -52,12 +63,24 @@ class WalletServiceTest {
         ethWallet.setAvailableBalance(new BigDecimal("1.5"));
 
         mockWallets = List.of(usdtWallet, ethWallet);
+
+        // Real ledger over the mocked repository; its writer is not started
+        walletLedger = new WalletLedger();
+        TradingMetrics tradingMetrics = new TradingMetrics(meterRegistry);
+        ReflectionTestUtils.setField(walletLedger, "walletRepository", walletRepository);
+        ReflectionTestUtils.setField(walletLedger, "tradingMetrics", tradingMetrics);
+        ReflectionTestUtils.setField(walletService, "walletLedger", walletLedger);
+        ReflectionTestUtils.setField(walletService, "tradingMetrics", tradingMetrics);
+        ReflectionTestUtils.setField(walletService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(walletService, "maxUsers", 100L);
+        ReflectionTestUtils.setField(walletService, "ttlMillis", 60_000L);
+        walletService.init();
     }
 
     @Test
     void testGetUserWallets_Success() {
         // Arrange
-        when(walletRepository.findByUser(testUser))
+        when(walletRepository.findByUserId(testUser.getId()))
                 .thenReturn(mockWallets);
 
         // Act
@@ -69,13 +92,13 @@ class WalletServiceTest {
         assertEquals("USDT", wallets.get(0).getCurrency());
         assertEquals("ETH", wallets.get(1).getCurrency());
 
-        verify(walletRepository).findByUser(testUser);
+        verify(walletRepository).findByUserId(testUser.getId());
     }
 
     @Test
     void testGetUserWallets_NoWallets() {
         // Arrange
-        when(walletRepository.findByUser(testUser))
+        when(walletRepository.findByUserId(testUser.getId()))
                 .thenReturn(List.of());
 
         // Act
@@ -85,7 +108,7 @@ class WalletServiceTest {
         assertNotNull(wallets);
         assertEquals(0, wallets.size());
 
-        verify(walletRepository).findByUser(testUser);
+        verify(walletRepository).findByUserId(testUser.getId());
     }
 
     @Test
@@ -98,8 +121,8 @@ class WalletServiceTest {
         usdtWallet.setBalance(new BigDecimal("50000"));
         usdtWallet.setAvailableBalance(new BigDecimal("50000"));
 
-        when(walletRepository.findByUserAndCurrency(testUser, "USDT"))
-                .thenReturn(Optional.of(usdtWallet));
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(usdtWallet));
 
         // Act
         com.example.tradingapp.dto.WalletDTO wallet = walletService.getWalletByCurrency(testUser, "USDT");
@@ -109,14 +132,14 @@ class WalletServiceTest {
         assertEquals("USDT", wallet.getCurrency());
         assertEquals(new BigDecimal("50000"), wallet.getBalance());
 
-        verify(walletRepository).findByUserAndCurrency(testUser, "USDT");
+        verify(walletRepository).findByUserId(testUser.getId());
     }
 
     @Test
     void testGetWalletByCurrency_NotFound() {
         // Arrange
-        when(walletRepository.findByUserAndCurrency(testUser, "XYZ"))
-                .thenReturn(Optional.empty());
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(mockWallets);
 
         // Act & Assert
         Exception exception = assertThrows(RuntimeException.class, () -> {
@@ -124,7 +147,7 @@ class WalletServiceTest {
         });
         assertEquals("Wallet not found for currency: XYZ", exception.getMessage());
 
-        verify(walletRepository).findByUserAndCurrency(testUser, "XYZ");
+        verify(walletRepository).findByUserId(testUser.getId());
     }
 
     @Test
@@ -137,8 +160,8 @@ class WalletServiceTest {
         ethWallet.setBalance(new BigDecimal("2.5"));
         ethWallet.setAvailableBalance(new BigDecimal("1.8"));
 
-        when(walletRepository.findByUserAndCurrency(testUser, "ETH"))
-                .thenReturn(Optional.of(ethWallet));
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(List.of(ethWallet));
 
         // Act
         com.example.tradingapp.dto.WalletDTO wallet = walletService.getWalletByCurrency(testUser, "ETH");
@@ -150,4 +173,71 @@ class WalletServiceTest {
         assertEquals(new BigDecimal("2.5"), wallet.getBalance());
         assertEquals(new BigDecimal("1.8"), wallet.getAvailableBalance());
     }
+
+    @Test
+    void testWalletsAreCachedUntilBalancesChange() {
+        // Arrange
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(mockWallets);
+        List<WalletDTO> first = walletService.getUserWallets(testUser);
+
+        // Act
+        List<WalletDTO> cached = walletService.getUserWallets(testUser);
+        walletLedger.settle(testUser, "USDT", 300_000_000_000L, "ETH", 100_000_000L, () -> null);
+        List<WalletDTO> afterTrade = walletService.getUserWallets(testUser);
+
+        // Assert - the trade dropped the cached list, so the next read sees the new balances
+        assertSame(first, cached);
+        assertEquals(0, new BigDecimal("47000").compareTo(afterTrade.get(0).getAvailableBalance()));
+        assertEquals(0, new BigDecimal("2.5").compareTo(afterTrade.get(1).getAvailableBalance()));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "wallets", "result", "hit")
+                .functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tags("cache", "wallets", "result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testRejectedTradeKeepsCachedWallets() {
+        // Arrange
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(mockWallets);
+        List<WalletDTO> first = walletService.getUserWallets(testUser);
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () ->
+                walletLedger.settle(testUser, "ETH", 500_000_000L, "USDT", 1L, () -> null));
+
+        // Assert
+        assertSame(first, walletService.getUserWallets(testUser));
+    }
+
+    @Test
+    void testLoadWaitingForTheLedgerDoesNotBlockTheCache() throws Exception {
+        // Arrange - a read that has to wait for the ledger lock held by a trade in progress. The spy shares
+        // the ledger's accounts, and so their locks, and signals once the read has started loading
+        when(walletRepository.findByUserId(testUser.getId()))
+                .thenReturn(mockWallets);
+        walletLedger.getWallets(testUser);
+        WalletLedger ledger = spy(walletLedger);
+        CountDownLatch loading = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loading.countDown();
+            return invocation.callRealMethod();
+        }).when(ledger).getWallets(testUser);
+        ReflectionTestUtils.setField(walletService, "walletLedger", ledger);
+        @SuppressWarnings("unchecked")
+        Cache<Long, ?> cache = (Cache<Long, ?>) ReflectionTestUtils.getField(walletService, "wallets");
+        CompletableFuture<List<WalletDTO>> read = new CompletableFuture<>();
+
+        // Act - while the lock is held, the trade's side touches the same cache entry
+        walletLedger.hold(testUser, () -> {
+            new Thread(() -> read.complete(walletService.getUserWallets(testUser))).start();
+            assertTrue(assertDoesNotThrow(() -> loading.await(5, TimeUnit.SECONDS)));
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> cache.invalidate(testUser.getId()));
+            return null;
+        });
+
+        // Assert
+        assertEquals(2, read.get(5, TimeUnit.SECONDS).size());
+    }
 }
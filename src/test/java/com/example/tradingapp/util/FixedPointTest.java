@@ -0,0 +1,83 @@
+package com.example.tradingapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void testParse() {
+        // Act & Assert
+        assertEquals(300000000000L, FixedPoint.parse("3000"));
+        assertEquals(348121000000L, FixedPoint.parse("3481.21000000"));
+        assertEquals(50000000L, FixedPoint.parse("0.5"));
+        assertEquals(-250000000L, FixedPoint.parse("-2.5"));
+        assertEquals(1200L, FixedPoint.parse("1.2E-5"));
+    }
+
+    @Test
+    void testParse_RoundsPastEighthDecimal() {
+        // Act & Assert
+        assertEquals(1L, FixedPoint.parse("0.000000005"));
+        assertEquals(0L, FixedPoint.parse("0.000000004999"));
+    }
+
+    @Test
+    void testParse_Malformed() {
+        // Act & Assert
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("12a"));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("-"));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("."));
+    }
+
+    @Test
+    void testBigDecimalRoundTrip() {
+        // Act & Assert - trailing zeros dropped, whole numbers keep scale 0
+        assertEquals(new BigDecimal("3000"), FixedPoint.toBigDecimal(FixedPoint.fromBigDecimal(new BigDecimal("3000.00"))));
+        assertEquals(new BigDecimal("2.75"), FixedPoint.toBigDecimal(FixedPoint.fromBigDecimal(new BigDecimal("2.75"))));
+        assertEquals(BigDecimal.ZERO, FixedPoint.toBigDecimal(FixedPoint.ZERO));
+        assertEquals(new BigDecimal("0.00000001"), FixedPoint.toBigDecimal(1L));
+    }
+
+    @Test
+    void testFromBigDecimal_TooManyDecimals() {
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> FixedPoint.fromBigDecimal(new BigDecimal("1.123456789")));
+        assertTrue(exception.getMessage().contains("decimal places"));
+    }
+
+    @Test
+    void testMultiply_MatchesBigDecimal() {
+        // Arrange
+        String[][] cases = {
+                {"2", "3000"},
+                {"0.5", "67012.34"},
+                {"1.23456789", "3481.21987654"},
+                {"0.00000001", "0.5"},
+                {"-1.5", "2999.99"},
+                {"250000", "67012.35"}
+        };
+
+        for (String[] c : cases) {
+            // Act
+            long product = FixedPoint.multiply(FixedPoint.parse(c[0]), FixedPoint.parse(c[1]));
+
+            // Assert
+            BigDecimal expected = new BigDecimal(c[0]).multiply(new BigDecimal(c[1]))
+                    .setScale(FixedPoint.SCALE, RoundingMode.HALF_UP);
+            assertEquals(0, expected.compareTo(FixedPoint.toBigDecimal(product)), c[0] + " * " + c[1]);
+        }
+    }
+
+    @Test
+    void testMultiply_Overflow() {
+        // Act & Assert - 10^12 is past the ~9.2 * 10^10 whole-number range of a scaled long
+        assertThrows(ArithmeticException.class,
+                () -> FixedPoint.multiply(FixedPoint.fromLong(1_000_000), FixedPoint.fromLong(1_000_000)));
+    }
+}